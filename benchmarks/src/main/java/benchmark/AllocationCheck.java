@@ -0,0 +1,193 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import player.PlayerStore;
+import tournament.ScoreDistribution;
+import tournament.SimulationMode;
+import tournament.Tournament;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that simulating points, games and matches allocates nothing once warmed up.
+ * <p>
+ * Runs the game, match and batched kernel benchmarks with the {@link GCProfiler} and fails if any
+ * of them allocates more than {@link AllocationCheck#MAX_BYTES_PER_OP} on average, which leaves
+ * room for JMH's own bookkeeping but not for a single object per operation.
+ * <p>
+ * Then plays brackets on the common {@link ForkJoinPool} in both {@link SimulationMode}s, with
+ * Elo ratings in the same range as {@code Main} and spread wide enough for Elo differences past
+ * {@link ScoreDistribution#MAX_CACHED_DIFFERENCE}, and fails if the rounds after the first
+ * allocate more than
+ * {@link AllocationCheck#MAX_BYTES_PER_ROUND} on average, counting every thread. This leaves room
+ * for the pool to park a waiting thread but not for an object per task.
+ * <p>
+ * For example, {@code java -cp benchmarks/target/benchmarks.jar benchmark.AllocationCheck}.
+ */
+public class AllocationCheck {
+    /**
+     * Most bytes an operation may allocate on average while still counting as allocation free.
+     */
+    private static final double MAX_BYTES_PER_OP = 1.0;
+    /**
+     * Name of the {@link GCProfiler} result holding the bytes allocated per operation.
+     */
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+    /**
+     * Most bytes a round played on the pool may allocate on average across every thread while
+     * still counting as allocation free.
+     */
+    private static final double MAX_BYTES_PER_ROUND = 256.0;
+    /**
+     * Number of players in each bracket played on the pool, enough for ten rounds to be split
+     * into tasks.
+     */
+    private static final int PARALLEL_PLAYERS = 1 << 20;
+    /**
+     * Number of brackets played on the pool to warm up before measuring one.
+     */
+    private static final int PARALLEL_WARMUP_BRACKETS = 5;
+    /**
+     * Elo ratings of the players of {@link Fields#generate(int, long)} are spread over this range.
+     */
+    private static final int ELO_SPREAD = 400;
+    /**
+     * Range the Elo ratings of the wide field are spread over, so many matches are between players
+     * further apart than {@link ScoreDistribution#MAX_CACHED_DIFFERENCE}.
+     */
+    private static final int WIDE_ELO_SPREAD = 8000;
+
+    /**
+     * Program launch point
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException Thrown when a benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GameBenchmark.class.getSimpleName() + ".playGame")
+                .include(MatchBenchmark.class.getSimpleName() + ".playMatch")
+                .include(GameKernelBenchmark.class.getSimpleName() + ".playRound")
+                .param("matches", "1024")
+                .mode(Mode.AverageTime)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        boolean allocationFree = true;
+        System.out.println();
+        for (RunResult result : results) {
+            Result<?> allocation = result.getSecondaryResults().get(ALLOCATION_RESULT);
+            String name = result.getParams().getBenchmark() + " " + result.getParams().getParamsKeys().stream()
+                    .map(key -> key + "=" + result.getParams().getParam(key))
+                    .toList();
+            if (allocation == null) {
+                System.out.printf("%s: no allocation result%n", name);
+                allocationFree = false;
+            } else {
+                boolean passed = allocation.getScore() <= MAX_BYTES_PER_OP;
+                System.out.printf("%s: %.3f B/op %s%n", name, allocation.getScore(), passed ? "OK" : "ALLOCATES");
+                allocationFree &= passed;
+            }
+        }
+        for (int eloSpread : new int[] {ELO_SPREAD, WIDE_ELO_SPREAD}) {
+            PlayerStore field = Fields.generate(PARALLEL_PLAYERS, 42);
+            for (int id = 0; id < field.size(); id++) {
+                field.setElo(id, 1000 + (field.getElo(id) - 1000) * (eloSpread / ELO_SPREAD));
+            }
+            for (SimulationMode simulationMode : SimulationMode.values()) {
+                allocationFree &= checkParallelRounds(field, simulationMode, eloSpread);
+            }
+        }
+        if (!allocationFree) {
+            System.out.println("Steady state simulation is not allocation free!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays brackets on the common {@link ForkJoinPool} until warmed up, then measures how much
+     * every thread allocates while the rounds of one more bracket after the first are played.
+     *
+     * @param field {@link PlayerStore} of the players, copied for every bracket.
+     * @param simulationMode {@link SimulationMode} to play every match with.
+     * @param eloSpread Range the Elo ratings of the field are spread over, for the report.
+     *
+     * @return True if the rounds allocated at most {@link AllocationCheck#MAX_BYTES_PER_ROUND} on
+     * average.
+     */
+    private static boolean checkParallelRounds(PlayerStore field, SimulationMode simulationMode, int eloSpread) {
+        for (int i = 0; i < PARALLEL_WARMUP_BRACKETS; i++) {
+            Tournament tournament = newParallelTournament(field, simulationMode, i);
+            int round = 0;
+            while (round < tournament.getAssignedRounds()) {
+                tournament.playMatches(round++);
+                tournament.assignMatches();
+            }
+        }
+
+        // The first round sets up the tasks and scratch arrays every later round reuses
+        Tournament tournament = newParallelTournament(field, simulationMode, PARALLEL_WARMUP_BRACKETS);
+        tournament.playMatches(0);
+        tournament.assignMatches();
+        int round = 1;
+        long before = getAllocatedBytes();
+        while (round < tournament.getAssignedRounds()) {
+            tournament.playMatches(round++);
+            tournament.assignMatches();
+        }
+        double bytesPerRound = (double) (getAllocatedBytes() - before) / (round - 1);
+
+        boolean passed = bytesPerRound <= MAX_BYTES_PER_ROUND;
+        System.out.printf("parallel bracket [simulationMode=%s, players=%d, eloSpread=%d]: %.3f B/round %s%n",
+                simulationMode, PARALLEL_PLAYERS, eloSpread, bytesPerRound, passed ? "OK" : "ALLOCATES");
+        return passed;
+    }
+
+    /**
+     * Creates a tournament of a copy of the field which plays its large rounds on the common
+     * {@link ForkJoinPool}, with its first round drawn.
+     *
+     * @param field {@link PlayerStore} of the players to copy.
+     * @param simulationMode {@link SimulationMode} to play every match with.
+     * @param seed Seed of the tournament.
+     *
+     * @return {@link Tournament} object
+     */
+    private static Tournament newParallelTournament(PlayerStore field, SimulationMode simulationMode, long seed) {
+        Tournament tournament = new Tournament(field.copy(), seed);
+        tournament.setSimulationMode(simulationMode);
+        tournament.setPool(ForkJoinPool.commonPool());
+        tournament.assignMatches(tournament.getNeededByes());
+        return tournament;
+    }
+
+    /**
+     * Gets the number of bytes every live thread has allocated so far.
+     *
+     * @return long number of bytes.
+     */
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(bytes, 0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Launch point of {@code benchmarks.jar}.
+ * <p>
+ * Runs the benchmarks the same way as {@code org.openjdk.jmh.Main}, so every JMH command line
+ * option works, but measures throughput and sampled latency (with percentiles) and attaches the
+ * {@link GCProfiler} to report allocation rates unless told otherwise.
+ * <p>
+ * For example, {@code java -jar benchmarks/target/benchmarks.jar TournamentBenchmark -p players=1024}.
+ */
+public class Benchmarks {
+    /**
+     * Program launch point
+     *
+     * @param args JMH command line options, including which benchmarks to run.
+     *
+     * @throws CommandLineOptionException Thrown when an option cannot be parsed.
+     * @throws RunnerException Thrown when a benchmark fails.
+     * @throws IOException Thrown when JMH cannot print the help or list of benchmarks.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder builder = new OptionsBuilder();
+        // Options given on the command line override the defaults below
+        if (commandLine.getBenchModes().isEmpty()) {
+            builder.mode(Mode.Throughput).mode(Mode.SampleTime);
+        }
+        if (commandLine.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        Options options = builder.parent(commandLine).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import components.StreamRandom;
+import player.NameDictionary;
+import player.PlayerStore;
+
+/**
+ * Creates fields of players for the benchmarks without reading the name CSV files, so the
+ * benchmarks can be run from any directory.
+ */
+final class Fields {
+    /**
+     * Number of distinct first and last names shared by the generated players.
+     */
+    private static final int NAMES = 64;
+
+    /**
+     * Not instantiable.
+     */
+    private Fields() {
+    }
+
+    /**
+     * Generates a field of players with Elo ratings in the same range as {@code Main}.
+     *
+     * @param playerCount Number of players to generate.
+     * @param seed Seed of the generated names and Elo ratings.
+     *
+     * @return {@link PlayerStore} of the generated players
+     */
+    static PlayerStore generate(int playerCount, long seed) {
+        NameDictionary names = new NameDictionary();
+        for (int i = 0; i < NAMES; i++) {
+            names.addFirstName("First" + i, i % 2);
+            names.addLastName("Last" + i);
+        }
+        StreamRandom random = new StreamRandom(seed);
+        PlayerStore store = new PlayerStore(names, playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            int firstName = random.nextInt(NAMES);
+            store.add(firstName, random.nextInt(NAMES), names.getFirstNameGender(firstName), 1000 + random.nextInt(400));
+        }
+        return store;
+    }
+}
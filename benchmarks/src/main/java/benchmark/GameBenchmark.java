@@ -0,0 +1,70 @@
+package benchmark;
+
+import components.StreamRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tournament.Game;
+import tournament.Match;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks playing a single game point by point and calculating win chances.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GameBenchmark {
+    /**
+     * Difference in Elo rating between the two players.
+     */
+    @Param({"0", "200"})
+    public int eloDifference;
+    /**
+     * Chance of player 1 winning each point, calculated from {@link GameBenchmark#eloDifference}.
+     */
+    private double pointWinChance;
+    /**
+     * {@link Match} used to play games, as {@link Game} cannot be created by itself.
+     */
+    private Match game;
+
+    /**
+     * Creates the game and calculates the chance of winning a point.
+     */
+    @Setup
+    public void setUp() {
+        game = new Match(Fields.generate(2, 0));
+        game.setRandom(new StreamRandom(1));
+        pointWinChance = Game.getWinChance(eloDifference);
+    }
+
+    /**
+     * Plays a game point by point.
+     *
+     * @return Whether player 1 won, consumed by JMH so the game is not optimised away.
+     */
+    @Benchmark
+    public boolean playGame() {
+        return game.playGame(pointWinChance);
+    }
+
+    /**
+     * Calculates the chance of winning from a difference in Elo rating.
+     *
+     * @return Chance of winning, consumed by JMH so the calculation is not optimised away.
+     */
+    @Benchmark
+    public double getWinChance() {
+        return Game.getWinChance(eloDifference);
+    }
+}
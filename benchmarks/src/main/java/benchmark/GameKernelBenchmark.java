@@ -0,0 +1,93 @@
+package benchmark;
+
+import components.StreamRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tournament.Game;
+import tournament.GameKernel;
+import tournament.ScalarGameKernel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks playing a whole round of matches point by point with the scalar and Vector API
+ * {@link GameKernel}s.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GameKernelBenchmark {
+    /**
+     * Number of matches in the round.
+     */
+    @Param({"1024", "65536"})
+    public int matches;
+    /**
+     * Which kernel plays the round: {@code scalar} or {@code vector}.
+     */
+    @Param({"scalar", "vector"})
+    public String kernelName;
+    /**
+     * Kernel named by {@link GameKernelBenchmark#kernelName}.
+     */
+    private GameKernel kernel;
+    /**
+     * Seed of each match.
+     */
+    private long[] seeds;
+    /**
+     * Point win threshold of each match, for Elo differences of up to 400 either way.
+     */
+    private long[] thresholds;
+    /**
+     * Games won by player 1 of each match.
+     */
+    private int[] games1;
+    /**
+     * Games won by player 2 of each match.
+     */
+    private int[] games2;
+
+    /**
+     * Creates the kernel and the matches of the round.
+     *
+     * @throws ReflectiveOperationException Thrown when the vector kernel cannot be loaded.
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        if (kernelName.equals("vector")) {
+            kernel = (GameKernel) Class.forName(GameKernel.VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } else {
+            kernel = new ScalarGameKernel();
+        }
+        StreamRandom random = new StreamRandom(1);
+        seeds = new long[matches];
+        thresholds = new long[matches];
+        games1 = new int[matches];
+        games2 = new int[matches];
+        for (int i = 0; i < matches; i++) {
+            seeds[i] = random.nextLong();
+            thresholds[i] = GameKernel.getThreshold(Game.getWinChance(random.nextInt(801) - 400));
+        }
+    }
+
+    /**
+     * Plays every match of the round.
+     *
+     * @return Games won by player 1 of each match, consumed by JMH so the round is not optimised away.
+     */
+    @Benchmark
+    public int[] playRound() {
+        kernel.playMatches(seeds, thresholds, games1, games2, matches);
+        return games1;
+    }
+}
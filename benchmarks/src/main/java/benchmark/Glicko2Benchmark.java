@@ -0,0 +1,68 @@
+package benchmark;
+
+import components.StreamRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import player.Glicko2Ratings;
+import player.RatingPeriod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks re-rating a whole Glicko-2 rating period of random results between a million
+ * players on every core.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class Glicko2Benchmark {
+    /**
+     * Number of players who can appear in the results.
+     */
+    private static final int PLAYERS = 1_000_000;
+    /**
+     * Number of results in the rating period.
+     */
+    @Param({"1000000", "10000000"})
+    public int results;
+    /**
+     * Results of the rating period, with random players and scores.
+     */
+    private RatingPeriod period;
+
+    /**
+     * Generates the results of the rating period.
+     */
+    @Setup
+    public void setUp() {
+        StreamRandom random = new StreamRandom(42);
+        period = new RatingPeriod();
+        for (int i = 0; i < results; i++) {
+            int player1 = random.nextInt(PLAYERS);
+            // Any other player, so nobody plays themselves
+            int player2 = (player1 + 1 + random.nextInt(PLAYERS - 1)) % PLAYERS;
+            period.addResult(player1, player2, random.nextInt(3) / 2.0);
+        }
+    }
+
+    /**
+     * Rates every player from the period's results, starting from new players each time.
+     *
+     * @return {@link Glicko2Ratings} object, consumed by JMH so the rating is not optimised away.
+     */
+    @Benchmark
+    public Glicko2Ratings ratePeriod() {
+        Glicko2Ratings ratings = new Glicko2Ratings(PLAYERS);
+        ratings.ratePeriod(period);
+        return ratings;
+    }
+}
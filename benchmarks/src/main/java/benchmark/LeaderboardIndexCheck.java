@@ -0,0 +1,123 @@
+package benchmark;
+
+import player.PlayerStore;
+import tournament.LeaderboardIndex;
+import tournament.SimulationMode;
+import tournament.Tournament;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that a {@link Tournament}'s {@link LeaderboardIndex} agrees with a full sort of every
+ * player after every round, however the rounds are played.
+ * <p>
+ * Plays a bracket of a million players in parallel, one played in batches by the game kernel and
+ * one played a match at a time with sampled scores. After each round every player's rank, the
+ * player at every rank and the number of players on each number of wins are compared with a
+ * sort by wins, then Elo rating, then id. Fails on the first difference.
+ * <p>
+ * For example, {@code java -cp benchmarks/target/benchmarks.jar benchmark.LeaderboardIndexCheck}.
+ */
+public class LeaderboardIndexCheck {
+    /**
+     * Bits of the sort key holding a player's id.
+     */
+    private static final int ID_BITS = 24;
+    /**
+     * Bits of the sort key holding a player's Elo rating.
+     */
+    private static final int ELO_BITS = 24;
+
+    /**
+     * Program launch point
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        boolean agrees = check("parallel", 1 << 20, SimulationMode.POINT_BY_POINT, ForkJoinPool.commonPool())
+                & check("batched", 100_000, SimulationMode.POINT_BY_POINT, null)
+                & check("one match at a time", 100_000, SimulationMode.SAMPLED, null);
+        if (!agrees) {
+            System.out.println("The leaderboard index does not match a full sort!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a bracket with a {@link LeaderboardIndex}, comparing it with a full sort after every
+     * round.
+     *
+     * @param name Name of the check, for the output.
+     * @param playerCount Number of players in the bracket.
+     * @param simulationMode {@link SimulationMode} to play every match with.
+     * @param pool {@link ForkJoinPool} to play large rounds on, or null to play them on this thread.
+     *
+     * @return True if the index matched the sort after every round.
+     */
+    private static boolean check(String name, int playerCount, SimulationMode simulationMode, ForkJoinPool pool) {
+        PlayerStore field = Fields.generate(playerCount, 7);
+        Tournament tournament = new Tournament(field, 11);
+        tournament.setSimulationMode(simulationMode);
+        tournament.setPool(pool);
+        tournament.setLeaderboardIndex(new LeaderboardIndex(field));
+        tournament.assignMatches(tournament.getNeededByes());
+        int round = 0;
+        while (true) {
+            tournament.playMatches(round);
+            String difference = compare(tournament.getLeaderboardIndex(), field);
+            if (difference != null) {
+                System.out.printf("%s, %d players: round %d: %s%n", name, playerCount, round + 1, difference);
+                return false;
+            }
+            if (tournament.getNumberOfMatches(round) == 1) {
+                break;
+            }
+            tournament.assignMatches();
+            round++;
+        }
+        System.out.printf("%s, %d players: %d rounds OK%n", name, playerCount, round + 1);
+        return true;
+    }
+
+    /**
+     * Compares an index with a full sort of the players' current wins and Elo ratings.
+     *
+     * @param index {@link LeaderboardIndex} to check.
+     * @param field {@link PlayerStore} of the players.
+     *
+     * @return Description of the first difference, or null if there is none.
+     */
+    private static String compare(LeaderboardIndex index, PlayerStore field) {
+        int playerCount = field.size();
+        // Most wins first, then highest Elo, then lowest id, packed so a primitive sort orders them
+        long[] keys = new long[playerCount];
+        int maxWins = 0;
+        for (int id = 0; id < playerCount; id++) {
+            maxWins = Math.max(maxWins, field.getWins(id));
+        }
+        for (int id = 0; id < playerCount; id++) {
+            long eloKey = (1L << (ELO_BITS - 1)) - field.getElo(id);
+            keys[id] = ((long) (maxWins - field.getWins(id)) << (ELO_BITS + ID_BITS)) | (eloKey << ID_BITS) | id;
+        }
+        Arrays.sort(keys);
+
+        int[] winCounts = new int[maxWins + 1];
+        for (int rank = 1; rank <= playerCount; rank++) {
+            int expected = (int) (keys[rank - 1] & ((1L << ID_BITS) - 1));
+            winCounts[field.getWins(expected)]++;
+            if (index.getPlayerAt(rank) != expected) {
+                return "rank " + rank + " is player " + index.getPlayerAt(rank) + " rather than " + expected;
+            }
+            if (index.getRank(expected) != rank) {
+                return "player " + expected + " is ranked " + index.getRank(expected) + " rather than " + rank;
+            }
+        }
+        for (int wins = 0; wins <= maxWins; wins++) {
+            if (index.getPlayerCountWithWins(wins) != winCounts[wins]) {
+                return index.getPlayerCountWithWins(wins) + " players on " + wins + " wins rather than " + winCounts[wins];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import components.StreamRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import player.PlayerStore;
+import tournament.Match;
+import tournament.SimulationMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks playing a whole match, including the Elo rating updates at the end.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MatchBenchmark {
+    /**
+     * How the games of the match are played.
+     */
+    @Param({"POINT_BY_POINT", "SAMPLED"})
+    public SimulationMode simulationMode;
+    /**
+     * {@link PlayerStore} holding the two players of the match.
+     */
+    private PlayerStore store;
+    /**
+     * Elo rating of player 1 before any match is played.
+     */
+    private int elo1;
+    /**
+     * Elo rating of player 2 before any match is played.
+     */
+    private int elo2;
+    /**
+     * Generator shared by every match, so no generator is created while measuring.
+     */
+    private final StreamRandom random = new StreamRandom(1);
+    /**
+     * {@link Match} reused for every invocation, the same way tournaments reuse one match.
+     */
+    private Match match;
+
+    /**
+     * Creates the two players of the match.
+     */
+    @Setup
+    public void setUp() {
+        store = Fields.generate(2, 0);
+        elo1 = store.getElo(0);
+        elo2 = store.getElo(1);
+        match = new Match(store);
+        match.setRandom(random);
+        match.setSimulationMode(simulationMode);
+    }
+
+    /**
+     * Plays a match between the same two players, resetting their Elo ratings first so every
+     * match is played at the same difference in rating.
+     *
+     * @return id of the loser, consumed by JMH so the match is not optimised away.
+     */
+    @Benchmark
+    public int playMatch() {
+        store.setElo(0, elo1);
+        store.setElo(1, elo2);
+        match.setPlayers(0, 1);
+        return match.playMatch();
+    }
+}
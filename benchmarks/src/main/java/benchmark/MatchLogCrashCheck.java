@@ -0,0 +1,133 @@
+package benchmark;
+
+import player.PlayerStore;
+import tournament.CheckpointReader;
+import tournament.CheckpointWriter;
+import tournament.LeaderboardIndex;
+import tournament.MatchLogReader;
+import tournament.MatchLogWriter;
+import tournament.Tournament;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Checks that a tournament recording a match log and saving checkpoints can crash, resume from
+ * its last checkpoint and still leave a log which replays to the same results as a run which
+ * never stopped, with its fixed Elo ratings and {@link LeaderboardIndex} carried on.
+ * <p>
+ * The crashed run saves a checkpoint after each of its first rounds, plays one more round without
+ * one and then stops without closing its match log, losing anything the log had not written.
+ * It is resumed like {@code Main --resume <checkpoint> --log <log>}, then the log is replayed and
+ * every player's Elo rating and wins are compared with the run which never stopped, as are the
+ * leaders of the resumed tournament's index.
+ * <p>
+ * For example, {@code java -cp benchmarks/target/benchmarks.jar benchmark.MatchLogCrashCheck}.
+ */
+public class MatchLogCrashCheck {
+    /**
+     * Number of players in the tournament, few enough that a whole round fits in the log's buffer.
+     */
+    private static final int PLAYERS = 5000;
+    /**
+     * Seed of the players' names and Elo ratings.
+     */
+    private static final long FIELD_SEED = 7;
+    /**
+     * Seed of the tournament.
+     */
+    private static final long TOURNAMENT_SEED = 11;
+    /**
+     * Number of rounds the crashed run saves a checkpoint after.
+     */
+    private static final int CHECKPOINTED_ROUNDS = 3;
+    /**
+     * Number of leaders compared between the indexes of the two runs.
+     */
+    private static final int LEADERS = 100;
+
+    /**
+     * Program launch point
+     *
+     * @param args Not used.
+     *
+     * @throws IOException Thrown when the log or checkpoint cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("match-log-crash");
+        Path logPath = directory.resolve("matches.log");
+        Path checkpointPath = directory.resolve("tournament.checkpoint");
+        try {
+            PlayerStore expected = Fields.generate(PLAYERS, FIELD_SEED);
+            Tournament reference = new Tournament(expected, TOURNAMENT_SEED);
+            reference.setFixedElo(true);
+            reference.setLeaderboardIndex(new LeaderboardIndex(expected));
+            reference.assignMatches(reference.getNeededByes());
+            playRounds(reference, Integer.MAX_VALUE);
+
+            // Crash after a round with no checkpoint, leaving the log open
+            Tournament crashed = new Tournament(Fields.generate(PLAYERS, FIELD_SEED), TOURNAMENT_SEED);
+            crashed.setFixedElo(true);
+            crashed.setLeaderboardIndex(new LeaderboardIndex(crashed.getPlayerStore()));
+            crashed.setListener(new MatchLogWriter(logPath, crashed));
+            crashed.assignMatches(crashed.getNeededByes());
+            try (CheckpointWriter checkpoints = new CheckpointWriter(checkpointPath)) {
+                for (int round = 0; round < CHECKPOINTED_ROUNDS; round++) {
+                    playRounds(crashed, 1);
+                    checkpoints.save(crashed);
+                }
+            }
+            playRounds(crashed, 1);
+
+            Tournament resumed = CheckpointReader.resume(checkpointPath, Fields.generate(PLAYERS, FIELD_SEED));
+            if (!resumed.isFixedElo() || resumed.getLeaderboardIndex() == null) {
+                System.out.println("The resumed tournament lost its fixed Elo ratings or leaderboard index!");
+                System.exit(1);
+            }
+            try (MatchLogWriter log = MatchLogWriter.append(logPath, resumed)) {
+                resumed.setListener(log);
+                if (resumed.getRoundsPlayed() == resumed.getAssignedRounds()) {
+                    resumed.assignMatches();
+                }
+                playRounds(resumed, Integer.MAX_VALUE);
+            }
+
+            if (!Arrays.equals(resumed.getLeaderboardIndex().getTop(LEADERS), reference.getLeaderboardIndex().getTop(LEADERS))) {
+                System.out.println("The resumed tournament's leaderboard index differs from the run which never stopped!");
+                System.exit(1);
+            }
+
+            PlayerStore replayed = Fields.generate(PLAYERS, FIELD_SEED);
+            MatchLogReader.replay(logPath, replayed);
+            for (int id = 0; id < PLAYERS; id++) {
+                if (replayed.getElo(id) != expected.getElo(id) || replayed.getWins(id) != expected.getWins(id)) {
+                    System.out.printf("Player %d replays to Elo %d with %d wins rather than Elo %d with %d wins!%n",
+                            id, replayed.getElo(id), replayed.getWins(id), expected.getElo(id), expected.getWins(id));
+                    System.exit(1);
+                }
+            }
+            System.out.printf("%d players: resumed after %d checkpointed rounds, log replays OK%n", PLAYERS, CHECKPOINTED_ROUNDS);
+        } finally {
+            Files.deleteIfExists(logPath);
+            Files.deleteIfExists(checkpointPath);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Plays the next rounds of a tournament, assigning the matches of the round after each one.
+     *
+     * @param tournament {@link Tournament} to play.
+     * @param rounds Most rounds to play, stopping early after the final.
+     */
+    private static void playRounds(Tournament tournament, int rounds) {
+        int round = tournament.getRoundsPlayed();
+        for (int played = 0; played < rounds && round < tournament.getAssignedRounds(); played++) {
+            tournament.playMatches(round);
+            tournament.assignMatches();
+            round++;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import player.PlayerStore;
+import tournament.DoubleEliminationTournament;
+import tournament.SimulationMode;
+import tournament.Tournament;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks drawing the first round of a tournament and playing a whole single or
+ * double-elimination bracket, at sizes from 2^10 to 2^20 players.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TournamentBenchmark {
+    /**
+     * Number of players in the tournament.
+     */
+    @Param({"1024", "16384", "131072", "1048576"})
+    public int players;
+    /**
+     * How the games of every match are played.
+     */
+    @Param({"SAMPLED", "POINT_BY_POINT"})
+    public SimulationMode simulationMode;
+    /**
+     * Field of players every tournament is played with.
+     */
+    private PlayerStore field;
+    /**
+     * Seed of the next tournament, changed every time so each bracket plays out differently.
+     */
+    private long seed = 0;
+
+    /**
+     * Generates the field of players.
+     */
+    @Setup
+    public void setUp() {
+        field = Fields.generate(players, 42);
+    }
+
+    /**
+     * Sorts the players by Elo rating and draws the first round, including entering the
+     * players into a new {@link Tournament}.
+     *
+     * @return {@link Tournament} object, consumed by JMH so the draw is not optimised away.
+     */
+    @Benchmark
+    public Tournament assignMatches() {
+        Tournament tournament = new Tournament(field, seed++);
+        tournament.assignMatches(tournament.getNeededByes());
+        return tournament;
+    }
+
+    /**
+     * Plays every round of a tournament with a fresh copy of the field, the same way as
+     * {@code Main}.
+     *
+     * @return {@link Tournament} object, consumed by JMH so the bracket is not optimised away.
+     */
+    @Benchmark
+    public Tournament fullBracket() {
+        Tournament tournament = new Tournament(field.copy(), seed++);
+        tournament.setSimulationMode(simulationMode);
+        tournament.assignMatches(tournament.getNeededByes());
+        int round = 0;
+        while (tournament.getNumberOfMatches(round) > 1) {
+            tournament.playMatches(round);
+            tournament.assignMatches();
+            round++;
+        }
+        tournament.playMatches(round);
+        return tournament;
+    }
+
+    /**
+     * Plays every round of a tournament like {@link TournamentBenchmark#fullBracket()}, with large
+     * rounds split across the common {@link ForkJoinPool}.
+     *
+     * @return {@link Tournament} object, consumed by JMH so the bracket is not optimised away.
+     */
+    @Benchmark
+    public Tournament fullBracketParallel() {
+        Tournament tournament = new Tournament(field.copy(), seed++);
+        tournament.setSimulationMode(simulationMode);
+        tournament.setPool(ForkJoinPool.commonPool());
+        tournament.assignMatches(tournament.getNeededByes());
+        int round = 0;
+        while (tournament.getNumberOfMatches(round) > 1) {
+            tournament.playMatches(round);
+            tournament.assignMatches();
+            round++;
+        }
+        tournament.playMatches(round);
+        return tournament;
+    }
+
+    /**
+     * Plays a whole double-elimination tournament with a fresh copy of the field, for comparing
+     * against {@link TournamentBenchmark#fullBracket()}.
+     *
+     * @return {@link DoubleEliminationTournament} object, consumed by JMH so the bracket is not
+     * optimised away.
+     */
+    @Benchmark
+    public DoubleEliminationTournament doubleElimination() {
+        DoubleEliminationTournament tournament = new DoubleEliminationTournament(field.copy(), seed++);
+        tournament.setSimulationMode(simulationMode);
+        tournament.play();
+        return tournament;
+    }
+}
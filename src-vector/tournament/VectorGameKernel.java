@@ -0,0 +1,210 @@
+package tournament;
+
+import components.StreamRandom;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link GameKernel} playing a whole lane of matches at once with the
+ * <a href="https://openjdk.org/jeps/414">Vector API</a>.
+ * <p>
+ * Each SIMD lane holds one match: its {@link StreamRandom} state, point win threshold, points and
+ * games. Every step draws the next point of every lane together, masks out lanes whose match has
+ * finished and resets the points of lanes whose game has just finished. When a lane's match
+ * finishes it is refilled with the next match of the batch, so lanes are not left idle waiting
+ * for the longest match of a group.
+ * <p>
+ * Masks are kept as lanes of 0 and 1 (or every bit set) built from sign bits, rather than as
+ * {@code VectorMask}s, and the point loop is kept in its own small method with as few operations
+ * as possible. Both keep the loop within what C2 can inline and compile to plain vector
+ * instructions, since any operation it cannot is run by allocating Java code instead.
+ * <p>
+ * Lanes are loaded and spilled through a small array kept for each thread, so after the first
+ * batch on a thread nothing is allocated, and one kernel can be shared by every thread.
+ * <p>
+ * Lives outside the main sources because it needs {@code --add-modules jdk.incubator.vector} to
+ * compile and run. {@link GameKernel#create()} only loads it when the module is available.
+ * <p>
+ * Source: <a href="https://doi.org/10.1145/2714064.2660195">SplitMix64 (Steele, Lea and Flood)</a>
+ */
+public class VectorGameKernel implements GameKernel {
+    /**
+     * Widest vector shape the CPU supports for {@code long} lanes.
+     */
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    /**
+     * Number of matches played at once.
+     */
+    private static final int LANES = SPECIES.length();
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of each lane's generator state.
+     */
+    private static final int STATE = 0;
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of each lane's point win threshold, negative for
+     * lanes with no match left to play.
+     */
+    private static final int THRESHOLD = LANES;
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of player 1's points in each lane's current game.
+     */
+    private static final int POINTS1 = 2 * LANES;
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of player 2's points in each lane's current game.
+     */
+    private static final int POINTS2 = 3 * LANES;
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of the games won by player 1 in each lane.
+     */
+    private static final int WINS1 = 4 * LANES;
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of the games won by player 2 in each lane.
+     */
+    private static final int WINS2 = 5 * LANES;
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of whether each lane's match has just finished.
+     */
+    private static final int FINISHED = 6 * LANES;
+    /**
+     * Offset in {@link VectorGameKernel#SCRATCH} of which match of the batch each lane holds.
+     */
+    private static final int MATCH = 7 * LANES;
+    /**
+     * Memory lanes are spilled to and loaded from, one array per thread so that nothing is
+     * allocated after the first batch on a thread.
+     */
+    private static final ThreadLocal<long[]> SCRATCH = ThreadLocal.withInitial(() -> new long[8 * LANES]);
+    /**
+     * Odd constant added to each generator's state on every step, the same as {@link StreamRandom}.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /**
+     * Multiplicative inverse of {@link VectorGameKernel#GOLDEN_GAMMA} modulo {@code 2^64}, which
+     * turns how far a generator's state has moved from its seed back into the points it drew.
+     */
+    private static final long GOLDEN_GAMMA_INVERSE = 0xf1de83e19937733dL;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long playMatches(long[] seeds, long[] thresholds, int[] games1, int[] games2, int count) {
+        long[] scratch = SCRATCH.get();
+        long points = 0;
+        // Fill every lane with a match, leaving lanes past the end of the batch finished
+        int next = 0;
+        for (int lane = 0; lane < LANES; lane++) {
+            next = fillLane(scratch, lane, next, seeds, thresholds, count);
+        }
+        while (playUntilMatchOver(scratch)) {
+            // Write out finished matches, then load the next ones into their lanes
+            for (int lane = 0; lane < LANES; lane++) {
+                if (scratch[FINISHED + lane] != 0) {
+                    int finished = (int) scratch[MATCH + lane];
+                    games1[finished] = (int) scratch[WINS1 + lane];
+                    games2[finished] = (int) scratch[WINS2 + lane];
+                    // Every point steps the state on by one gamma, so points are not counted in the loop
+                    points += (scratch[STATE + lane] - seeds[finished]) * GOLDEN_GAMMA_INVERSE;
+                    next = fillLane(scratch, lane, next, seeds, thresholds, count);
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Plays points in every lane until at least one lane's match finishes, then spills the lanes
+     * back to the scratch memory with the finished lanes marked.
+     *
+     * @param scratch Scratch memory of the calling thread.
+     *
+     * @return False if no lane had a match left to play.
+     */
+    private static boolean playUntilMatchOver(long[] scratch) {
+        LongVector state = LongVector.fromArray(SPECIES, scratch, STATE);
+        LongVector threshold = LongVector.fromArray(SPECIES, scratch, THRESHOLD);
+        LongVector points1 = LongVector.fromArray(SPECIES, scratch, POINTS1);
+        LongVector points2 = LongVector.fromArray(SPECIES, scratch, POINTS2);
+        LongVector wins1 = LongVector.fromArray(SPECIES, scratch, WINS1);
+        LongVector wins2 = LongVector.fromArray(SPECIES, scratch, WINS2);
+        // 1 in lanes still playing a match, 0 in lanes with nothing left to play
+        LongVector active = threshold.lanewise(VectorOperators.NOT).lanewise(VectorOperators.LSHR, 63);
+        if (active.reduceLanes(VectorOperators.OR) == 0) {
+            return false;
+        }
+
+        do {
+            // SplitMix64, keeping the top 53 bits like nextDouble()
+            state = state.add(GOLDEN_GAMMA);
+            LongVector z = state;
+            z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 30)).mul(0xbf58476d1ce4e5b9L);
+            z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 27)).mul(0x94d049bb133111ebL);
+            z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 31));
+            // The sign of the threshold minus the random value is set when player 2 wins the point
+            LongVector player2Won = threshold.sub(z.lanewise(VectorOperators.LSHR, 11))
+                    .lanewise(VectorOperators.LSHR, 63)
+                    .lanewise(VectorOperators.AND, active);
+            points1 = points1.add(active.sub(player2Won));
+            points2 = points2.add(player2Won);
+
+            // A game is over at 15 points, or at 11 or more with a 2 point lead, which is when
+            // this is not negative
+            LongVector leader = points1.max(points2);
+            LongVector margin = points1.sub(points2).lanewise(VectorOperators.ABS);
+            LongVector gameOver = leader.sub(Game.POINTS_TO_WIN)
+                    .min(margin.sub(Game.WINNING_MARGIN))
+                    .max(leader.sub(Game.MAX_POINTS))
+                    .lanewise(VectorOperators.NOT)
+                    .lanewise(VectorOperators.LSHR, 63);
+            LongVector player1WonGame = points2.sub(points1).lanewise(VectorOperators.LSHR, 63).lanewise(VectorOperators.AND, gameOver);
+            wins1 = wins1.add(player1WonGame);
+            wins2 = wins2.add(gameOver.sub(player1WonGame));
+            // Subtracting 1 turns a finished game's 1 into no bits and 0 into every bit
+            LongVector keepPoints = gameOver.sub(1);
+            points1 = points1.lanewise(VectorOperators.AND, keepPoints);
+            points2 = points2.lanewise(VectorOperators.AND, keepPoints);
+        }
+        while (wins1.max(wins2).reduceLanes(VectorOperators.MAX) < ScoreDistribution.GAMES_TO_WIN);
+
+        // 1 in lanes whose match has just finished
+        LongVector matchOver = wins1.max(wins2).sub(ScoreDistribution.GAMES_TO_WIN)
+                .lanewise(VectorOperators.NOT)
+                .lanewise(VectorOperators.LSHR, 63);
+        state.intoArray(scratch, STATE);
+        points1.intoArray(scratch, POINTS1);
+        points2.intoArray(scratch, POINTS2);
+        wins1.intoArray(scratch, WINS1);
+        wins2.intoArray(scratch, WINS2);
+        matchOver.intoArray(scratch, FINISHED);
+        return true;
+    }
+
+    /**
+     * Loads the next match of the batch into a lane's slots of the scratch memory, or marks the
+     * lane as finished with a negative threshold if there are none left.
+     *
+     * @param scratch Scratch memory of the calling thread.
+     * @param lane Lane to fill.
+     * @param next Next match of the batch to play.
+     * @param seeds Seed of each match's {@link StreamRandom} stream.
+     * @param thresholds Point win threshold of each match.
+     * @param count Number of matches in the batch.
+     *
+     * @return Next match of the batch to play after this one.
+     */
+    private static int fillLane(long[] scratch, int lane, int next, long[] seeds, long[] thresholds, int count) {
+        scratch[POINTS1 + lane] = 0;
+        scratch[POINTS2 + lane] = 0;
+        scratch[WINS1 + lane] = 0;
+        scratch[WINS2 + lane] = 0;
+        if (next < count) {
+            scratch[STATE + lane] = seeds[next];
+            scratch[THRESHOLD + lane] = thresholds[next];
+            scratch[MATCH + lane] = next;
+            return next + 1;
+        }
+        scratch[THRESHOLD + lane] = -1;
+        return next;
+    }
+}
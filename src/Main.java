@@ -1,17 +1,61 @@
 import com.opencsv.exceptions.CsvException;
 import components.CSVParser;
-import player.Player;
+import components.StreamRandom;
+import player.NameDictionary;
+import player.PlayerStore;
+import player.RosterImporter;
+import simulation.BatchRunner;
+import simulation.BracketProbabilities;
+import simulation.BracketSolver;
+import simulation.MonteCarlo;
+import simulation.Season;
+import simulation.SimulationServer;
+import tournament.CheckpointReader;
+import tournament.CheckpointWriter;
+import tournament.ConsoleListener;
+import tournament.DoubleEliminationTournament;
+import tournament.LeaderboardIndex;
+import tournament.League;
+import tournament.MatchLogReader;
+import tournament.MatchLogWriter;
+import tournament.SimulationMetrics;
+import tournament.SimulationMode;
+import tournament.SwissTournament;
 import tournament.Tournament;
+import tournament.TournamentListener;
+import tournament.Verbosity;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Main class
  */
 public class Main {
     /**
-     * Get user input for number of players in the tournament.
+     * Most players a tournament can have.
+     */
+    private static final int MAX_PLAYERS = 10_000_000;
+    /**
+     * Path of the CSV file of first names.
+     */
+    private static final String FIRST_NAMES_PATH = "data/firstnames.csv";
+    /**
+     * Path of the CSV file of last names.
+     */
+    private static final String LAST_NAMES_PATH = "data/lastnames.csv";
+    /**
+     * Path of the snapshot of the names, loaded instead of the CSV files when it is up to date.
+     */
+    private static final String NAMES_SNAPSHOT_PATH = "data/names.snapshot";
+
+    /**
+     * Get user input for number of players in the tournament, asking again until a valid number
+     * is entered.
      *
      * @return Number of players in the tournament (int)
      */
@@ -20,113 +64,689 @@ public class Main {
         Scanner scanner = new Scanner(System.in);
         System.out.println("Enter the number of players in the tournament:");
         System.out.print("> ");
-        int playerCount = -1;
-        try {
-            playerCount = scanner.nextInt();
-            // Input must be larger than 2
-            if (playerCount < 2) {
-                System.out.println("You need at least two players! Please try again...");
-                getPlayerCount(); // Calls self recursively until valid input is entered
-            // Input must be less than 100,000
-            } else if (playerCount > 100_000) {
-                System.out.println("You can have at most 100,000 players! Please try again...");
-                getPlayerCount();
+        while (true) {
+            try {
+                int playerCount = scanner.nextInt();
+                // Input must be larger than 2
+                if (playerCount < 2) {
+                    System.out.println("You need at least two players! Please try again...");
+                // Input must be less than 10,000,000
+                } else if (playerCount > MAX_PLAYERS) {
+                    System.out.println("You can have at most 10,000,000 players! Please try again...");
+                } else {
+                    return playerCount;
+                }
+            }
+            // Input must be an integer
+            catch (java.util.InputMismatchException e) {
+                System.out.println("Input must be an integer! Please try again...");
+                scanner.next();
+            }
+        }
+    }
+
+    /**
+     * Generate a field of players with random names and Elo ratings.
+     *
+     * @param playerCount Number of players to generate.
+     * @param random {@link RandomGenerator} used to pick names and Elo ratings.
+     *
+     * @return {@link PlayerStore} of the generated players
+     *
+     * @throws IOException Thrown when an issue arises with {@link CSVParser}.
+     * @throws CsvException Thrown when an issue arises with {@link CSVParser}.
+     */
+    private static PlayerStore generatePlayers(int playerCount, RandomGenerator random) throws IOException, CsvException {
+        NameDictionary names = loadNames();
+
+        System.out.println("[SYSTEM] Generating players...");
+        return PlayerStore.generate(names, playerCount, random);
+    }
+
+    /**
+     * Load the first and last names players are generated with, from the names snapshot if it is
+     * up to date.
+     *
+     * @return {@link NameDictionary} of the names
+     *
+     * @throws IOException Thrown when an issue arises with {@link CSVParser}.
+     * @throws CsvException Thrown when an issue arises with {@link CSVParser}.
+     */
+    private static NameDictionary loadNames() throws IOException, CsvException {
+        System.out.println("[SYSTEM] Loading player names...");
+        return NameDictionary.loadCached(FIRST_NAMES_PATH, LAST_NAMES_PATH, NAMES_SNAPSHOT_PATH);
+    }
+
+    /**
+     * Print how long the program has run for, closing the output.
+     *
+     * @param label What was run, e.g. {@code Tournament}.
+     * @param startTime Time the program started, in milliseconds.
+     */
+    private static void printExecutionTime(String label, long startTime) {
+        final long endTime = System.currentTimeMillis();
+        System.out.printf("%s execution time: %f seconds%n", label, Math.round((endTime-startTime)/100.0)/10.0);
+        System.out.printf("------------------------------------------------------------%n");
+    }
+
+    /**
+     * Get the value of a {@code --name value} command line option.
+     *
+     * @param args Command line arguments
+     * @param name Name of the option, including the leading dashes.
+     *
+     * @return Value of the option, or null if it was not given.
+     */
+    private static String getOption(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check whether a {@code --name} flag was given on the command line.
+     *
+     * @param args Command line arguments
+     * @param name Name of the flag, including the leading dashes.
+     *
+     * @return True if the flag was given.
+     */
+    private static boolean hasFlag(String[] args, String name) {
+        return Arrays.asList(args).contains(name);
+    }
+
+    /**
+     * Get the {@link Verbosity} given with {@code --verbosity <level>}, printing the levels there
+     * are if it is not one of them.
+     *
+     * @param args Command line arguments
+     *
+     * @return {@link Verbosity} given, {@link Verbosity#ALL} if none was given, or null if it is
+     * not a level.
+     */
+    private static Verbosity getVerbosity(String[] args) {
+        String verbosityOption = getOption(args, "--verbosity");
+        if (verbosityOption == null) {
+            return Verbosity.ALL;
+        }
+        for (Verbosity verbosity : Verbosity.values()) {
+            if (verbosity.name().equalsIgnoreCase(verbosityOption)) {
+                return verbosity;
+            }
+        }
+        StringJoiner levels = new StringJoiner(", ");
+        for (Verbosity verbosity : Verbosity.values()) {
+            levels.add(verbosity.name().toLowerCase());
+        }
+        System.out.println("Verbosity must be one of " + levels + "!");
+        return null;
+    }
+
+    /**
+     * Print each player's chance of reaching the final and winning the tournament, and which
+     * model of Elo ratings they were worked out with, as the two give very different chances.
+     *
+     * @param probabilities {@link BracketProbabilities} of the field of players.
+     * @param fixedElo True if Elo ratings were kept at their entry values, false if they were
+     *                 adjusted after every match like a real tournament.
+     */
+    private static void printWinProbabilities(BracketProbabilities probabilities, boolean fixedElo) {
+        PlayerStore field = probabilities.getField();
+
+        // Order players by their chance of winning the tournament
+        Integer[] order = new Integer[field.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (player1, player2) ->
+                Double.compare(probabilities.getTitleChance(player2), probabilities.getTitleChance(player1)));
+
+        System.out.printf("%n------------------------------------------------------------%n");
+        System.out.println("                     Win Probabilities:");
+        System.out.println(fixedElo
+                ? "          (Elo ratings fixed at their entry values)"
+                : "           (Elo ratings adjusted after every match)");
+        int position = 1;
+        for (int i : order) {
+            System.out.printf("%d) %s %s [Elo: %d, Final: %.2f%%, Title: %.2f%%]%n",
+                    position,
+                    field.getFirstName(i),
+                    field.getLastName(i),
+                    field.getElo(i),
+                    probabilities.getFinalChance(i) * 100,
+                    probabilities.getTitleChance(i) * 100);
+            if (position % 10 == 0 && position < field.size()) {
+                System.out.println("---");
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Play every round of a tournament, printing its events to the console and recording its
+     * matches to a match log if {@code --log <path>} was given. A tournament resumed from a
+     * checkpoint carries on its existing match log rather than starting a new one.
+     *
+     * @param tournament {@link Tournament} to play.
+     * @param args Command line arguments
+     *
+     * @throws IOException Thrown when the match log or console output cannot be written, or the
+     *                     match log of a resumed tournament does not have its earlier rounds.
+     */
+    private static void playTournament(Tournament tournament, String[] args) throws IOException {
+        String logPath = getOption(args, "--log");
+        MatchLogWriter log = null;
+        if (logPath != null) {
+            log = (getOption(args, "--resume") != null)
+                    ? MatchLogWriter.append(Path.of(logPath), tournament)
+                    : new MatchLogWriter(Path.of(logPath), tournament);
+        }
+        Verbosity verbosity = getVerbosity(args);
+        ConsoleListener console = new ConsoleListener(tournament.getPlayerStore(), verbosity);
+        // Rounds are only played in parallel without a listener, so skip the console when printing nothing
+        TournamentListener output = (verbosity == Verbosity.SILENT) ? TournamentListener.SILENT : console;
+        if (log != null) {
+            tournament.setListener((output == TournamentListener.SILENT) ? log : TournamentListener.combine(output, log));
+        } else {
+            tournament.setListener(output);
+        }
+        if (hasFlag(args, "--parallel")) {
+            tournament.setPool(ForkJoinPool.commonPool());
+        }
+
+        // Keep a live ranking to print the leaders after every round
+        String standingsOption = getOption(args, "--standings");
+        int standings = (standingsOption != null) ? Integer.parseInt(standingsOption) : 0;
+        if (standings > 0 && tournament.getLeaderboardIndex() == null) {
+            tournament.setLeaderboardIndex(new LeaderboardIndex(tournament.getPlayerStore()));
+        }
+
+        String checkpointPath = getOption(args, "--checkpoint");
+        CheckpointWriter checkpoints = (checkpointPath != null) ? new CheckpointWriter(Path.of(checkpointPath)) : null;
+
+        // Order by ELO and create initial pairings, unless carrying on from a checkpoint
+        if (tournament.getAssignedRounds() == 0) {
+            System.out.println("[TOURNEY] Creating initial match draws...");
+            int byes = tournament.getNeededByes();
+            System.out.println("[TOURNEY] Byes needed for this tournament: " + byes);
+            tournament.assignMatches(byes);
+        }
+
+        // Perform matches, up to and including the final
+        System.out.println("[TOURNEY] Simulating matches...");
+        int round = tournament.getRoundsPlayed();
+        if (round == tournament.getAssignedRounds()) {
+            tournament.assignMatches();
+        }
+        while (round < tournament.getAssignedRounds()) {
+            tournament.playMatches(round);
+            tournament.assignMatches();
+            round++;
+            if (standings > 0) {
+                // Wait for the match results to be printed before the standings
+                console.flush();
+                printStandings(tournament.getLeaderboardIndex(), tournament.getPlayerStore(), round, standings);
+            }
+            if (checkpoints != null) {
+                checkpoints.save(tournament);
+            }
+        }
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+        if (log != null) {
+            log.close();
+        }
+        // Wait for the match results to be printed before the leaderboard
+        console.close();
+    }
+
+    /**
+     * Prints the leaders of a tournament part way through, straight from its
+     * {@link LeaderboardIndex} rather than sorting every player.
+     *
+     * @param index {@link LeaderboardIndex} of the tournament.
+     * @param players {@link PlayerStore} of the players.
+     * @param rounds Number of rounds played so far.
+     * @param top Number of leaders to print.
+     */
+    private static void printStandings(LeaderboardIndex index, PlayerStore players, int rounds, int top) {
+        System.out.printf("[STANDINGS] After round %d (unbeaten: %d)%n", rounds, index.getPlayerCountWithWins(rounds));
+        int position = 1;
+        for (int player : index.getTop(top)) {
+            System.out.printf("[STANDINGS] %d) %s %s [Elo: %d, Wins: %d]%n",
+                    position++,
+                    players.getFirstName(player),
+                    players.getLastName(player),
+                    index.getElo(player),
+                    index.getWins(player));
+        }
+    }
+
+    /**
+     * Play every round of a Swiss tournament, printing its events to the console, then print
+     * the final standings.
+     *
+     * @param swiss {@link SwissTournament} to play.
+     * @param args Command line arguments
+     *
+     * @throws IOException Thrown when the console output cannot be written.
+     */
+    private static void playSwiss(SwissTournament swiss, String[] args) throws IOException {
+        PlayerStore players = swiss.getPlayerStore();
+        Verbosity verbosity = getVerbosity(args);
+        ConsoleListener console = new ConsoleListener(players, verbosity);
+        swiss.setListener(console);
+
+        System.out.printf("[TOURNEY] Simulating %d Swiss rounds...%n", swiss.getNumberOfRounds());
+        swiss.play();
+        // Wait for the match results to be printed before the standings
+        console.close();
+
+        int position = 1;
+        System.out.printf("%n------------------------------------------------------------%n");
+        System.out.println("                        Standings:");
+        for (int player : swiss.getStandings()) {
+            System.out.printf("%d) %s %s (%s) [Elo: %d, Score: %d, Buchholz: %d, Sonneborn-Berger: %d]%n",
+                    position,
+                    players.getFirstName(player),
+                    players.getLastName(player),
+                    getGenderLetter(players.getGender(player)),
+                    players.getElo(player),
+                    swiss.getScore(player),
+                    swiss.getBuchholz(player),
+                    swiss.getSonnebornBerger(player));
+            if (position % 10 == 0 && position < players.size()) {
+                System.out.println("---");
             }
+            position++;
         }
-        // Input must be an integer
-        catch (java.util.InputMismatchException e) {
-            System.out.println("Input must be an integer! Please try again...");
-            scanner.next();
-            getPlayerCount();
+        System.out.printf("------------------------------------------------------------%n");
+        System.out.println("                      Tournament Info:");
+        System.out.println("Number of players: " + players.size());
+        System.out.println("Rounds played: " + swiss.getRoundsPlayed());
+    }
+
+    /**
+     * Run every event of a season, then print the players ordered by their final Elo rating.
+     *
+     * @param season {@link Season} to run.
+     * @param players {@link PlayerStore} of every player in the season.
+     *
+     * @throws InterruptedException Thrown when interrupted while waiting for events.
+     */
+    private static void playSeason(Season season, PlayerStore players) throws InterruptedException {
+        System.out.printf("[TOURNEY] Simulating %d events...%n", season.getEventCount());
+        season.run();
+
+        int[] titles = season.getTitles();
+        int position = 1;
+        System.out.printf("%n------------------------------------------------------------%n");
+        System.out.println("                      Season Rankings:");
+        for (int player : season.getRankings()) {
+            System.out.printf("%d) %s %s (%s) [Elo: %d, Wins: %d, Titles: %d]%n",
+                    position,
+                    players.getFirstName(player),
+                    players.getLastName(player),
+                    getGenderLetter(players.getGender(player)),
+                    season.getRatings().getElo(player),
+                    season.getRatings().getWins(player),
+                    titles[player]);
+            if (position % 10 == 0 && position < players.size()) {
+                System.out.println("---");
+            }
+            position++;
         }
-        return playerCount;
+        System.out.printf("------------------------------------------------------------%n");
+        System.out.println("                      Tournament Info:");
+        System.out.println("Number of players: " + players.size());
+        System.out.println("Events played: " + season.getEventCount());
+    }
+
+    /**
+     * Play every match of a double-elimination tournament, printing its events to the console,
+     * then print the order players finished in.
+     *
+     * @param tournament {@link DoubleEliminationTournament} to play.
+     * @param args Command line arguments
+     *
+     * @throws IOException Thrown when the console output cannot be written.
+     */
+    private static void playDoubleElimination(DoubleEliminationTournament tournament, String[] args) throws IOException {
+        PlayerStore players = tournament.getPlayerStore();
+        Verbosity verbosity = getVerbosity(args);
+        ConsoleListener console = new ConsoleListener(players, verbosity);
+        tournament.setListener(console);
+
+        System.out.printf("[TOURNEY] Simulating %d winners' rounds and %d losers' rounds...%n",
+                tournament.getWinnersRounds(), tournament.getLosersRounds());
+        tournament.play();
+        // Wait for the match results to be printed before the leaderboard
+        console.close();
+
+        int position = 1;
+        System.out.printf("%n------------------------------------------------------------%n");
+        System.out.println("                        Leaderboards:");
+        for (int player : tournament.getLeaderboard()) {
+            System.out.printf("%d) %s %s (%s) [Elo: %d, Wins: %d, Losses: %d]%n",
+                    position,
+                    players.getFirstName(player),
+                    players.getLastName(player),
+                    getGenderLetter(players.getGender(player)),
+                    players.getElo(player),
+                    players.getWins(player),
+                    tournament.getLosses(player));
+            if (position % 10 == 0 && position < players.size()) {
+                System.out.println("---");
+            }
+            position++;
+        }
+        System.out.printf("------------------------------------------------------------%n");
+        System.out.println("                      Tournament Info:");
+        System.out.println("Number of players: " + players.size());
+        System.out.println("Rounds played: " + tournament.getStagesPlayed());
+        System.out.println("Bracket reset: " + (tournament.isResetPlayed() ? "Yes" : "No"));
+    }
+
+    /**
+     * Play every round of a round-robin league, printing its events to the console, then print
+     * the final league table.
+     *
+     * @param league {@link League} to play.
+     * @param args Command line arguments
+     *
+     * @throws IOException Thrown when the console output cannot be written.
+     */
+    private static void playLeague(League league, String[] args) throws IOException {
+        PlayerStore players = league.getPlayerStore();
+        Verbosity verbosity = getVerbosity(args);
+        // Leagues are only played in parallel without a listener, so skip it when printing nothing
+        ConsoleListener console = new ConsoleListener(players, verbosity);
+        league.setListener((verbosity == Verbosity.SILENT) ? TournamentListener.SILENT : console);
+
+        System.out.printf("[TOURNEY] Simulating %d league rounds...%n", league.getNumberOfRounds());
+        league.play();
+        // Wait for the match results to be printed before the table
+        console.close();
+
+        int position = 1;
+        System.out.printf("%n------------------------------------------------------------%n");
+        System.out.println("                       League Table:");
+        for (int player : league.getStandings()) {
+            System.out.printf("%d) %s %s (%s) [Elo: %d, Won: %d, Lost: %d, Games: %d-%d]%n",
+                    position,
+                    players.getFirstName(player),
+                    players.getLastName(player),
+                    getGenderLetter(players.getGender(player)),
+                    players.getElo(player),
+                    league.getWon(player),
+                    league.getLost(player),
+                    league.getGamesWon(player),
+                    league.getGamesLost(player));
+            if (position % 10 == 0 && position < players.size()) {
+                System.out.println("---");
+            }
+            position++;
+        }
+        System.out.printf("------------------------------------------------------------%n");
+        System.out.println("                      Tournament Info:");
+        System.out.println("Number of players: " + players.size());
+        System.out.println("Rounds played: " + league.getRoundsPlayed());
+    }
+
+    /**
+     * Get the letter shown for a gender in the leaderboard.
+     *
+     * @param gender 0: Male, 1: Female, >1: Non-binary (other).
+     *
+     * @return {@code "M"}, {@code "F"} or {@code "O"}
+     */
+    private static String getGenderLetter(int gender) {
+        return switch (gender) {
+            case 0 -> "M";
+            case 1 -> "F";
+            default -> "O";
+        };
     }
 
     /**
      * Program launch point
+     * <p>
+     * Passing {@code --simulations <count>} simulates that many tournaments with the same field
+     * of players and prints each player's win probabilities instead of playing a single tournament.
+     * <p>
+     * Passing {@code --exact} calculates the exact probabilities with {@link BracketSolver} instead.
+     * The solver keeps every player at their entry Elo rating, so passing {@code --fixed-elo}
+     * with {@code --simulations} simulates the same model to check it against. It also keeps Elo
+     * ratings fixed in a knockout bracket.
+     * <p>
+     * Passing {@code --sampled} draws each match result from precalculated score distributions
+     * rather than playing every point.
+     * <p>
+     * Passing {@code --swiss} plays a Swiss tournament instead of a knockout bracket, with
+     * {@code --rounds <count>} rounds or enough rounds for one player to win every match.
+     * <p>
+     * Passing {@code --season <events>} runs that many knockout events at the same time, each with
+     * {@code --event-size <players>} players (128 by default) drawn from the generated players,
+     * with Elo changes carrying over between events. See {@link Season}.
+     * <p>
+     * Passing {@code --double-elimination} plays a double-elimination tournament with a grand
+     * final, followed by a bracket reset if the winner of the losers' bracket wins it, unless
+     * {@code --no-reset} is also given.
+     * <p>
+     * Passing {@code --league} plays a round-robin league where every player plays every other
+     * player once. Use {@code --verbosity silent} on large leagues so rounds are played in parallel.
+     * <p>
+     * Passing {@code --checkpoint <path>} saves the tournament to a checkpoint after every round,
+     * and passing {@code --resume <path>} carries on from that checkpoint. The same seed and number
+     * of players must be used so the players are generated the same. Whether Elo ratings are
+     * fixed and whether a live {@link LeaderboardIndex} is kept are carried on from the checkpoint.
+     * <p>
+     * Passing {@code --standings <count>} prints the leaders of a knockout bracket after every
+     * round, from a live {@link LeaderboardIndex}.
+     * <p>
+     * Passing {@code --parallel} plays the large rounds of a knockout bracket on every core. It only
+     * applies with {@code --verbosity silent} and no {@code --log}, so events stay in order.
+     * <p>
+     * Passing {@code --roster <path>} plays with the players in a {@code firstName,lastName,gender,elo}
+     * CSV file instead of generating random players. See {@link RosterImporter}.
+     * <p>
+     * Passing {@code --seed <number>} makes the generated players and all results reproducible.
+     * <p>
+     * Passing {@code --verbosity <level>} sets how much of the tournament is printed, from
+     * {@code silent} to {@code all} (the default). See {@link Verbosity}.
+     * <p>
+     * Passing {@code --log <path>} records every match to a binary match log, and passing
+     * {@code --replay <path>} rebuilds the tournament from that log instead of playing it. The
+     * same seed and number of players must be used so the players are generated the same. With
+     * {@code --resume}, {@code --log} carries on the log of the rounds before the checkpoint.
+     * <p>
+     * Passing {@code --batch <path>} runs every tournament in a job file without asking for
+     * anything, on {@code --threads <count>} worker threads (one per processor by default). See
+     * {@link BatchRunner}.
+     * <p>
+     * Passing {@code --serve <port>} starts a local HTTP service playing tournaments on request
+     * until the program is stopped, on {@code --threads <count>} worker threads and remembering
+     * the last {@code --cache-size <count>} results (1024 by default) up to a total of
+     * {@code --cache-mb <megabytes>} (256 by default). See {@link SimulationServer}.
+     * <p>
+     * Points, games and matches simulated and the time taken by each round are published over
+     * JMX as {@code tournament:type=SimulationMetrics}. See {@link SimulationMetrics}.
      *
      * @param args Command line arguments
      * @throws IOException Thrown when an issue arises with {@link CSVParser}.
      * @throws CsvException Thrown when an issue arises with {@link CSVParser}.
+     * @throws InterruptedException Thrown when interrupted while waiting for simulations.
      */
-    public static void main(String[] args) throws IOException, CsvException {
+    public static void main(String[] args) throws IOException, CsvException, InterruptedException {
         final long startTime = System.currentTimeMillis();
         System.out.printf("---------------------------------------------%n");
         System.out.println("     Table Tennis Tournament Simulator");
         System.out.printf("---------------------------------------------%n");
+        SimulationMetrics.register();
+
+        String servePort = getOption(args, "--serve");
+        if (servePort != null) {
+            NameDictionary names = loadNames();
+            String threadsOption = getOption(args, "--threads");
+            String cacheSizeOption = getOption(args, "--cache-size");
+            String cacheMegabytesOption = getOption(args, "--cache-mb");
+            SimulationServer server = new SimulationServer(names,
+                    (cacheSizeOption != null) ? Integer.parseInt(cacheSizeOption) : 1024,
+                    ((cacheMegabytesOption != null) ? Long.parseLong(cacheMegabytesOption) : 256) << 20);
+            server.start(Integer.parseInt(servePort), (threadsOption != null) ? Integer.parseInt(threadsOption) : Runtime.getRuntime().availableProcessors());
+            System.out.printf("[SYSTEM] Serving tournaments at http://localhost:%d%s?players=<count>&seed=<seed>%n", server.getPort(), SimulationServer.PATH);
+            return;
+        }
 
-        // Initialise Tournament object
-        Tournament tournament = new Tournament();
+        String batchPath = getOption(args, "--batch");
+        if (batchPath != null) {
+            NameDictionary names = loadNames();
+            String threadsOption = getOption(args, "--threads");
+            BatchRunner batch = (threadsOption != null) ? new BatchRunner(names, Integer.parseInt(threadsOption)) : new BatchRunner(names);
+            System.out.printf("[SYSTEM] Running %d jobs from %s...%n", batch.addJobs(batchPath), batchPath);
+            batch.run();
+            printExecutionTime("Batch", startTime);
+            return;
+        }
 
-        // Get user input for player count
-        int playerCount = getPlayerCount();
+        // Check the output level before asking for anything
+        if (getVerbosity(args) == null) {
+            return;
+        }
 
-        // Generate array of players
-        System.out.println("[SYSTEM] Loading player names...");
-        CSVParser parser = new CSVParser();
-        List<String[]> playerFirstNames = parser.readFromFile("data/firstnames.csv");
-        List<String[]> playerLastNames = parser.readFromFile("data/lastnames.csv");
+        // Master seed of the run, random unless given on the command line
+        String seedOption = getOption(args, "--seed");
+        long seed = (seedOption != null) ? Long.parseLong(seedOption) : ThreadLocalRandom.current().nextLong();
+        System.out.println("[SYSTEM] Seed: " + seed);
 
-        Random random = new Random();
-        System.out.println("[SYSTEM] Generating players...");
-        for (int i = 0; i < playerCount; i++) {
-            // Get first name
-            int firstNameIndex = random.nextInt(playerFirstNames.size());
-            String firstName = playerFirstNames.get(firstNameIndex)[0];
-            // Get gender, easily modifiable for non-binary genders if required
-            int gender = 0;
-            if (Objects.equals(playerFirstNames.get(firstNameIndex)[1], "female")) {
-                gender = 1;
-            }
-            // Get last name and Elo
-            String lastName = playerLastNames.get(random.nextInt(playerLastNames.size()))[0];
-            int elo = 1000 + random.nextInt(400); // Arbitrary range of 1000 to 1400 Elo for any player
-            // Add player to the tournament
-            tournament.addPlayer(new Player(firstName, lastName, gender, elo));
-        }
-
-        // Order by ELO and create initial pairings
-        System.out.println("[TOURNEY] Creating initial match draws...");
-        int byes = tournament.getNeededByes();
-        System.out.println("[TOURNEY] Byes needed for this tournament: " + byes);
-        tournament.assignMatches(byes);
-
-        // Perform matches
-        System.out.println("[TOURNEY] Simulating matches...");
-        int round = 0;
-        while (tournament.getNumberOfMatches(round) > 1) {
-            System.out.printf("------------------------------%n");
-            System.out.println("[TOURNEY] Round " + (round+1));
-            System.out.printf("------------------------------%n");
-            tournament.playMatches(round);
-            tournament.assignMatches();
-            round++;
+        PlayerStore players;
+        String rosterPath = getOption(args, "--roster");
+        if (rosterPath != null) {
+            // Import real players rather than generating them
+            System.out.println("[SYSTEM] Importing players from " + rosterPath + "...");
+            players = RosterImporter.load(rosterPath, new NameDictionary());
+            if (players.size() < 2) {
+                System.out.println("You need at least two players! Please check the roster...");
+                return;
+            }
+        } else {
+            // Get user input for player count
+            int playerCount = getPlayerCount();
+
+            // Generate array of players
+            players = generatePlayers(playerCount, new StreamRandom(StreamRandom.deriveSeed(seed, 0)));
         }
+        int playerCount = players.size();
+
+        // Sampling whole matches from precalculated score distributions is much faster
+        SimulationMode simulationMode = hasFlag(args, "--sampled") ? SimulationMode.SAMPLED : SimulationMode.POINT_BY_POINT;
 
-        // Final match
-        System.out.printf("------------------------------%n");
-        System.out.println("[TOURNEY] Finals");
-        System.out.printf("------------------------------%n");
-        tournament.playMatches(round);
+        if (hasFlag(args, "--swiss")) {
+            String roundsOption = getOption(args, "--rounds");
+            int rounds = (roundsOption != null) ? Integer.parseInt(roundsOption) : SwissTournament.getRecommendedRounds(playerCount);
+            SwissTournament swiss = new SwissTournament(players, rounds, StreamRandom.deriveSeed(seed, 3));
+            swiss.setSimulationMode(simulationMode);
+            playSwiss(swiss, args);
+            printExecutionTime("Tournament", startTime);
+            return;
+        }
+
+        String seasonOption = getOption(args, "--season");
+        if (seasonOption != null) {
+            String eventSizeOption = getOption(args, "--event-size");
+            Season season = new Season(players, StreamRandom.deriveSeed(seed, 6));
+            season.setSimulationMode(simulationMode);
+            season.addRandomEvents(Integer.parseInt(seasonOption), (eventSizeOption != null) ? Integer.parseInt(eventSizeOption) : 128);
+            playSeason(season, players);
+            printExecutionTime("Season", startTime);
+            return;
+        }
+
+        if (hasFlag(args, "--double-elimination")) {
+            DoubleEliminationTournament tournament = new DoubleEliminationTournament(players, StreamRandom.deriveSeed(seed, 5));
+            tournament.setSimulationMode(simulationMode);
+            tournament.setBracketReset(!hasFlag(args, "--no-reset"));
+            playDoubleElimination(tournament, args);
+            printExecutionTime("Tournament", startTime);
+            return;
+        }
+
+        if (hasFlag(args, "--league")) {
+            League league = new League(players, StreamRandom.deriveSeed(seed, 4));
+            league.setSimulationMode(simulationMode);
+            playLeague(league, args);
+            printExecutionTime("Tournament", startTime);
+            return;
+        }
+
+        String simulations = getOption(args, "--simulations");
+        if (simulations != null || hasFlag(args, "--exact")) {
+            if (simulations != null) {
+                System.out.printf("[SYSTEM] Simulating %s tournaments...%n", simulations);
+                MonteCarlo monteCarlo = new MonteCarlo(players, StreamRandom.deriveSeed(seed, 2));
+                monteCarlo.setSimulationMode(simulationMode);
+                monteCarlo.setFixedElo(hasFlag(args, "--fixed-elo"));
+                printWinProbabilities(monteCarlo.run(Integer.parseInt(simulations)), hasFlag(args, "--fixed-elo"));
+            } else {
+                System.out.println("[SYSTEM] Calculating exact probabilities...");
+                printWinProbabilities(new BracketSolver(players).solve(), true);
+            }
+            printExecutionTime("Simulation", startTime);
+            return;
+        }
+        Tournament tournament;
+        String replayPath = getOption(args, "--replay");
+        String resumePath = getOption(args, "--resume");
+        if (resumePath != null) {
+            // Carry on from the last round saved rather than starting again
+            System.out.println("[SYSTEM] Resuming from checkpoint " + resumePath + "...");
+            tournament = CheckpointReader.resume(Path.of(resumePath), players);
+            System.out.printf("[SYSTEM] %d rounds were already played%n", tournament.getRoundsPlayed());
+            if (tournament.isFixedElo() != hasFlag(args, "--fixed-elo")) {
+                System.out.println(tournament.isFixedElo()
+                        ? "[SYSTEM] Keeping Elo ratings fixed at their entry values, as the checkpoint did"
+                        : "[SYSTEM] Adjusting Elo ratings after every match, as the checkpoint did");
+            }
+            try {
+                playTournament(tournament, args);
+            } catch (IOException e) {
+                System.out.println("Could not carry on the tournament: " + e.getMessage());
+                return;
+            }
+        } else if (replayPath != null) {
+            // Rebuild the tournament from its match log rather than playing it again
+            System.out.println("[SYSTEM] Replaying match log " + replayPath + "...");
+            try {
+                tournament = MatchLogReader.replay(Path.of(replayPath), players);
+            } catch (IOException e) {
+                System.out.println("Could not replay the match log: " + e.getMessage());
+                return;
+            }
+        } else {
+            // Initialise Tournament object with every generated player
+            tournament = new Tournament(players, StreamRandom.deriveSeed(seed, 1));
+            tournament.setSimulationMode(simulationMode);
+            tournament.setFixedElo(hasFlag(args, "--fixed-elo"));
+            playTournament(tournament, args);
+        }
 
         // Output leaderboard
         int position = 1;
         System.out.printf("%n------------------------------------------------------------%n");
         System.out.println("                        Leaderboards:");
-        ArrayList<Player> leaderboard = tournament.getLeaderboard();
-        for (Player player : leaderboard) {
-            String gender = switch (player.getGender()) {
-                case 0 -> "M";
-                case 1 -> "F";
-                default -> "O";
-            };
+        int[] leaderboard = tournament.getLeaderboard();
+        for (int player : leaderboard) {
             System.out.printf("%d) %s %s (%s) [Elo: %d, Wins: %d]%n",
                     position,
-                    player.getFirstName(),
-                    player.getLastName(),
-                    gender,
-                    player.getElo(),
-                    player.getWins());
+                    players.getFirstName(player),
+                    players.getLastName(player),
+                    getGenderLetter(players.getGender(player)),
+                    players.getElo(player),
+                    players.getWins(player));
             if (position % 10 == 0 && position < playerCount) {
                 System.out.println("---");
             }
@@ -134,10 +754,8 @@ public class Main {
         }
         System.out.printf("------------------------------------------------------------%n");
         System.out.println("                      Tournament Info:");
-        System.out.println("Number of players: " + leaderboard.size());
-        System.out.println("Rounds played: " + (round+1));
-        final long endTime = System.currentTimeMillis();
-        System.out.printf("Tournament execution time: %f seconds%n", Math.round((endTime-startTime)/100.0)/10.0);
-        System.out.printf("------------------------------------------------------------%n");
+        System.out.println("Number of players: " + leaderboard.length);
+        System.out.println("Rounds played: " + tournament.getAssignedRounds());
+        printExecutionTime("Tournament", startTime);
     }
 }
\ No newline at end of file
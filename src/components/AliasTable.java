@@ -0,0 +1,101 @@
+package components;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws random outcomes from a fixed discrete probability distribution in constant time, no matter
+ * how many outcomes there are.
+ * <p>
+ * Every outcome gets a column of equal width. Each column is split between its own outcome and at
+ * most one other "alias" outcome, so a sample only needs to pick a column and then one of its two
+ * parts.
+ * <p>
+ * Source: <a href="https://www.keithschwarz.com/darts-dice-coins/">Vose's Alias Method</a>
+ */
+public class AliasTable {
+    /**
+     * Chance of each column returning its own outcome rather than its alias.
+     */
+    private final double[] probability;
+    /**
+     * Outcome returned by each column when it does not return its own outcome.
+     */
+    private final int[] alias;
+
+    /**
+     * Initialises an {@link AliasTable} from the weight of each outcome.
+     *
+     * @param weights Weight of each outcome. Weights do not need to add up to 1.
+     */
+    public AliasTable(double[] weights) {
+        int count = weights.length;
+        probability = new double[count];
+        alias = new int[count];
+
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        // Scale weights so an average outcome fills exactly one column
+        double[] scaled = new double[count];
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            // If no outcome can happen at all, treat them all as equally likely
+            scaled[i] = (total > 0) ? weights[i] * count / total : 1;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Top up each under-filled column with part of an over-filled outcome
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Anything left over is full, allowing for rounding errors
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    /**
+     * Draws a random outcome.
+     *
+     * @param random {@link RandomGenerator} to draw with.
+     *
+     * @return Index of the outcome in the weights the table was created with.
+     */
+    public int sample(RandomGenerator random) {
+        return sample(random.nextDouble());
+    }
+
+    /**
+     * Draws an outcome using a single uniform random number. The whole part of
+     * {@code uniform * outcomes} picks the column and the fractional part picks within it.
+     *
+     * @param uniform Random double between 0 (inclusive) and 1 (exclusive).
+     *
+     * @return Index of the outcome in the weights the table was created with.
+     */
+    public int sample(double uniform) {
+        double scaled = uniform * probability.length;
+        int column = (int) scaled;
+        return (scaled - column < probability[column]) ? column : alias[column];
+    }
+}
@@ -0,0 +1,298 @@
+package components;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link Writer} which collects text into large batches and hands them to a background thread to
+ * be written, so the thread producing the text never waits on a slow output such as the console.
+ * <p>
+ * A fixed number of batches are reused, so writing does not allocate once they have been created.
+ * When every batch is waiting to be written, the producing thread blocks until one is free rather
+ * than letting memory grow.
+ */
+public class AsyncWriter extends Writer {
+    /**
+     * Number of characters in each batch when no size is given.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 1 << 16;
+    /**
+     * Number of batches which can be waiting to be written at once.
+     */
+    private static final int BATCHES = 4;
+
+    /**
+     * Block of characters handed to {@link AsyncWriter#thread} in one go.
+     */
+    private static final class Batch {
+        /**
+         * Characters of the batch.
+         */
+        private final char[] chars;
+        /**
+         * Number of characters in {@link Batch#chars} which have been filled.
+         */
+        private int length = 0;
+
+        /**
+         * Initialises an empty {@link Batch}.
+         *
+         * @param size Number of characters the batch can hold.
+         */
+        private Batch(int size) {
+            chars = new char[size];
+        }
+    }
+
+    /**
+     * Batch put on {@link AsyncWriter#pending} to tell {@link AsyncWriter#thread} to stop.
+     */
+    private static final Batch END = new Batch(0);
+
+    /**
+     * {@link Writer} the text is finally written to.
+     */
+    private final Writer out;
+    /**
+     * Batches waiting to be written by {@link AsyncWriter#thread}, in order.
+     */
+    private final BlockingQueue<Batch> pending = new ArrayBlockingQueue<>(BATCHES + 1);
+    /**
+     * Batches which have been written and can be filled again.
+     */
+    private final BlockingQueue<Batch> free = new ArrayBlockingQueue<>(BATCHES);
+    /**
+     * Batch currently being filled.
+     */
+    private Batch current;
+    /**
+     * Number of batches handed to {@link AsyncWriter#thread}.
+     */
+    private long submitted = 0;
+    /**
+     * Number of batches {@link AsyncWriter#thread} has finished writing. Guarded by
+     * {@link AsyncWriter#free}.
+     */
+    private long written = 0;
+    /**
+     * First error thrown by {@link AsyncWriter#out}, rethrown to the producing thread.
+     */
+    private volatile IOException failure;
+    /**
+     * Whether {@link AsyncWriter#close()} has been called.
+     */
+    private boolean closed = false;
+    /**
+     * Background thread writing batches to {@link AsyncWriter#out}.
+     */
+    private final Thread thread;
+
+    /**
+     * Initialises an {@link AsyncWriter} with the default batch size.
+     *
+     * @param out {@link Writer} the text is finally written to.
+     */
+    public AsyncWriter(Writer out) {
+        this(out, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Initialises an {@link AsyncWriter}.
+     *
+     * @param out {@link Writer} the text is finally written to.
+     * @param batchSize Number of characters collected before they are handed to the background
+     *                  thread.
+     */
+    public AsyncWriter(Writer out, int batchSize) {
+        this.out = out;
+        for (int i = 0; i < BATCHES; i++) {
+            free.add(new Batch(Math.max(1, batchSize)));
+        }
+        current = free.poll();
+        thread = new Thread(this::drain, "async-writer");
+        // Never keep the program running just to write output nobody flushed
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Writes batches from {@link AsyncWriter#pending} until {@link AsyncWriter#END} is reached.
+     */
+    private void drain() {
+        try {
+            Batch batch;
+            while ((batch = pending.take()) != END) {
+                // Once writing has failed, batches are still recycled so the producer never blocks
+                if (failure == null) {
+                    try {
+                        out.write(batch.chars, 0, batch.length);
+                        if (pending.isEmpty()) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                batch.length = 0;
+                synchronized (free) {
+                    free.add(batch);
+                    written++;
+                    free.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands {@link AsyncWriter#current} to the background thread and takes a free batch to fill.
+     *
+     * @throws IOException Thrown when interrupted while waiting for a free batch.
+     */
+    private void submit() throws IOException {
+        try {
+            pending.put(current);
+            submitted++;
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to write output");
+        }
+    }
+
+    /**
+     * Throws if the writer has been closed or an earlier write to {@link AsyncWriter#out} failed.
+     *
+     * @throws IOException The earlier error.
+     */
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer has been closed");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes a single character.
+     *
+     * @param c Character to write.
+     *
+     * @throws IOException Thrown when the writer is closed or an earlier write failed.
+     */
+    @Override
+    public void write(int c) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            if (current.length == current.chars.length) {
+                submit();
+            }
+            current.chars[current.length++] = (char) c;
+        }
+    }
+
+    /**
+     * Writes part of an array of characters.
+     *
+     * @param chars Characters to write.
+     * @param offset Index of the first character to write.
+     * @param length Number of characters to write.
+     *
+     * @throws IOException Thrown when the writer is closed or an earlier write failed.
+     */
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            while (length > 0) {
+                if (current.length == current.chars.length) {
+                    submit();
+                }
+                int count = Math.min(length, current.chars.length - current.length);
+                System.arraycopy(chars, offset, current.chars, current.length, count);
+                current.length += count;
+                offset += count;
+                length -= count;
+            }
+        }
+    }
+
+    /**
+     * Writes part of a {@code String}.
+     *
+     * @param string {@code String} to write.
+     * @param offset Index of the first character to write.
+     * @param length Number of characters to write.
+     *
+     * @throws IOException Thrown when the writer is closed or an earlier write failed.
+     */
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            while (length > 0) {
+                if (current.length == current.chars.length) {
+                    submit();
+                }
+                int count = Math.min(length, current.chars.length - current.length);
+                string.getChars(offset, offset + count, current.chars, current.length);
+                current.length += count;
+                offset += count;
+                length -= count;
+            }
+        }
+    }
+
+    /**
+     * Hands everything written so far to the background thread and waits until it has been
+     * written and flushed.
+     *
+     * @throws IOException Thrown when writing failed or when interrupted while waiting.
+     */
+    @Override
+    public void flush() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            if (current.length > 0) {
+                submit();
+            }
+            try {
+                synchronized (free) {
+                    while (written < submitted) {
+                        free.wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to flush output");
+            }
+            ensureOpen();
+        }
+    }
+
+    /**
+     * Flushes, stops the background thread and closes {@link AsyncWriter#out}.
+     *
+     * @throws IOException Thrown when writing or closing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            try {
+                flush();
+            } finally {
+                closed = true;
+                pending.add(END);
+                out.close();
+            }
+        }
+    }
+}
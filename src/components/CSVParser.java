@@ -5,7 +5,11 @@ import com.opencsv.exceptions.CsvException;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Allows CSV file reading functionality.
@@ -26,4 +30,23 @@ public class CSVParser {
         CSVReader reader = new CSVReader(new FileReader(filePath));
         return reader.readAll();
     }
+
+    /**
+     * Reads a UTF-8 CSV file one line at a time, so the whole file is never held in memory.
+     *
+     * @param filePath {@link String} indicating the file path of the CSV file
+     * @param action Called with the comma separated values of each line, in order. The array
+     *               may not be kept after the call returns.
+     *
+     * @throws IOException Thrown when an error with interacting with the file occurs.
+     * @throws CsvException Thrown when an error with {@link CSVReader} occurs.
+     */
+    public void forEachLine(String filePath, Consumer<String[]> action) throws IOException, CsvException {
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(Path.of(filePath), StandardCharsets.UTF_8))) {
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                action.accept(line);
+            }
+        }
+    }
 }
@@ -0,0 +1,191 @@
+package components;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often values fall into each of a fixed set of buckets, cheaply enough to record from
+ * many threads on every hot path.
+ * <p>
+ * Every bucket is a {@link LongAdder}, which spreads updates from different threads over separate
+ * cells instead of fighting over one counter, so recording never blocks or allocates once warmed
+ * up. Buckets are either linear, holding exactly one value each, or exponential, where each bucket
+ * holds values up to twice as large as the one before.
+ * <p>
+ * Reading is only consistent once recording has stopped. While values are still being recorded
+ * the counts may be a few updates apart, which is fine for monitoring.
+ * <p>
+ * Source: <a href="https://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>
+ */
+public class Histogram {
+    /**
+     * Number of values recorded in each bucket.
+     */
+    private final LongAdder[] counts;
+    /**
+     * Sum of every value recorded, only kept for exponential buckets. Linear buckets hold exactly
+     * one value each, so their sum is worked out from the counts and recording is one increment.
+     */
+    private final LongAdder sum;
+
+    /**
+     * Initialises a {@link Histogram} with empty buckets.
+     *
+     * @param buckets Number of buckets.
+     * @param exponential Whether buckets double in size rather than holding one value each.
+     */
+    private Histogram(int buckets, boolean exponential) {
+        counts = new LongAdder[buckets];
+        for (int i = 0; i < buckets; i++) {
+            counts[i] = new LongAdder();
+        }
+        sum = exponential ? new LongAdder() : null;
+    }
+
+    /**
+     * Creates a {@link Histogram} with one bucket for every value from 0 to {@code maxValue}.
+     * Larger values are counted in the last bucket.
+     *
+     * @param maxValue Largest value with its own bucket.
+     *
+     * @return {@link Histogram} object
+     */
+    public static Histogram linear(int maxValue) {
+        return new Histogram(maxValue + 1, false);
+    }
+
+    /**
+     * Creates a {@link Histogram} where bucket 0 holds 0 and bucket {@code i} holds values from
+     * {@code 2^(i-1)} up to {@code 2^i - 1}. Larger values are counted in the last bucket.
+     *
+     * @param buckets Number of buckets, at most 64.
+     *
+     * @return {@link Histogram} object
+     */
+    public static Histogram exponential(int buckets) {
+        return new Histogram(buckets, true);
+    }
+
+    /**
+     * Records a value. Negative values are counted in the first bucket.
+     *
+     * @param value Value to record.
+     */
+    public void record(long value) {
+        int bucket;
+        if (sum != null) {
+            sum.add(value);
+            bucket = 64 - Long.numberOfLeadingZeros(Math.max(value, 0));
+        } else {
+            bucket = (int) Math.max(Math.min(value, counts.length - 1), 0);
+        }
+        counts[Math.min(bucket, counts.length - 1)].increment();
+    }
+
+    /**
+     * Gets the largest value counted in a bucket.
+     *
+     * @param bucket Bucket to get the bound of.
+     *
+     * @return Largest value, or {@link Long#MAX_VALUE} for the last bucket.
+     */
+    public long getUpperBound(int bucket) {
+        if (bucket == counts.length - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (sum != null) ? (1L << bucket) - 1 : bucket;
+    }
+
+    /**
+     * Gets the number of values recorded in each bucket.
+     *
+     * @return Array of counts, one per bucket
+     */
+    public long[] getCounts() {
+        long[] result = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = counts[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return Number of values
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the sum of every value recorded. Values above the last linear bucket count as that
+     * bucket's value.
+     *
+     * @return Sum of values
+     */
+    public long getSum() {
+        if (sum != null) {
+            return sum.sum();
+        }
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += i * counts[i].sum();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the mean of every value recorded.
+     *
+     * @return Mean value, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        return (count > 0) ? (double) getSum() / count : 0;
+    }
+
+    /**
+     * Gets an upper bound for a percentile of the values recorded, which is the largest value of
+     * the bucket the percentile falls in.
+     *
+     * @param percentile Percentile to get, from 0 to 100.
+     *
+     * @return Upper bound of the percentile, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] bucketCounts = getCounts();
+        long count = 0;
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        // Rank of the value at the percentile, counting from 1
+        long rank = Math.max((long) Math.ceil(percentile / 100 * count), 1);
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return getUpperBound(i);
+            }
+        }
+        return getUpperBound(bucketCounts.length - 1);
+    }
+
+    /**
+     * Empties every bucket.
+     */
+    public void reset() {
+        for (LongAdder bucket : counts) {
+            bucket.reset();
+        }
+        if (sum != null) {
+            sum.reset();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package components;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread-safe map holding at most a fixed number of entries and a fixed total weight, dropping
+ * the least recently used entries when a new one would go over either limit.
+ * <p>
+ * Each value's weight, such as its size in bytes, comes from a weigher given when the cache is
+ * created. A value heavier than the whole limit is never cached, so it cannot push out everything
+ * else.
+ * <p>
+ * Entries are kept in a {@link LinkedHashMap} in access order, so finding the least recently used
+ * entry is constant time. Every method holds the cache's lock, which is fine as long as values
+ * are worked out before {@link LruCache#put(Object, Object)} rather than while holding it.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class LruCache<K, V> {
+    /**
+     * Most entries the cache holds.
+     */
+    private final int capacity;
+    /**
+     * Most total weight of the values the cache holds.
+     */
+    private final long maxWeight;
+    /**
+     * Gives the weight of a value.
+     */
+    private final ToIntFunction<V> weigher;
+    /**
+     * Total weight of the values in the cache.
+     */
+    private long weight = 0;
+    /**
+     * Entries from least to most recently used.
+     */
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Initialises an empty {@link LruCache} limited only by its number of entries.
+     *
+     * @param capacity Most entries the cache holds, at least 1.
+     */
+    public LruCache(int capacity) {
+        this(capacity, Long.MAX_VALUE, value -> 0);
+    }
+
+    /**
+     * Initialises an empty {@link LruCache} limited by its number of entries and their total
+     * weight.
+     *
+     * @param capacity Most entries the cache holds, at least 1.
+     * @param maxWeight Most total weight of the values the cache holds.
+     * @param weigher Gives the weight of a value, which must not change while it is cached.
+     */
+    public LruCache(int capacity, long maxWeight, ToIntFunction<V> weigher) {
+        this.capacity = Math.max(1, capacity);
+        this.maxWeight = Math.max(0, maxWeight);
+        this.weigher = weigher;
+    }
+
+    /**
+     * Gets the value of a key, marking it as the most recently used.
+     *
+     * @param key Key to look up.
+     *
+     * @return Value of the key, or null if it is not in the cache.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Adds or replaces the value of a key, dropping the least recently used entries until the
+     * cache is back within its limits. Values heavier than {@link LruCache#maxWeight} are not
+     * added.
+     *
+     * @param key Key to add.
+     * @param value Value of the key.
+     */
+    public synchronized void put(K key, V value) {
+        int valueWeight = weigher.applyAsInt(value);
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        V replaced = entries.put(key, value);
+        if (replaced != null) {
+            weight -= weigher.applyAsInt(replaced);
+        }
+        weight += valueWeight;
+        Iterator<V> eldest = entries.values().iterator();
+        while (entries.size() > capacity || weight > maxWeight) {
+            weight -= weigher.applyAsInt(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     *
+     * @return integer number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Getter for {@link LruCache#capacity}.
+     *
+     * @return {@link LruCache#capacity}
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the total weight of the values in the cache.
+     *
+     * @return {@link LruCache#weight}
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Getter for {@link LruCache#maxWeight}.
+     *
+     * @return {@link LruCache#maxWeight}
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+}
@@ -9,8 +9,9 @@ import java.util.Comparator;
  * from highest to lowest.
  */
 public class SortByElo implements Comparator<Player> {
-    // Sorts in order from highest to lowest Elo
+    // Sorts in order from highest to lowest Elo, comparing rather than subtracting so large
+    // values cannot overflow
     public int compare(Player player1, Player player2) {
-        return player2.getElo() - player1.getElo();
+        return Integer.compare(player2.getElo(), player1.getElo());
     }
 }
@@ -9,8 +9,9 @@ import java.util.Comparator;
  * highest to lowest.
  */
 public class SortByWins implements Comparator<Player> {
-    // Sorts in order from highest to lowest wins
+    // Sorts in order from highest to lowest wins, comparing rather than subtracting so large
+    // values cannot overflow
     public int compare(Player player1, Player player2) {
-        return player2.getWins() - player1.getWins();
+        return Integer.compare(player2.getWins(), player1.getWins());
     }
 }
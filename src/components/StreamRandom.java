@@ -0,0 +1,97 @@
+package components;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Small, reseedable pseudorandom number generator used to give every tournament and match its
+ * own independent stream of random numbers.
+ * <p>
+ * Streams are derived from a single master seed with {@link StreamRandom#deriveSeed(long, long)},
+ * so the numbers a match sees only depend on the master seed and which match it is. This keeps
+ * results identical no matter how many threads are used or in what order matches are played.
+ * <p>
+ * Source: <a href="https://doi.org/10.1145/2714064.2660195">SplitMix64 (Steele, Lea and Flood)</a>
+ */
+public class StreamRandom implements RandomGenerator {
+    /**
+     * Odd constant added to the state on every step, taken from the golden ratio.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /**
+     * Current state of the generator.
+     */
+    private long state;
+
+    /**
+     * Initialises a {@link StreamRandom} with a seed.
+     *
+     * @param seed Seed of the stream.
+     */
+    public StreamRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Restarts the generator at the beginning of another stream without allocating a new object.
+     *
+     * @param seed Seed of the stream.
+     */
+    public void reseed(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Getter for {@link StreamRandom#state}.
+     * <p>
+     * Passing the returned value to {@link StreamRandom#reseed(long)} continues the stream from
+     * the current position.
+     *
+     * @return {@link StreamRandom#state}
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Generates the next 64 random bits of the stream.
+     *
+     * @return Random long value
+     */
+    @Override
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Derives the seed of an independent child stream, such as one tournament of a Monte Carlo run
+     * or one match of a tournament.
+     * <p>
+     * The key is scrambled with a different finaliser to {@link StreamRandom#mix(long)}, so child
+     * seeds do not line up with the numbers generated by a {@link StreamRandom} using the parent seed.
+     *
+     * @param seed Seed of the parent stream.
+     * @param key Index of the child stream.
+     *
+     * @return Seed of the child stream.
+     */
+    public static long deriveSeed(long seed, long key) {
+        // MurmurHash3 finaliser
+        long z = key * GOLDEN_GAMMA + 1;
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return mix(seed ^ (z ^ (z >>> 33)));
+    }
+
+    /**
+     * Scrambles the bits of a long so that nearby inputs give unrelated outputs.
+     *
+     * @param z Value to scramble.
+     *
+     * @return Scrambled value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
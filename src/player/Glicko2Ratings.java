@@ -0,0 +1,425 @@
+package player;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Glicko-2 ratings of a population of players, kept next to their Elo ratings and updated once
+ * per {@link RatingPeriod} rather than after every match.
+ * <p>
+ * Each player has a rating, a rating deviation showing how uncertain the rating is and a
+ * volatility showing how erratic their results are. Ratings are held in columns indexed by the
+ * players' ids in a {@link PlayerStore}, on the Glicko-2 scale internally and on the familiar
+ * Glicko scale (1500 for a new player) through the getters.
+ * <p>
+ * Every player's update only depends on the ratings at the start of the period, not on the order
+ * results were played in, so players are rated in parallel. The period's results are first
+ * grouped by player with a counting sort into one flat array, then blocks of players are rated on
+ * a {@link ForkJoinPool} and written to new columns which replace the old ones once every player
+ * is done. Player ids must be below {@code 2^29} to leave room for the score in each entry.
+ * <p>
+ * Source: <a href="http://www.glicko.net/glicko/glicko2.pdf">Example of the Glicko-2 system (Glickman)</a>
+ */
+public class Glicko2Ratings {
+    /**
+     * Rating of a new player on the Glicko scale.
+     */
+    public static final double DEFAULT_RATING = 1500;
+    /**
+     * Rating deviation of a new player on the Glicko scale.
+     */
+    public static final double DEFAULT_DEVIATION = 350;
+    /**
+     * Volatility of a new player.
+     */
+    public static final double DEFAULT_VOLATILITY = 0.06;
+    /**
+     * Default system constant limiting how quickly volatility can change. Glickman suggests
+     * values from 0.3 to 1.2.
+     */
+    public static final double DEFAULT_TAU = 0.5;
+    /**
+     * Factor between the Glicko and Glicko-2 scales.
+     */
+    private static final double SCALE = 173.7178;
+    /**
+     * Tolerance the new volatility is found to.
+     */
+    private static final double CONVERGENCE = 0.000001;
+    /**
+     * Number of players rated by each parallel task.
+     */
+    private static final int PARALLEL_BLOCK_SIZE = 4096;
+    /**
+     * Rating of each player on the Glicko-2 scale, indexed by id.
+     */
+    private double[] mu;
+    /**
+     * Rating deviation of each player on the Glicko-2 scale, indexed by id.
+     */
+    private double[] phi;
+    /**
+     * Volatility of each player, indexed by id.
+     */
+    private double[] sigma;
+    /**
+     * System constant limiting how quickly volatility can change.
+     */
+    private final double tau;
+
+    /**
+     * Initialises {@link Glicko2Ratings} where every player is new.
+     *
+     * @param playerCount Number of players.
+     */
+    public Glicko2Ratings(int playerCount) {
+        this(playerCount, DEFAULT_TAU);
+    }
+
+    /**
+     * Initialises {@link Glicko2Ratings} where every player is new.
+     *
+     * @param playerCount Number of players.
+     * @param tau System constant limiting how quickly volatility can change.
+     */
+    public Glicko2Ratings(int playerCount, double tau) {
+        this.tau = tau;
+        mu = new double[playerCount];
+        phi = new double[playerCount];
+        sigma = new double[playerCount];
+        for (int id = 0; id < playerCount; id++) {
+            set(id, DEFAULT_RATING, DEFAULT_DEVIATION, DEFAULT_VOLATILITY);
+        }
+    }
+
+    /**
+     * Initialises {@link Glicko2Ratings} starting from every player's Elo rating in a
+     * {@link PlayerStore}, with the deviation and volatility of a new player.
+     *
+     * @param store {@link PlayerStore} of every player.
+     */
+    public Glicko2Ratings(PlayerStore store) {
+        this(store.size());
+        for (int id = 0; id < store.size(); id++) {
+            set(id, store.getElo(id), DEFAULT_DEVIATION, DEFAULT_VOLATILITY);
+        }
+    }
+
+    /**
+     * Sets a player's rating.
+     *
+     * @param id id of the player.
+     * @param rating Rating on the Glicko scale.
+     * @param deviation Rating deviation on the Glicko scale.
+     * @param volatility Volatility.
+     */
+    public void set(int id, double rating, double deviation, double volatility) {
+        mu[id] = (rating - DEFAULT_RATING) / SCALE;
+        phi[id] = deviation / SCALE;
+        sigma[id] = volatility;
+    }
+
+    /**
+     * Rates every player on the common {@link ForkJoinPool}.
+     *
+     * @param period {@link RatingPeriod} of results to rate.
+     *
+     * @see Glicko2Ratings#ratePeriod(RatingPeriod, ForkJoinPool)
+     */
+    public void ratePeriod(RatingPeriod period) {
+        ratePeriod(period, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Rates every player from the results of a rating period. Players with no results keep their
+     * rating, but become less certain of it.
+     *
+     * @param period {@link RatingPeriod} of results to rate.
+     * @param pool {@link ForkJoinPool} blocks of players are rated on.
+     */
+    public void ratePeriod(RatingPeriod period, ForkJoinPool pool) {
+        int playerCount = mu.length;
+        // Group results by player with a counting sort, adding every result once for each of its
+        // players. Offsets first count each player's results, then become the end of each
+        // player's group, then the start once the group has been filled from the back
+        int[] offsets = new int[playerCount + 1];
+        for (int i = 0; i < period.size(); i++) {
+            offsets[period.getPlayer1(i)]++;
+            offsets[period.getPlayer2(i)]++;
+        }
+        for (int id = 1; id <= playerCount; id++) {
+            offsets[id] += offsets[id - 1];
+        }
+        // Each entry is the opponent's id with the player's half points in the bottom 2 bits, so
+        // results are sorted with one write each
+        int[] entries = new int[2 * period.size()];
+        for (int i = 0; i < period.size(); i++) {
+            int player1 = period.getPlayer1(i);
+            int player2 = period.getPlayer2(i);
+            int halfPoints1 = period.getHalfPoints1(i);
+            entries[--offsets[player1]] = (player2 << 2) | halfPoints1;
+            entries[--offsets[player2]] = (player1 << 2) | (2 - halfPoints1);
+        }
+
+        // Everything a player needs of each opponent, side by side so it is one memory access
+        double[] opponentRatings = new double[2 * playerCount];
+        for (int id = 0; id < playerCount; id++) {
+            opponentRatings[2 * id] = mu[id];
+            opponentRatings[2 * id + 1] = g(phi[id]);
+        }
+
+        double[] newMu = new double[playerCount];
+        double[] newPhi = new double[playerCount];
+        double[] newSigma = new double[playerCount];
+        pool.invoke(new RatingTask(offsets, entries, opponentRatings, newMu, newPhi, newSigma, 0, playerCount));
+        mu = newMu;
+        phi = newPhi;
+        sigma = newSigma;
+    }
+
+    /**
+     * Works out one player's new rating, deviation and volatility from their results, following
+     * steps 3 to 8 of Glickman's example.
+     *
+     * @param id id of the player.
+     * @param offsets Index of each player's first entry in {@code entries}.
+     * @param entries Opponent of each result shifted left by 2 plus the player's half points,
+     *                grouped by player.
+     * @param opponentRatings Rating on the Glicko-2 scale and {@link Glicko2Ratings#g(double)} of
+     *                        each player, side by side.
+     * @param newMu Filled in with the player's new rating on the Glicko-2 scale.
+     * @param newPhi Filled in with the player's new rating deviation on the Glicko-2 scale.
+     * @param newSigma Filled in with the player's new volatility.
+     */
+    private void ratePlayer(int id, int[] offsets, int[] entries, double[] opponentRatings,
+                            double[] newMu, double[] newPhi, double[] newSigma) {
+        double playerMu = mu[id];
+        double playerPhi = phi[id];
+        double playerSigma = sigma[id];
+        if (offsets[id] == offsets[id + 1]) {
+            // Only the deviation changes for players who did not play
+            newMu[id] = playerMu;
+            newPhi[id] = Math.sqrt(playerPhi * playerPhi + playerSigma * playerSigma);
+            newSigma[id] = playerSigma;
+            return;
+        }
+
+        // Estimated variance of the rating from the results alone, and the estimated improvement
+        double inverseVariance = 0;
+        double improvement = 0;
+        for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            int opponent = entries[i] >>> 2;
+            double score = (entries[i] & 3) * 0.5;
+            double g = opponentRatings[2 * opponent + 1];
+            double expected = 1 / (1 + Math.exp(-g * (playerMu - opponentRatings[2 * opponent])));
+            inverseVariance += g * g * expected * (1 - expected);
+            improvement += g * (score - expected);
+        }
+        double variance = 1 / inverseVariance;
+        double delta = variance * improvement;
+
+        double volatility = getNewVolatility(playerPhi, playerSigma, variance, delta);
+        double preRatingPhi = Math.sqrt(playerPhi * playerPhi + volatility * volatility);
+        double ratedPhi = 1 / Math.sqrt(1 / (preRatingPhi * preRatingPhi) + inverseVariance);
+        newMu[id] = playerMu + ratedPhi * ratedPhi * improvement;
+        newPhi[id] = ratedPhi;
+        newSigma[id] = volatility;
+    }
+
+    /**
+     * Finds a player's new volatility with the Illinois algorithm, step 5 of Glickman's example.
+     *
+     * @param playerPhi Rating deviation of the player on the Glicko-2 scale.
+     * @param playerSigma Volatility of the player.
+     * @param variance Estimated variance of the player's rating from their results.
+     * @param delta Estimated improvement in the player's rating from their results.
+     *
+     * @return New volatility
+     */
+    private double getNewVolatility(double playerPhi, double playerSigma, double variance, double delta) {
+        double phiSquared = playerPhi * playerPhi;
+        double deltaSquared = delta * delta;
+        double a = Math.log(playerSigma * playerSigma);
+
+        double lower = a;
+        double upper;
+        if (deltaSquared > phiSquared + variance) {
+            upper = Math.log(deltaSquared - phiSquared - variance);
+        } else {
+            int k = 1;
+            while (volatilityFunction(a - k * tau, a, phiSquared, deltaSquared, variance) < 0) {
+                k++;
+            }
+            upper = a - k * tau;
+        }
+        double fLower = volatilityFunction(lower, a, phiSquared, deltaSquared, variance);
+        double fUpper = volatilityFunction(upper, a, phiSquared, deltaSquared, variance);
+        while (Math.abs(upper - lower) > CONVERGENCE) {
+            double c = lower + (lower - upper) * fLower / (fUpper - fLower);
+            double fC = volatilityFunction(c, a, phiSquared, deltaSquared, variance);
+            if (fC * fUpper <= 0) {
+                lower = upper;
+                fLower = fUpper;
+            } else {
+                fLower /= 2;
+            }
+            upper = c;
+            fUpper = fC;
+        }
+        return Math.exp(lower / 2);
+    }
+
+    /**
+     * Function whose root is the log of the squared new volatility.
+     *
+     * @param x Point to evaluate the function at.
+     * @param a Log of the squared old volatility.
+     * @param phiSquared Squared rating deviation of the player.
+     * @param deltaSquared Squared estimated improvement in the player's rating.
+     * @param variance Estimated variance of the player's rating from their results.
+     *
+     * @return Value of the function
+     */
+    private double volatilityFunction(double x, double a, double phiSquared, double deltaSquared, double variance) {
+        double ex = Math.exp(x);
+        double denominator = phiSquared + variance + ex;
+        return ex * (deltaSquared - phiSquared - variance - ex) / (2 * denominator * denominator) - (x - a) / (tau * tau);
+    }
+
+    /**
+     * Reduces the weight of a result by how uncertain the opponent's rating is.
+     *
+     * @param opponentPhi Rating deviation of the opponent on the Glicko-2 scale.
+     *
+     * @return Weight from 0 to 1
+     */
+    private static double g(double opponentPhi) {
+        return 1 / Math.sqrt(1 + 3 * opponentPhi * opponentPhi / (Math.PI * Math.PI));
+    }
+
+    /**
+     * Gets a player's rating on the Glicko scale.
+     *
+     * @param id id of the player.
+     *
+     * @return Rating
+     */
+    public double getRating(int id) {
+        return mu[id] * SCALE + DEFAULT_RATING;
+    }
+
+    /**
+     * Gets a player's rating deviation on the Glicko scale.
+     *
+     * @param id id of the player.
+     *
+     * @return Rating deviation
+     */
+    public double getDeviation(int id) {
+        return phi[id] * SCALE;
+    }
+
+    /**
+     * Gets a player's volatility.
+     *
+     * @param id id of the player.
+     *
+     * @return Volatility
+     */
+    public double getVolatility(int id) {
+        return sigma[id];
+    }
+
+    /**
+     * Gets the number of players.
+     *
+     * @return integer number of players.
+     */
+    public int size() {
+        return mu.length;
+    }
+
+    /**
+     * Fork/join task rating a range of players, splitting it in half until each part has at most
+     * {@link Glicko2Ratings#PARALLEL_BLOCK_SIZE} players.
+     */
+    private class RatingTask extends RecursiveAction {
+        /**
+         * Version of the serialised form, which is never used but required of a {@link RecursiveAction}.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Index of each player's first entry in {@link RatingTask#entries}.
+         */
+        private final int[] offsets;
+        /**
+         * Opponent of each result shifted left by 2 plus the player's half points, grouped by player.
+         */
+        private final int[] entries;
+        /**
+         * Rating on the Glicko-2 scale and {@link Glicko2Ratings#g(double)} of each player, side by side.
+         */
+        private final double[] opponentRatings;
+        /**
+         * New rating of each player on the Glicko-2 scale, filled in as players are rated.
+         */
+        private final double[] newMu;
+        /**
+         * New rating deviation of each player on the Glicko-2 scale, filled in as players are rated.
+         */
+        private final double[] newPhi;
+        /**
+         * New volatility of each player, filled in as players are rated.
+         */
+        private final double[] newSigma;
+        /**
+         * First player to rate.
+         */
+        private final int from;
+        /**
+         * Player to stop at (exclusive).
+         */
+        private final int to;
+
+        /**
+         * Initialises a {@link RatingTask} for a range of players.
+         *
+         * @param offsets Index of each player's first entry in {@code entries}.
+         * @param entries Opponent of each result shifted left by 2 plus the player's half points,
+         *                grouped by player.
+         * @param opponentRatings Rating and {@link Glicko2Ratings#g(double)} of each player, side by side.
+         * @param newMu New rating of each player, filled in as players are rated.
+         * @param newPhi New rating deviation of each player, filled in as players are rated.
+         * @param newSigma New volatility of each player, filled in as players are rated.
+         * @param from First player to rate.
+         * @param to Player to stop at (exclusive).
+         */
+        RatingTask(int[] offsets, int[] entries, double[] opponentRatings,
+                   double[] newMu, double[] newPhi, double[] newSigma, int from, int to) {
+            this.offsets = offsets;
+            this.entries = entries;
+            this.opponentRatings = opponentRatings;
+            this.newMu = newMu;
+            this.newPhi = newPhi;
+            this.newSigma = newSigma;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Rates the players, or splits them between two new tasks if there are too many.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_BLOCK_SIZE) {
+                for (int id = from; id < to; id++) {
+                    ratePlayer(id, offsets, entries, opponentRatings, newMu, newPhi, newSigma);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RatingTask(offsets, entries, opponentRatings, newMu, newPhi, newSigma, from, middle),
+                    new RatingTask(offsets, entries, opponentRatings, newMu, newPhi, newSigma, middle, to));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package player;
+
+import com.opencsv.exceptions.CsvException;
+import components.CSVParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shared dictionary of first and last names, so players can refer to their names by index rather
+ * than each holding their own {@link String}s.
+ * <p>
+ * Every distinct name is stored once. First names also record the gender they are most commonly
+ * given to, which is used when generating random players.
+ * <p>
+ * A dictionary can be backed by a memory-mapped {@link NameSnapshot}, whose names come before any
+ * names added afterwards and are only decoded when they are looked up.
+ */
+public class NameDictionary {
+    /**
+     * {@link NameSnapshot} holding the names with the lowest indexes.
+     */
+    private final NameSnapshot snapshot;
+    /**
+     * {@link List} of every distinct first name added after {@link NameDictionary#snapshot},
+     * indexed by first name index minus the number of first names in the snapshot.
+     */
+    private final List<String> firstNames = new ArrayList<>();
+    /**
+     * Gender of each first name, using the same values as {@link Player#getGender()}.
+     */
+    private final List<Integer> firstNameGenders = new ArrayList<>();
+    /**
+     * {@link List} of every distinct last name added after {@link NameDictionary#snapshot},
+     * indexed by last name index minus the number of last names in the snapshot.
+     */
+    private final List<String> lastNames = new ArrayList<>();
+    /**
+     * Index of each first name. Names in {@link NameDictionary#snapshot} are only added the first
+     * time a name is added to the dictionary.
+     */
+    private final HashMap<String, Integer> firstNameIndexes = new HashMap<>();
+    /**
+     * Index of each last name. Names in {@link NameDictionary#snapshot} are only added the first
+     * time a name is added to the dictionary.
+     */
+    private final HashMap<String, Integer> lastNameIndexes = new HashMap<>();
+    /**
+     * Whether the names in {@link NameDictionary#snapshot} have been added to the indexes.
+     */
+    private boolean snapshotIndexed = false;
+
+    /**
+     * Initialises an empty {@link NameDictionary}.
+     */
+    public NameDictionary() {
+        this(NameSnapshot.EMPTY);
+    }
+
+    /**
+     * Initialises a {@link NameDictionary} starting with the names in a {@link NameSnapshot}.
+     *
+     * @param snapshot {@link NameSnapshot} holding the names with the lowest indexes.
+     */
+    private NameDictionary(NameSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Loads a {@link NameDictionary} from CSV files of first and last names.
+     *
+     * @param firstNamesPath Path of a CSV file with a first name and {@code male}/{@code female}
+     *                       on each line.
+     * @param lastNamesPath Path of a CSV file with a last name on each line.
+     *
+     * @return {@link NameDictionary} object
+     *
+     * @throws IOException Thrown when an issue arises with {@link CSVParser}.
+     * @throws CsvException Thrown when an issue arises with {@link CSVParser}.
+     */
+    public static NameDictionary load(String firstNamesPath, String lastNamesPath) throws IOException, CsvException {
+        NameDictionary names = new NameDictionary();
+        CSVParser parser = new CSVParser();
+        parser.forEachLine(firstNamesPath, line -> {
+            // Get gender, easily modifiable for non-binary genders if required
+            int gender = Objects.equals(line[1], "female") ? 1 : 0;
+            names.addFirstName(line[0], gender);
+        });
+        parser.forEachLine(lastNamesPath, line -> names.addLastName(line[0]));
+        return names;
+    }
+
+    /**
+     * Loads a {@link NameDictionary} from a binary snapshot of the CSV files of first and last
+     * names, which is memory-mapped rather than parsed.
+     * <p>
+     * The CSV files are only parsed when the snapshot is missing or they have changed since it
+     * was written, in which case a new snapshot is written for next time.
+     *
+     * @param firstNamesPath Path of a CSV file with a first name and {@code male}/{@code female}
+     *                       on each line.
+     * @param lastNamesPath Path of a CSV file with a last name on each line.
+     * @param snapshotPath Path of the snapshot file.
+     *
+     * @return {@link NameDictionary} object
+     *
+     * @throws IOException Thrown when an issue arises with {@link CSVParser}.
+     * @throws CsvException Thrown when an issue arises with {@link CSVParser}.
+     */
+    public static NameDictionary loadCached(String firstNamesPath, String lastNamesPath, String snapshotPath) throws IOException, CsvException {
+        Path firstNames = Path.of(firstNamesPath);
+        Path lastNames = Path.of(lastNamesPath);
+        Path snapshotFile = Path.of(snapshotPath);
+        NameSnapshot snapshot = NameSnapshot.map(snapshotFile, firstNames, lastNames);
+        if (snapshot != null) {
+            return new NameDictionary(snapshot);
+        }
+        NameDictionary names = load(firstNamesPath, lastNamesPath);
+        try {
+            NameSnapshot.write(names, snapshotFile, firstNames, lastNames);
+        } catch (IOException e) {
+            // Still usable without a snapshot, it will just be parsed again next time
+            System.out.println("Could not write name snapshot " + snapshotPath + ": " + e.getMessage());
+        }
+        return names;
+    }
+
+    /**
+     * Adds the names in {@link NameDictionary#snapshot} to the indexes, so names being added can
+     * be checked against them.
+     */
+    private void indexSnapshot() {
+        if (snapshotIndexed) {
+            return;
+        }
+        for (int i = 0; i < snapshot.getFirstNameCount(); i++) {
+            firstNameIndexes.putIfAbsent(snapshot.getFirstName(i), i);
+        }
+        for (int i = 0; i < snapshot.getLastNameCount(); i++) {
+            lastNameIndexes.putIfAbsent(snapshot.getLastName(i), i);
+        }
+        snapshotIndexed = true;
+    }
+
+    /**
+     * Adds a first name to the dictionary if it is not already in it.
+     *
+     * @param firstName First name to add.
+     * @param gender Gender the name is given to if it is new to the dictionary.
+     *
+     * @return Index of the first name.
+     */
+    public int addFirstName(String firstName, int gender) {
+        indexSnapshot();
+        Integer index = firstNameIndexes.get(firstName);
+        if (index == null) {
+            index = getFirstNameCount();
+            firstNames.add(firstName);
+            firstNameGenders.add(gender);
+            firstNameIndexes.put(firstName, index);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a last name to the dictionary if it is not already in it.
+     *
+     * @param lastName Last name to add.
+     *
+     * @return Index of the last name.
+     */
+    public int addLastName(String lastName) {
+        indexSnapshot();
+        Integer index = lastNameIndexes.get(lastName);
+        if (index == null) {
+            index = getLastNameCount();
+            lastNames.add(lastName);
+            lastNameIndexes.put(lastName, index);
+        }
+        return index;
+    }
+
+    /**
+     * Gets a first name from its index.
+     *
+     * @param index Index of the first name.
+     *
+     * @return First name
+     */
+    public String getFirstName(int index) {
+        if (index < snapshot.getFirstNameCount()) {
+            return snapshot.getFirstName(index);
+        }
+        return firstNames.get(index - snapshot.getFirstNameCount());
+    }
+
+    /**
+     * Gets the gender a first name is given to.
+     *
+     * @param index Index of the first name.
+     *
+     * @return 0: Male, 1: Female, >1: Non-binary (other).
+     */
+    public int getFirstNameGender(int index) {
+        if (index < snapshot.getFirstNameCount()) {
+            return snapshot.getFirstNameGender(index);
+        }
+        return firstNameGenders.get(index - snapshot.getFirstNameCount());
+    }
+
+    /**
+     * Gets a last name from its index.
+     *
+     * @param index Index of the last name.
+     *
+     * @return Last name
+     */
+    public String getLastName(int index) {
+        if (index < snapshot.getLastNameCount()) {
+            return snapshot.getLastName(index);
+        }
+        return lastNames.get(index - snapshot.getLastNameCount());
+    }
+
+    /**
+     * Gets the number of distinct first names in the dictionary.
+     *
+     * @return integer number of first names.
+     */
+    public int getFirstNameCount() {
+        return snapshot.getFirstNameCount() + firstNames.size();
+    }
+
+    /**
+     * Gets the number of distinct last names in the dictionary.
+     *
+     * @return integer number of last names.
+     */
+    public int getLastNameCount() {
+        return snapshot.getLastNameCount() + lastNames.size();
+    }
+}
@@ -0,0 +1,301 @@
+package player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only set of first and last names stored in a compact binary file, which is memory-mapped
+ * rather than parsed so opening it takes the same time no matter how many names it holds.
+ * <p>
+ * Names are kept as UTF-8 bytes and only decoded into {@link String}s the first time they are
+ * looked up. The file is laid out as:
+ * <pre>
+ * int    MAGIC, VERSION
+ * long   size and last modified time of the first names CSV
+ * long   size and last modified time of the last names CSV
+ * int    firstCount, lastCount
+ * int[]  firstCount + 1 offsets of each first name in the first name bytes
+ * int[]  lastCount + 1 offsets of each last name in the last name bytes
+ * byte[] bitmap with a bit set for each first name given to females
+ * byte[] first name bytes
+ * byte[] last name bytes
+ * </pre>
+ * The sizes and times of the CSV files the names came from are recorded, so a snapshot is only
+ * used while those files are unchanged.
+ */
+class NameSnapshot {
+    /**
+     * Number at the start of every snapshot, {@code "TTND"} in ASCII.
+     */
+    private static final int MAGIC = 0x54544E44;
+    /**
+     * Version of the format written by this class.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Number of bytes in the header, before the offsets.
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 4 * 8 + 4 + 4;
+    /**
+     * Snapshot holding no names.
+     */
+    static final NameSnapshot EMPTY = new NameSnapshot(ByteBuffer.allocate(0), 0, 0);
+    /**
+     * Contents of the snapshot file.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Number of first names in the snapshot.
+     */
+    private final int firstNameCount;
+    /**
+     * Number of last names in the snapshot.
+     */
+    private final int lastNameCount;
+    /**
+     * Position of the first name offsets in {@link NameSnapshot#buffer}.
+     */
+    private final int firstOffsets;
+    /**
+     * Position of the last name offsets in {@link NameSnapshot#buffer}.
+     */
+    private final int lastOffsets;
+    /**
+     * Position of the gender bitmap in {@link NameSnapshot#buffer}.
+     */
+    private final int genders;
+    /**
+     * Position of the first name bytes in {@link NameSnapshot#buffer}.
+     */
+    private final int firstNameBytes;
+    /**
+     * Position of the last name bytes in {@link NameSnapshot#buffer}.
+     */
+    private final int lastNameBytes;
+    /**
+     * First names which have been decoded, indexed by first name index. Created on first use.
+     */
+    private String[] firstNames;
+    /**
+     * Last names which have been decoded, indexed by last name index. Created on first use.
+     */
+    private String[] lastNames;
+
+    /**
+     * Initialises a {@link NameSnapshot} over the contents of a snapshot file.
+     *
+     * @param buffer Contents of the file, positioned after the header.
+     * @param firstNameCount Number of first names in the snapshot.
+     * @param lastNameCount Number of last names in the snapshot.
+     */
+    private NameSnapshot(ByteBuffer buffer, int firstNameCount, int lastNameCount) {
+        this.buffer = buffer;
+        this.firstNameCount = firstNameCount;
+        this.lastNameCount = lastNameCount;
+        firstOffsets = HEADER_SIZE;
+        lastOffsets = firstOffsets + 4 * (firstNameCount + 1);
+        genders = lastOffsets + 4 * (lastNameCount + 1);
+        firstNameBytes = genders + (firstNameCount + 7) / 8;
+        lastNameBytes = firstNameBytes + ((firstNameCount > 0) ? buffer.getInt(firstOffsets + 4 * firstNameCount) : 0);
+    }
+
+    /**
+     * Memory-maps a snapshot file, as long as it was written from the given CSV files in their
+     * current state.
+     *
+     * @param path Path of the snapshot file.
+     * @param firstNamesPath Path of the first names CSV file the snapshot should come from.
+     * @param lastNamesPath Path of the last names CSV file the snapshot should come from.
+     *
+     * @return {@link NameSnapshot} object, or null if the file is missing, is not a snapshot or
+     * is out of date.
+     *
+     * @throws IOException Thrown when the snapshot or CSV files cannot be read.
+     */
+    static NameSnapshot map(Path path, Path firstNamesPath, Path lastNamesPath) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getLong() != Files.size(firstNamesPath)
+                || buffer.getLong() != Files.getLastModifiedTime(firstNamesPath).toMillis()
+                || buffer.getLong() != Files.size(lastNamesPath)
+                || buffer.getLong() != Files.getLastModifiedTime(lastNamesPath).toMillis()) {
+            return null;
+        }
+        int firstNameCount = buffer.getInt();
+        int lastNameCount = buffer.getInt();
+        return new NameSnapshot(buffer, firstNameCount, lastNameCount);
+    }
+
+    /**
+     * Writes every name in a {@link NameDictionary} to a snapshot file. The file is written under
+     * a temporary name then moved into place, so a half-written snapshot is never mapped.
+     *
+     * @param names {@link NameDictionary} to write. Genders other than female are written as male.
+     * @param path Path of the snapshot file.
+     * @param firstNamesPath Path of the first names CSV file the names came from.
+     * @param lastNamesPath Path of the last names CSV file the names came from.
+     *
+     * @throws IOException Thrown when the file cannot be written.
+     */
+    static void write(NameDictionary names, Path path, Path firstNamesPath, Path lastNamesPath) throws IOException {
+        int firstNameCount = names.getFirstNameCount();
+        int lastNameCount = names.getLastNameCount();
+        byte[][] firstNames = new byte[firstNameCount][];
+        byte[][] lastNames = new byte[lastNameCount][];
+        int firstLength = 0;
+        int lastLength = 0;
+        for (int i = 0; i < firstNameCount; i++) {
+            firstNames[i] = names.getFirstName(i).getBytes(StandardCharsets.UTF_8);
+            firstLength += firstNames[i].length;
+        }
+        for (int i = 0; i < lastNameCount; i++) {
+            lastNames[i] = names.getLastName(i).getBytes(StandardCharsets.UTF_8);
+            lastLength += lastNames[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * (firstNameCount + lastNameCount + 2)
+                + (firstNameCount + 7) / 8 + firstLength + lastLength);
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putLong(Files.size(firstNamesPath))
+                .putLong(Files.getLastModifiedTime(firstNamesPath).toMillis())
+                .putLong(Files.size(lastNamesPath))
+                .putLong(Files.getLastModifiedTime(lastNamesPath).toMillis())
+                .putInt(firstNameCount)
+                .putInt(lastNameCount);
+        putOffsets(buffer, firstNames);
+        putOffsets(buffer, lastNames);
+        byte[] bitmap = new byte[(firstNameCount + 7) / 8];
+        for (int i = 0; i < firstNameCount; i++) {
+            if (names.getFirstNameGender(i) == 1) {
+                bitmap[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        buffer.put(bitmap);
+        for (byte[] name : firstNames) {
+            buffer.put(name);
+        }
+        for (byte[] name : lastNames) {
+            buffer.put(name);
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the offset of each name, followed by the total length of the names.
+     *
+     * @param buffer {@link ByteBuffer} to write to.
+     * @param names UTF-8 bytes of each name.
+     */
+    private static void putOffsets(ByteBuffer buffer, byte[][] names) {
+        int offset = 0;
+        for (byte[] name : names) {
+            buffer.putInt(offset);
+            offset += name.length;
+        }
+        buffer.putInt(offset);
+    }
+
+    /**
+     * Decodes a name from its UTF-8 bytes.
+     *
+     * @param offsets Position of the offsets of the names in {@link NameSnapshot#buffer}.
+     * @param bytes Position of the bytes of the names in {@link NameSnapshot#buffer}.
+     * @param index Index of the name.
+     *
+     * @return Decoded name
+     */
+    private String decode(int offsets, int bytes, int index) {
+        int start = buffer.getInt(offsets + 4 * index);
+        byte[] name = new byte[buffer.getInt(offsets + 4 * (index + 1)) - start];
+        buffer.get(bytes + start, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a first name from its index, decoding it the first time.
+     *
+     * @param index Index of the first name.
+     *
+     * @return First name
+     */
+    String getFirstName(int index) {
+        // Work on a local copy so a name decoded by another thread can never be lost part way
+        String[] decoded = firstNames;
+        if (decoded == null) {
+            decoded = new String[firstNameCount];
+            firstNames = decoded;
+        }
+        String name = decoded[index];
+        if (name == null) {
+            name = decode(firstOffsets, firstNameBytes, index);
+            decoded[index] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Gets a last name from its index, decoding it the first time.
+     *
+     * @param index Index of the last name.
+     *
+     * @return Last name
+     */
+    String getLastName(int index) {
+        String[] decoded = lastNames;
+        if (decoded == null) {
+            decoded = new String[lastNameCount];
+            lastNames = decoded;
+        }
+        String name = decoded[index];
+        if (name == null) {
+            name = decode(lastOffsets, lastNameBytes, index);
+            decoded[index] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Gets the gender a first name is given to.
+     *
+     * @param index Index of the first name.
+     *
+     * @return 0: Male, 1: Female.
+     */
+    int getFirstNameGender(int index) {
+        return (buffer.get(genders + (index >> 3)) >> (index & 7)) & 1;
+    }
+
+    /**
+     * Getter for {@link NameSnapshot#firstNameCount}.
+     *
+     * @return {@link NameSnapshot#firstNameCount}
+     */
+    int getFirstNameCount() {
+        return firstNameCount;
+    }
+
+    /**
+     * Getter for {@link NameSnapshot#lastNameCount}.
+     *
+     * @return {@link NameSnapshot#lastNameCount}
+     */
+    int getLastNameCount() {
+        return lastNameCount;
+    }
+}
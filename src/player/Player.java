@@ -42,6 +42,33 @@ public class Player {
         this.elo = elo;
     }
 
+    /**
+     * Initialises a {@link Player} object as a copy of another player.
+     * <p>
+     * Used when the same field of players is entered into several independent tournaments.
+     *
+     * @param player {@link Player} to copy the name, gender and Elo of. Wins are not copied.
+     */
+    public Player(Player player) {
+        this(player.firstName, player.lastName, player.gender, player.elo);
+    }
+
+    /**
+     * Initialises a {@link Player} object with a number of wins already recorded.
+     * <p>
+     * Used by {@link PlayerStore#getPlayer(int)} to create a {@link Player} from a stored row.
+     *
+     * @param firstName First name of player.
+     * @param lastName Last name of player.
+     * @param gender 0: Male, 1: Female, >1: Non-binary (other).
+     * @param elo Elo rating of the player.
+     * @param wins Number of matches the player has won.
+     */
+    Player(String firstName, String lastName, int gender, int elo, int wins) {
+        this(firstName, lastName, gender, elo);
+        this.wins = wins;
+    }
+
     /**
      * Changes Elo rating based on the expected games a player will win during a match compared
      * to the actual games they won.
@@ -52,16 +79,46 @@ public class Player {
      * @param wins Number of games the player won during the match.
      */
     public void adjustElo(double expectedWins, double wins) {
+        adjustElo(expectedWins, wins, true);
+    }
+
+    /**
+     * Changes Elo rating based on the expected games a player will win during a match compared
+     * to the actual games they won.
+     *
+     * @param expectedWins Number of games a player is expected to win based on their Elo.
+     * @param wins Number of games the player won during the match.
+     * @param verbose Whether the Elo change should be printed to the console.
+     */
+    public void adjustElo(double expectedWins, double wins, boolean verbose) {
+        int newElo = getAdjustedElo(getElo(), expectedWins, wins);
+        if (verbose) {
+            System.out.printf("[ELO] Updated %s %s's Elo from %d to %d (%d)%n",
+                    getFirstName(),
+                    getLastName(),
+                    getElo(),
+                    newElo,
+                    newElo-getElo());
+        }
+        setElo(newElo);
+    }
+
+    /**
+     * Calculates a new Elo rating based on the expected games a player will win during a match
+     * compared to the actual games they won.
+     * <p>
+     * Source: <a href="https://en.wikipedia.org/wiki/Elo_rating_system#cite_note-27">Elo Rating System</a>
+     *
+     * @param elo Elo rating before the match.
+     * @param expectedWins Number of games a player is expected to win based on their Elo.
+     * @param wins Number of games the player won during the match.
+     *
+     * @return Elo rating after the match.
+     */
+    public static int getAdjustedElo(int elo, double expectedWins, double wins) {
         // K-factor is max change in Elo per adjustment. Formally set to 16 for pros and 32 for weaker players
         int K = 32;
-        int newElo = (int) Math.round(getElo() + (K * (wins - expectedWins)));
-        System.out.printf("[ELO] Updated %s %s's Elo from %d to %d (%d)%n",
-                getFirstName(),
-                getLastName(),
-                getElo(),
-                newElo,
-                newElo-getElo());
-        setElo(newElo);
+        return (int) Math.round(elo + (K * (wins - expectedWins)));
     }
 
     /**
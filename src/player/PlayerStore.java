@@ -0,0 +1,329 @@
+package player;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Compact table of players, storing each player's details in a column of primitive values rather
+ * than as a {@link Player} object.
+ * <p>
+ * A player is identified by its row number (its id), given out in the order players are added.
+ * Names are stored as indexes into a shared {@link NameDictionary}, so a player only costs a few
+ * {@code int}s no matter how long their name is. This allows tournaments with millions of players
+ * to fit in memory.
+ */
+public class PlayerStore {
+    /**
+     * Initial number of rows allocated when no capacity is given.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * {@link NameDictionary} the name columns index into.
+     */
+    private final NameDictionary names;
+    /**
+     * Elo rating of each player.
+     */
+    private int[] elo;
+    /**
+     * Number of matches each player has won.
+     */
+    private int[] wins;
+    /**
+     * Gender of each player, using the same values as {@link Player#getGender()}.
+     */
+    private int[] gender;
+    /**
+     * Index of each player's first name in {@link PlayerStore#names}.
+     */
+    private int[] firstName;
+    /**
+     * Index of each player's last name in {@link PlayerStore#names}.
+     */
+    private int[] lastName;
+    /**
+     * Number of players in the store.
+     */
+    private int size = 0;
+
+    /**
+     * Initialises an empty {@link PlayerStore}.
+     *
+     * @param names {@link NameDictionary} player names are stored in.
+     */
+    public PlayerStore(NameDictionary names) {
+        this(names, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initialises an empty {@link PlayerStore} with room for a number of players, so the columns
+     * do not need to grow while they are added.
+     *
+     * @param names {@link NameDictionary} player names are stored in.
+     * @param capacity Number of players to allocate room for.
+     */
+    public PlayerStore(NameDictionary names, int capacity) {
+        this.names = names;
+        capacity = Math.max(1, capacity);
+        elo = new int[capacity];
+        wins = new int[capacity];
+        gender = new int[capacity];
+        firstName = new int[capacity];
+        lastName = new int[capacity];
+    }
+
+    /**
+     * Creates a store of players with random names from a {@link NameDictionary} and random Elo
+     * ratings from 1000 to 1399.
+     *
+     * @param names {@link NameDictionary} to pick names from.
+     * @param playerCount Number of players to generate.
+     * @param random {@link RandomGenerator} used to pick names and Elo ratings.
+     *
+     * @return {@link PlayerStore} of the generated players
+     *
+     * @throws IllegalArgumentException Thrown when players are needed but the dictionary has no first or last names.
+     */
+    public static PlayerStore generate(NameDictionary names, int playerCount, RandomGenerator random) {
+        if (playerCount > 0 && (names.getFirstNameCount() == 0 || names.getLastNameCount() == 0)) {
+            throw new IllegalArgumentException("Players cannot be generated from a name dictionary with no "
+                    + (names.getFirstNameCount() == 0 ? "first" : "last") + " names! Please load names into it first...");
+        }
+        PlayerStore players = new PlayerStore(names, playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            // Get first name and the gender it is given to
+            int firstName = random.nextInt(names.getFirstNameCount());
+            int gender = names.getFirstNameGender(firstName);
+            // Get last name and Elo
+            int lastName = random.nextInt(names.getLastNameCount());
+            int elo = 1000 + random.nextInt(400); // Arbitrary range of 1000 to 1400 Elo for any player
+            players.add(firstName, lastName, gender, elo);
+        }
+        return players;
+    }
+
+    /**
+     * Adds a player using names already in {@link PlayerStore#names}.
+     *
+     * @param firstNameIndex Index of the player's first name.
+     * @param lastNameIndex Index of the player's last name.
+     * @param gender 0: Male, 1: Female, >1: Non-binary (other).
+     * @param elo Elo rating of the player.
+     *
+     * @return id of the new player.
+     */
+    public int add(int firstNameIndex, int lastNameIndex, int gender, int elo) {
+        if (size == this.elo.length) {
+            grow();
+        }
+        this.firstName[size] = firstNameIndex;
+        this.lastName[size] = lastNameIndex;
+        this.gender[size] = gender;
+        this.elo[size] = elo;
+        return size++;
+    }
+
+    /**
+     * Adds a player, adding their names to {@link PlayerStore#names} if needed.
+     *
+     * @param firstName First name of player.
+     * @param lastName Last name of player.
+     * @param gender 0: Male, 1: Female, >1: Non-binary (other).
+     * @param elo Elo rating of the player.
+     *
+     * @return id of the new player.
+     */
+    public int add(String firstName, String lastName, int gender, int elo) {
+        return add(names.addFirstName(firstName, gender), names.addLastName(lastName), gender, elo);
+    }
+
+    /**
+     * Adds a copy of a {@link Player} object. Wins are not copied.
+     *
+     * @param player {@link Player} to add.
+     *
+     * @return id of the new player.
+     */
+    public int add(Player player) {
+        return add(player.getFirstName(), player.getLastName(), player.getGender(), player.getElo());
+    }
+
+    /**
+     * Doubles the length of every column.
+     */
+    private void grow() {
+        int capacity = elo.length * 2;
+        elo = Arrays.copyOf(elo, capacity);
+        wins = Arrays.copyOf(wins, capacity);
+        gender = Arrays.copyOf(gender, capacity);
+        firstName = Arrays.copyOf(firstName, capacity);
+        lastName = Arrays.copyOf(lastName, capacity);
+    }
+
+    /**
+     * Creates a copy of the store with every player's wins reset to 0, sharing the same
+     * {@link NameDictionary}.
+     * <p>
+     * Used when the same field of players is entered into several independent tournaments.
+     *
+     * @return {@link PlayerStore} object
+     */
+    public PlayerStore copy() {
+        PlayerStore copy = new PlayerStore(names, size);
+        System.arraycopy(elo, 0, copy.elo, 0, size);
+        System.arraycopy(gender, 0, copy.gender, 0, size);
+        System.arraycopy(firstName, 0, copy.firstName, 0, size);
+        System.arraycopy(lastName, 0, copy.lastName, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Creates a store of some of the players, with their wins reset to 0, sharing the same
+     * {@link NameDictionary}.
+     * <p>
+     * Used when part of a population of players is entered into a tournament.
+     *
+     * @param ids ids of the players to copy. Player {@code i} of the new store is {@code ids[i]}.
+     * @param ratings Elo rating to give each copied player, in the same order as {@code ids}.
+     *
+     * @return {@link PlayerStore} object
+     */
+    public PlayerStore subset(int[] ids, int[] ratings) {
+        PlayerStore subset = new PlayerStore(names, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            subset.add(firstName[ids[i]], lastName[ids[i]], gender[ids[i]], ratings[i]);
+        }
+        return subset;
+    }
+
+    /**
+     * Changes a player's Elo rating based on the expected games they would win during a match
+     * compared to the actual games they won.
+     *
+     * @param id id of the player.
+     * @param expectedWins Number of games the player is expected to win based on their Elo.
+     * @param wins Number of games the player won during the match.
+     *
+     * @return The player's new Elo rating.
+     *
+     * @see Player#getAdjustedElo(int, double, double)
+     */
+    public int adjustElo(int id, double expectedWins, double wins) {
+        elo[id] = Player.getAdjustedElo(elo[id], expectedWins, wins);
+        return elo[id];
+    }
+
+    /**
+     * Creates a {@link Player} object with the current details of a player.
+     *
+     * @param id id of the player.
+     *
+     * @return {@link Player} object. Changes to it are not written back to the store.
+     */
+    public Player getPlayer(int id) {
+        return new Player(getFirstName(id), getLastName(id), gender[id], elo[id], wins[id]);
+    }
+
+    /**
+     * Getter for {@link PlayerStore#names}.
+     *
+     * @return {@link PlayerStore#names}
+     */
+    public NameDictionary getNames() {
+        return names;
+    }
+
+    /**
+     * Gets the number of players in the store.
+     *
+     * @return {@link PlayerStore#size}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a player's Elo rating.
+     *
+     * @param id id of the player.
+     *
+     * @return Elo rating
+     */
+    public int getElo(int id) {
+        return elo[id];
+    }
+
+    /**
+     * Sets a player's Elo rating.
+     *
+     * @param id id of the player.
+     * @param elo int value
+     */
+    public void setElo(int id, int elo) {
+        this.elo[id] = elo;
+    }
+
+    /**
+     * Gets the number of matches a player has won.
+     *
+     * @param id id of the player.
+     *
+     * @return Number of wins
+     */
+    public int getWins(int id) {
+        return wins[id];
+    }
+
+    /**
+     * Sets the number of matches a player has won.
+     *
+     * @param id id of the player.
+     * @param wins Number of wins.
+     */
+    public void setWins(int id, int wins) {
+        this.wins[id] = wins;
+    }
+
+    /**
+     * Increments a player's wins by 1.
+     *
+     * @param id id of the player.
+     */
+    public void addWin(int id) {
+        wins[id]++;
+    }
+
+    /**
+     * Gets a player's gender.
+     *
+     * @param id id of the player.
+     *
+     * @return 0: Male, 1: Female, >1: Non-binary (other).
+     */
+    public int getGender(int id) {
+        return gender[id];
+    }
+
+    /**
+     * Gets a player's first name.
+     *
+     * @param id id of the player.
+     *
+     * @return First name
+     */
+    public String getFirstName(int id) {
+        return names.getFirstName(firstName[id]);
+    }
+
+    /**
+     * Gets a player's last name.
+     *
+     * @param id id of the player.
+     *
+     * @return Last name
+     */
+    public String getLastName(int id) {
+        return names.getLastName(lastName[id]);
+    }
+}
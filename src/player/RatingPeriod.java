@@ -0,0 +1,115 @@
+package player;
+
+import java.util.Arrays;
+
+/**
+ * Every match result of one rating period, collected so {@link Glicko2Ratings} can rate all of
+ * them at once.
+ * <p>
+ * Results are stored in columns of primitive values, so a period of millions of results only
+ * costs a few arrays. Scores are kept as whole half points, as Glicko-2 only has wins, draws and
+ * losses. Adding results is not thread-safe.
+ */
+public class RatingPeriod {
+    /**
+     * Initial number of results allocated.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * id of player 1 of each result.
+     */
+    private int[] player1 = new int[DEFAULT_CAPACITY];
+    /**
+     * id of player 2 of each result.
+     */
+    private int[] player2 = new int[DEFAULT_CAPACITY];
+    /**
+     * Half points scored by player 1 in each result: 2 for a win, 1 for a draw and 0 for a loss.
+     */
+    private byte[] halfPoints1 = new byte[DEFAULT_CAPACITY];
+    /**
+     * Number of results in the period.
+     */
+    private int size = 0;
+
+    /**
+     * Adds the result of a match.
+     *
+     * @param player1 id of player 1.
+     * @param player2 id of player 2.
+     * @param score1 Score of player 1: 1 for a win, 0.5 for a draw and 0 for a loss, rounded to
+     *               the nearest of those. Player 2 scores the rest.
+     */
+    public void addResult(int player1, int player2, double score1) {
+        if (size == this.player1.length) {
+            int capacity = size * 2;
+            this.player1 = Arrays.copyOf(this.player1, capacity);
+            this.player2 = Arrays.copyOf(this.player2, capacity);
+            halfPoints1 = Arrays.copyOf(halfPoints1, capacity);
+        }
+        this.player1[size] = player1;
+        this.player2[size] = player2;
+        halfPoints1[size] = (byte) Math.max(0, Math.min(2, Math.round(score1 * 2)));
+        size++;
+    }
+
+    /**
+     * Removes every result, keeping the allocated columns for the next period.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets player 1 of a result.
+     *
+     * @param result Index of the result.
+     *
+     * @return id of player 1.
+     */
+    public int getPlayer1(int result) {
+        return player1[result];
+    }
+
+    /**
+     * Gets player 2 of a result.
+     *
+     * @param result Index of the result.
+     *
+     * @return id of player 2.
+     */
+    public int getPlayer2(int result) {
+        return player2[result];
+    }
+
+    /**
+     * Gets the score of player 1 in a result.
+     *
+     * @param result Index of the result.
+     *
+     * @return 1 for a win, 0.5 for a draw and 0 for a loss.
+     */
+    public double getScore1(int result) {
+        return halfPoints1[result] / 2.0;
+    }
+
+    /**
+     * Gets the half points scored by player 1 in a result.
+     *
+     * @param result Index of the result.
+     *
+     * @return 2 for a win, 1 for a draw and 0 for a loss.
+     */
+    public int getHalfPoints1(int result) {
+        return halfPoints1[result];
+    }
+
+    /**
+     * Getter for {@link RatingPeriod#size}.
+     *
+     * @return {@link RatingPeriod#size}
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,474 @@
+package player;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Imports real players from a UTF-8 CSV roster with a {@code firstName,lastName,gender,elo} row
+ * for each player, adding them straight to a {@link PlayerStore}.
+ * <p>
+ * The file is read in fixed size blocks and parsed byte by byte, so memory use depends only on
+ * the players added to the store and not on the size of the file. Names are looked up by their
+ * bytes in a {@link NameTable}, so only names which have not been seen before are decoded and
+ * added to the {@link NameDictionary}. Fields may be quoted with {@code "}, a leading UTF-8 byte
+ * order mark is skipped and a first row which does not have a number for the Elo rating is
+ * treated as a header. Gender can be written as {@code male}/{@code m}, {@code female}/{@code f} or as the
+ * number used by {@link Player#getGender()}; anything else counts as other.
+ * <p>
+ * Rows which cannot be read are skipped with a message.
+ */
+public class RosterImporter {
+    /**
+     * Number of bytes read from the file at a time.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Number of columns in each row.
+     */
+    private static final int COLUMNS = 4;
+    /**
+     * Column of the gender in each row.
+     */
+    private static final int GENDER = 2;
+    /**
+     * Column of the Elo rating in each row.
+     */
+    private static final int ELO = 3;
+    /**
+     * UTF-8 encoding of the byte order mark some editors put at the start of a file.
+     */
+    private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    /**
+     * {@link PlayerStore} players are added to.
+     */
+    private final PlayerStore store;
+    /**
+     * Bytes of each field in the row being read, reused for every row.
+     */
+    private final byte[][] fields = new byte[COLUMNS][32];
+    /**
+     * Number of bytes in each of {@link RosterImporter#fields}.
+     */
+    private final int[] lengths = new int[COLUMNS];
+    /**
+     * Index of every first name read so far, by its bytes.
+     */
+    private final NameTable firstNames = new NameTable();
+    /**
+     * Index of every last name read so far, by its bytes.
+     */
+    private final NameTable lastNames = new NameTable();
+    /**
+     * Column of the row being read. Goes past the last column when a row has too many fields.
+     */
+    private int column = 0;
+    /**
+     * Line number of the row being read (starting at 1).
+     */
+    private int line = 1;
+    /**
+     * Number of rows skipped because they could not be read.
+     */
+    private int skipped = 0;
+
+    /**
+     * Initialises a {@link RosterImporter}.
+     *
+     * @param store {@link PlayerStore} players are added to.
+     */
+    public RosterImporter(PlayerStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Imports a roster into a new {@link PlayerStore}.
+     *
+     * @param filePath Path of the roster CSV file.
+     * @param names {@link NameDictionary} player names are stored in.
+     *
+     * @return {@link PlayerStore} of the imported players
+     *
+     * @throws IOException Thrown when the file cannot be read.
+     */
+    public static PlayerStore load(String filePath, NameDictionary names) throws IOException {
+        PlayerStore store = new PlayerStore(names);
+        new RosterImporter(store).importFile(filePath);
+        return store;
+    }
+
+    /**
+     * Reads every row of a roster, adding each player to {@link RosterImporter#store}.
+     *
+     * @param filePath Path of the roster CSV file.
+     *
+     * @return Number of players added.
+     *
+     * @throws IOException Thrown when the file cannot be read.
+     */
+    public int importFile(String filePath) throws IOException {
+        int sizeBefore = store.size();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean quoted = false;
+        boolean closedQuote = false;
+        column = 0;
+        line = 1;
+        Arrays.fill(lengths, 0);
+        try (InputStream in = Files.newInputStream(Path.of(filePath))) {
+            int read = in.readNBytes(buffer, 0, BUFFER_SIZE);
+            int start = (read >= BYTE_ORDER_MARK.length
+                    && Arrays.equals(buffer, 0, BYTE_ORDER_MARK.length, BYTE_ORDER_MARK, 0, BYTE_ORDER_MARK.length))
+                    ? BYTE_ORDER_MARK.length : 0;
+            for (; read > 0; read = in.read(buffer), start = 0) {
+                for (int i = start; i < read; i++) {
+                    byte b = buffer[i];
+                    if (quoted) {
+                        // Everything up to the closing quote is part of the field, even commas
+                        if (b == '"') {
+                            quoted = false;
+                            closedQuote = true;
+                        } else {
+                            append(b);
+                        }
+                        continue;
+                    }
+                    if (b == '"') {
+                        // Two quotes in a row inside a quoted field are an escaped quote
+                        if (closedQuote) {
+                            append(b);
+                        }
+                        quoted = true;
+                    } else if (b == ',') {
+                        column++;
+                    } else if (b == '\n') {
+                        endRow();
+                    } else if (b != '\r') {
+                        append(b);
+                    }
+                    closedQuote = false;
+                }
+            }
+        }
+        // The last row may not end with a new line
+        if (column > 0 || lengths[0] > 0) {
+            endRow();
+        }
+        return store.size() - sizeBefore;
+    }
+
+    /**
+     * Adds a byte to the field of the current column, growing it if needed.
+     *
+     * @param b Byte to add.
+     */
+    private void append(byte b) {
+        if (column >= COLUMNS) {
+            return;
+        }
+        if (lengths[column] == fields[column].length) {
+            fields[column] = Arrays.copyOf(fields[column], 2 * lengths[column]);
+        }
+        fields[column][lengths[column]++] = b;
+    }
+
+    /**
+     * Adds the player in the row that has just been read, then gets ready for the next row.
+     */
+    private void endRow() {
+        if (column == COLUMNS - 1) {
+            addPlayer();
+        // Blank lines are ignored
+        } else if (column > 0 || lengths[0] > 0) {
+            skip("expected " + COLUMNS + " fields");
+        }
+        column = 0;
+        Arrays.fill(lengths, 0);
+        line++;
+    }
+
+    /**
+     * Adds the player in the row that has just been read to {@link RosterImporter#store}.
+     */
+    private void addPlayer() {
+        int elo = parseInt(ELO);
+        if (elo == Integer.MIN_VALUE) {
+            // A header row has words rather than an Elo rating
+            if (line > 1) {
+                skip("Elo rating is not a whole number");
+            }
+            return;
+        }
+        int gender = parseGender();
+        store.add(addName(0, firstNames, gender), addName(1, lastNames, gender), gender, elo);
+    }
+
+    /**
+     * Looks up the name in a field by its bytes, decoding it and adding it to the
+     * {@link NameDictionary} only if it has not been read before.
+     *
+     * @param column Column of the field, 0 for first names and 1 for last names.
+     * @param table {@link NameTable} of the names already read from the column.
+     * @param gender Gender of the player, given to first names which are new to the dictionary.
+     *
+     * @return Index of the name in the {@link NameDictionary}.
+     */
+    private int addName(int column, NameTable table, int gender) {
+        byte[] field = fields[column];
+        int start = 0;
+        int end = lengths[column];
+        while (start < end && isSpace(field[start])) {
+            start++;
+        }
+        while (end > start && isSpace(field[end - 1])) {
+            end--;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + field[i];
+        }
+        int index = table.get(field, start, end, hash);
+        if (index < 0) {
+            NameDictionary names = store.getNames();
+            String name = new String(field, start, end - start, StandardCharsets.UTF_8).strip();
+            index = (column == 0) ? names.addFirstName(name, gender) : names.addLastName(name);
+            table.put(field, start, end, hash, index);
+        }
+        return index;
+    }
+
+    /**
+     * Checks whether a byte is a space or tab, which are not part of a field.
+     *
+     * @param b Byte to check.
+     *
+     * @return True if the byte is a space or tab.
+     */
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * Parses a field as a non-negative whole number, ignoring spaces around it.
+     *
+     * @param column Column of the field.
+     *
+     * @return Number in the field, or {@code Integer.MIN_VALUE} if it is not a whole number.
+     */
+    private int parseInt(int column) {
+        byte[] field = fields[column];
+        int start = 0;
+        int end = lengths[column];
+        while (start < end && field[start] == ' ') {
+            start++;
+        }
+        while (end > start && field[end - 1] == ' ') {
+            end--;
+        }
+        // Anything over 9 digits could overflow and is no real Elo rating anyway
+        if (start == end || end - start > 9) {
+            return Integer.MIN_VALUE;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = field[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.MIN_VALUE;
+            }
+            value = 10 * value + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses the gender field of the row.
+     *
+     * @return 0: Male, 1: Female, >1: Non-binary (other).
+     */
+    private int parseGender() {
+        int number = parseInt(GENDER);
+        if (number != Integer.MIN_VALUE) {
+            return number;
+        }
+        if (isWord(GENDER, "male") || isWord(GENDER, "m")) {
+            return 0;
+        }
+        if (isWord(GENDER, "female") || isWord(GENDER, "f")) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Checks whether a field is a word in any case, ignoring the spaces around it, without
+     * decoding it.
+     *
+     * @param column Column of the field.
+     * @param word Word in lower case ASCII letters.
+     *
+     * @return True if the field is the word.
+     */
+    private boolean isWord(int column, String word) {
+        byte[] field = fields[column];
+        int start = 0;
+        int end = lengths[column];
+        while (start < end && isSpace(field[start])) {
+            start++;
+        }
+        while (end > start && isSpace(field[end - 1])) {
+            end--;
+        }
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            // Setting bit 5 turns an upper case ASCII letter into lower case
+            if ((field[start + i] | 0x20) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prints why the current row is being skipped.
+     *
+     * @param reason Why the row could not be read.
+     */
+    private void skip(String reason) {
+        skipped++;
+        System.out.printf("[ROSTER] Skipping line %d: %s%n", line, reason);
+    }
+
+    /**
+     * Getter for {@link RosterImporter#skipped}.
+     *
+     * @return {@link RosterImporter#skipped}
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Open addressing hash table from the UTF-8 bytes of a name to its index in the
+     * {@link NameDictionary}, held in primitive arrays so looking up a name allocates nothing.
+     */
+    private static class NameTable {
+        /**
+         * Entry in each slot plus one, or 0 for an empty slot. Its length is a power of two.
+         */
+        private int[] slots = new int[1 << 10];
+        /**
+         * Hash of the bytes of each entry.
+         */
+        private int[] hashes = new int[1 << 9];
+        /**
+         * Index of each entry's first byte in {@link NameTable#bytes}.
+         */
+        private int[] starts = new int[1 << 9];
+        /**
+         * Number of bytes in each entry.
+         */
+        private int[] lengths = new int[1 << 9];
+        /**
+         * Index of each entry's name in the {@link NameDictionary}.
+         */
+        private int[] indexes = new int[1 << 9];
+        /**
+         * Bytes of every entry, back to back.
+         */
+        private byte[] bytes = new byte[1 << 12];
+        /**
+         * Number of bytes used in {@link NameTable#bytes}.
+         */
+        private int byteCount = 0;
+        /**
+         * Number of entries in the table.
+         */
+        private int count = 0;
+
+        /**
+         * Gets the index of a name.
+         *
+         * @param name Array holding the bytes of the name.
+         * @param start Index of the name's first byte.
+         * @param end Index after the name's last byte.
+         * @param hash Hash of the bytes of the name.
+         *
+         * @return Index of the name in the {@link NameDictionary}, or -1 if it is not in the table.
+         */
+        private int get(byte[] name, int start, int end, int hash) {
+            int mask = slots.length - 1;
+            for (int slot = spread(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                int entry = slots[slot] - 1;
+                if (hashes[entry] == hash && Arrays.equals(bytes, starts[entry], starts[entry] + lengths[entry], name, start, end)) {
+                    return indexes[entry];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds a name which is not in the table yet, copying its bytes.
+         *
+         * @param name Array holding the bytes of the name.
+         * @param start Index of the name's first byte.
+         * @param end Index after the name's last byte.
+         * @param hash Hash of the bytes of the name.
+         * @param index Index of the name in the {@link NameDictionary}.
+         */
+        private void put(byte[] name, int start, int end, int hash, int index) {
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, 2 * count);
+                starts = Arrays.copyOf(starts, 2 * count);
+                lengths = Arrays.copyOf(lengths, 2 * count);
+                indexes = Arrays.copyOf(indexes, 2 * count);
+            }
+            if (byteCount + end - start > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, byteCount + end - start));
+            }
+            System.arraycopy(name, start, bytes, byteCount, end - start);
+            hashes[count] = hash;
+            starts[count] = byteCount;
+            lengths[count] = end - start;
+            indexes[count] = index;
+            byteCount += end - start;
+            count++;
+            // Keep the table at most half full so probes stay short
+            if (2 * count > slots.length) {
+                slots = new int[2 * slots.length];
+                for (int entry = 0; entry < count - 1; entry++) {
+                    insert(entry);
+                }
+            }
+            insert(count - 1);
+        }
+
+        /**
+         * Puts an entry in the first empty slot from its hash.
+         *
+         * @param entry Entry to put in a slot.
+         */
+        private void insert(int entry) {
+            int mask = slots.length - 1;
+            int slot = spread(hashes[entry]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+
+        /**
+         * Mixes the high bits of a hash into the low bits used to pick a slot.
+         *
+         * @param hash Hash of the bytes of a name.
+         *
+         * @return Mixed hash
+         */
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package player;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Elo ratings and match wins of a population of players, shared between tournaments running at
+ * the same time on different threads.
+ * <p>
+ * Ratings are held in an {@link AtomicIntegerArray} indexed by the players' ids in a
+ * {@link PlayerStore}. A tournament reads its entrants' ratings when it starts, plays with its own
+ * copies of them, then commits the change in each rating with an atomic add. Changes from
+ * tournaments which overlap in time are added together rather than overwriting each other, so no
+ * update is lost and no lock is ever held.
+ */
+public class SharedRatings {
+    /**
+     * Elo rating of each player, indexed by id.
+     */
+    private final AtomicIntegerArray elo;
+    /**
+     * Number of matches each player has won, indexed by id.
+     */
+    private final AtomicIntegerArray wins;
+
+    /**
+     * Initialises {@link SharedRatings} with the current Elo rating of every player in a
+     * {@link PlayerStore}. Wins start at 0.
+     *
+     * @param population {@link PlayerStore} of every player.
+     */
+    public SharedRatings(PlayerStore population) {
+        elo = new AtomicIntegerArray(population.size());
+        wins = new AtomicIntegerArray(population.size());
+        for (int id = 0; id < population.size(); id++) {
+            elo.set(id, population.getElo(id));
+        }
+    }
+
+    /**
+     * Reads the current Elo rating of several players.
+     *
+     * @param ids ids of the players.
+     *
+     * @return Elo rating of each player, in the same order as {@code ids}.
+     */
+    public int[] snapshot(int[] ids) {
+        int[] ratings = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ratings[i] = elo.get(ids[i]);
+        }
+        return ratings;
+    }
+
+    /**
+     * Adds the result of a tournament to a player.
+     *
+     * @param id id of the player.
+     * @param eloChange Change in Elo rating over the tournament.
+     * @param matchWins Number of matches won in the tournament.
+     */
+    public void commit(int id, int eloChange, int matchWins) {
+        if (eloChange != 0) {
+            elo.getAndAdd(id, eloChange);
+        }
+        if (matchWins != 0) {
+            wins.getAndAdd(id, matchWins);
+        }
+    }
+
+    /**
+     * Writes every player's current Elo rating back to a {@link PlayerStore}.
+     *
+     * @param population {@link PlayerStore} the ratings were read from.
+     */
+    public void writeTo(PlayerStore population) {
+        for (int id = 0; id < elo.length(); id++) {
+            population.setElo(id, elo.get(id));
+        }
+    }
+
+    /**
+     * Gets a player's current Elo rating.
+     *
+     * @param id id of the player.
+     *
+     * @return Elo rating
+     */
+    public int getElo(int id) {
+        return elo.get(id);
+    }
+
+    /**
+     * Gets the number of matches a player has won.
+     *
+     * @param id id of the player.
+     *
+     * @return Number of wins
+     */
+    public int getWins(int id) {
+        return wins.get(id);
+    }
+
+    /**
+     * Gets the number of players.
+     *
+     * @return integer number of players.
+     */
+    public int size() {
+        return elo.length();
+    }
+}
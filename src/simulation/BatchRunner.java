@@ -0,0 +1,365 @@
+package simulation;
+
+import com.opencsv.exceptions.CsvException;
+import components.CSVParser;
+import components.StreamRandom;
+import player.NameDictionary;
+import player.PlayerStore;
+import player.RosterImporter;
+import tournament.Tournament;
+import tournament.TournamentListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many knockout {@link Tournament}s without any user input, reporting how long each one took
+ * and the throughput of the whole batch.
+ * <p>
+ * Jobs are read from a CSV job file with a {@code players,seed,roster,output} row for each
+ * tournament, where a first row which does not start with a number is treated as a header:
+ * <ul>
+ *     <li>{@code players} is the number of players to generate, ignored when a roster is given.</li>
+ *     <li>{@code seed} is the master seed of the tournament, or blank for a random one.</li>
+ *     <li>{@code roster} is a roster CSV file to import players from (see {@link RosterImporter}),
+ *     or blank to generate players.</li>
+ *     <li>{@code output} is a file to write the final leaderboard to as CSV, or blank for none.</li>
+ * </ul>
+ * A job plays the same tournament as {@code Main} given the same seed and number of players with
+ * {@code --verbosity silent}, so any job can be looked at in detail afterwards.
+ * <p>
+ * Jobs are shared between a fixed pool of worker threads, one per processor by default, which
+ * keep claiming the next job until none are left. Generated players share one
+ * {@link NameDictionary}, loaded once for the whole batch, so thousands of small jobs only pay
+ * for their own simulation.
+ */
+public class BatchRunner {
+    /**
+     * Fewest players a job can have.
+     */
+    private static final int MIN_PLAYERS = 2;
+    /**
+     * Most players a job can have.
+     */
+    private static final int MAX_PLAYERS = 10_000_000;
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    /**
+     * {@link NameDictionary} the names of generated players are picked from.
+     */
+    private final NameDictionary names;
+    /**
+     * Jobs in the order they were added.
+     */
+    private final List<Job> jobs = new ArrayList<>();
+    /**
+     * Number of worker threads to run jobs on.
+     */
+    private final int threads;
+
+    /**
+     * Initialises a {@link BatchRunner} using every available processor.
+     *
+     * @param names {@link NameDictionary} the names of generated players are picked from.
+     */
+    public BatchRunner(NameDictionary names) {
+        this(names, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initialises a {@link BatchRunner}.
+     *
+     * @param names {@link NameDictionary} the names of generated players are picked from.
+     * @param threads Number of worker threads to run jobs on.
+     */
+    public BatchRunner(NameDictionary names, int threads) {
+        this.names = names;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Adds every job in a job file. Rows which cannot be read are skipped with a message.
+     *
+     * @param filePath Path of the job CSV file.
+     *
+     * @return Number of jobs added.
+     *
+     * @throws IOException Thrown when the file cannot be read.
+     * @throws CsvException Thrown when an issue arises with {@link CSVParser}.
+     */
+    public int addJobs(String filePath) throws IOException, CsvException {
+        int sizeBefore = jobs.size();
+        AtomicInteger line = new AtomicInteger();
+        new CSVParser().forEachLine(filePath, row -> {
+            int lineNumber = line.incrementAndGet();
+            String players = getColumn(row, 0);
+            // A header row has no number of players
+            if (lineNumber == 1 && !players.isEmpty() && !Character.isDigit(players.charAt(0))) {
+                return;
+            }
+            try {
+                String seed = getColumn(row, 1);
+                addJob(players.isEmpty() ? 0 : Integer.parseInt(players),
+                        seed.isEmpty() ? ThreadLocalRandom.current().nextLong() : Long.parseLong(seed),
+                        getColumn(row, 2),
+                        getColumn(row, 3));
+            } catch (IllegalArgumentException e) {
+                System.out.printf("Skipping job on line %d: %s%n", lineNumber, e.getMessage());
+            }
+        });
+        return jobs.size() - sizeBefore;
+    }
+
+    /**
+     * Gets a column of a job file row.
+     *
+     * @param row Comma separated values of the row.
+     * @param column Column to get.
+     *
+     * @return Value of the column without surrounding spaces, or an empty {@code String} if the
+     * row does not have it.
+     */
+    private static String getColumn(String[] row, int column) {
+        return (column < row.length) ? row[column].trim() : "";
+    }
+
+    /**
+     * Adds a job.
+     *
+     * @param playerCount Number of players to generate, ignored when {@code rosterPath} is given.
+     * @param seed Master seed of the tournament.
+     * @param rosterPath Roster CSV file to import players from, or an empty {@code String} (or
+     *                   null) to generate players.
+     * @param outputPath File to write the leaderboard to, or an empty {@code String} (or null)
+     *                   for none.
+     *
+     * @return Number of the job.
+     *
+     * @throws IllegalArgumentException Thrown when players are generated and there are fewer
+     * than 2 or more than 10,000,000 of them.
+     */
+    public int addJob(int playerCount, long seed, String rosterPath, String outputPath) {
+        boolean generated = (rosterPath == null || rosterPath.isEmpty());
+        if (generated && (playerCount < MIN_PLAYERS || playerCount > MAX_PLAYERS)) {
+            throw new IllegalArgumentException("A job needs from 2 to 10,000,000 players!");
+        }
+        jobs.add(new Job(playerCount, seed,
+                generated ? null : rosterPath,
+                (outputPath == null || outputPath.isEmpty()) ? null : outputPath));
+        return jobs.size() - 1;
+    }
+
+    /**
+     * Runs every job which has been added, printing a line for each job as it finishes and the
+     * throughput of the whole batch at the end. A job which fails is reported and does not stop
+     * the others.
+     *
+     * @throws InterruptedException Thrown when interrupted while waiting for the workers to finish.
+     */
+    public void run() throws InterruptedException {
+        AtomicInteger nextJob = new AtomicInteger();
+        long startTime = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> runJobs(nextJob)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A batch worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long wallTime = System.nanoTime() - startTime;
+
+        int failed = 0;
+        long matches = 0;
+        long jobTime = 0;
+        for (Job job : jobs) {
+            if (job.failed) {
+                failed++;
+            } else {
+                matches += job.matches;
+                jobTime += job.time;
+            }
+        }
+        double seconds = wallTime / 1e9;
+        System.out.printf("[BATCH] %d jobs (%d failed) on %d threads in %.3f seconds%n", jobs.size(), failed, threads, seconds);
+        System.out.printf("[BATCH] Throughput: %.1f jobs/s, %.0f matches/s, mean job time %.3f ms%n",
+                (jobs.size() - failed) / seconds,
+                matches / seconds,
+                (jobs.size() > failed) ? jobTime / NANOS_PER_MILLI / (jobs.size() - failed) : 0);
+    }
+
+    /**
+     * Worker loop which keeps taking the next job until all have been claimed.
+     *
+     * @param nextJob Shared counter of the next unclaimed job.
+     */
+    private void runJobs(AtomicInteger nextJob) {
+        int job;
+        while ((job = nextJob.getAndIncrement()) < jobs.size()) {
+            runJob(job);
+        }
+    }
+
+    /**
+     * Loads or generates a job's players, plays its tournament and writes its leaderboard, then
+     * reports how long it took.
+     *
+     * @param number Number of the job.
+     */
+    private void runJob(int number) {
+        Job job = jobs.get(number);
+        long startTime = System.nanoTime();
+        try {
+            PlayerStore players;
+            if (job.rosterPath != null) {
+                players = RosterImporter.load(job.rosterPath, new NameDictionary());
+                if (players.size() < MIN_PLAYERS) {
+                    throw new IllegalArgumentException("You need at least two players! Please check the roster...");
+                }
+            } else {
+                players = PlayerStore.generate(names, job.playerCount, new StreamRandom(StreamRandom.deriveSeed(job.seed, 0)));
+            }
+            Tournament tournament = new Tournament(players, StreamRandom.deriveSeed(job.seed, 1));
+            tournament.setListener(TournamentListener.SILENT);
+            tournament.play();
+
+            int[] leaderboard = tournament.getLeaderboard();
+            if (job.outputPath != null) {
+                writeLeaderboard(Path.of(job.outputPath), players, leaderboard);
+            }
+            // Every match which is not a bye knocks out one player
+            job.matches = players.size() - 1;
+            job.time = System.nanoTime() - startTime;
+            System.out.printf("[BATCH] Job %d: %d players, seed %d, %d rounds, won by %s %s in %.3f ms%n",
+                    number,
+                    players.size(),
+                    job.seed,
+                    tournament.getAssignedRounds(),
+                    players.getFirstName(leaderboard[0]),
+                    players.getLastName(leaderboard[0]),
+                    job.time / NANOS_PER_MILLI);
+        } catch (IOException | RuntimeException e) {
+            job.failed = true;
+            System.out.printf("[BATCH] Job %d failed: %s%n", number, e);
+        }
+    }
+
+    /**
+     * Writes a leaderboard to a CSV file with a
+     * {@code position,firstName,lastName,gender,elo,wins} row for each player.
+     *
+     * @param path File to write to, replacing it if it exists.
+     * @param players {@link PlayerStore} the players are stored in.
+     * @param leaderboard ids of the players in leaderboard order.
+     *
+     * @throws IOException Thrown when the file cannot be written.
+     */
+    private static void writeLeaderboard(Path path, PlayerStore players, int[] leaderboard) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("position,firstName,lastName,gender,elo,wins");
+            writer.newLine();
+            for (int i = 0; i < leaderboard.length; i++) {
+                int player = leaderboard[i];
+                writer.write(String.format("%d,%s,%s,%d,%d,%d",
+                        i + 1,
+                        quote(players.getFirstName(player)),
+                        quote(players.getLastName(player)),
+                        players.getGender(player),
+                        players.getElo(player),
+                        players.getWins(player)));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Quotes a CSV field if it contains a comma or quote.
+     *
+     * @param field Field to quote.
+     *
+     * @return Field safe to write to a CSV file
+     */
+    private static String quote(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Gets the number of jobs in the batch.
+     *
+     * @return integer number of jobs.
+     */
+    public int getJobCount() {
+        return jobs.size();
+    }
+
+    /**
+     * A tournament to run and, once it has run, how it went.
+     */
+    private static class Job {
+        /**
+         * Number of players to generate.
+         */
+        private final int playerCount;
+        /**
+         * Master seed of the tournament.
+         */
+        private final long seed;
+        /**
+         * Roster CSV file to import players from, or null to generate players.
+         */
+        private final String rosterPath;
+        /**
+         * File to write the leaderboard to, or null for none.
+         */
+        private final String outputPath;
+        /**
+         * Number of matches played, not counting byes.
+         */
+        private long matches = 0;
+        /**
+         * Nanoseconds taken to run the job, including loading players and writing the leaderboard.
+         */
+        private long time = 0;
+        /**
+         * Whether the job failed.
+         */
+        private boolean failed = false;
+
+        /**
+         * Initialises a {@link Job}.
+         *
+         * @param playerCount Number of players to generate.
+         * @param seed Master seed of the tournament.
+         * @param rosterPath Roster CSV file to import players from, or null to generate players.
+         * @param outputPath File to write the leaderboard to, or null for none.
+         */
+        private Job(int playerCount, long seed, String rosterPath, String outputPath) {
+            this.playerCount = playerCount;
+            this.seed = seed;
+            this.rosterPath = rosterPath;
+            this.outputPath = outputPath;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package simulation;
+
+import player.PlayerStore;
+
+/**
+ * Contains the probability of each player of a tournament field reaching each round of the
+ * bracket and winning the tournament.
+ * <p>
+ * Players are referred to by their id in the {@link PlayerStore} the probabilities were
+ * calculated for.
+ */
+public class BracketProbabilities {
+    /**
+     * {@link PlayerStore} of the players the probabilities were calculated for.
+     */
+    private final PlayerStore field;
+    /**
+     * 2-dimensional array of probabilities indexed by player then round. Index 0 is the first round
+     * (reached by every player) and the last index is winning the final.
+     */
+    private final double[][] roundChances;
+
+    /**
+     * Initialises {@link BracketProbabilities} from precalculated probabilities.
+     *
+     * @param field {@link PlayerStore} of the players the probabilities belong to.
+     * @param roundChances Probabilities indexed by player then round, with one more column than
+     *                     there are rounds in the tournament for winning the final.
+     */
+    public BracketProbabilities(PlayerStore field, double[][] roundChances) {
+        this.field = field;
+        this.roundChances = roundChances;
+    }
+
+    /**
+     * Creates {@link BracketProbabilities} from how many matches each player won in a number of
+     * simulated tournaments.
+     * <p>
+     * A player that won {@code n} matches (bye matches included) reached round {@code n} of the
+     * bracket, so the chance of reaching a round is the share of tournaments where the player won
+     * at least that many matches.
+     *
+     * @param field {@link PlayerStore} of the players that were simulated.
+     * @param winCounts Number of tournaments in which each player won exactly {@code n} matches,
+     *                  indexed by player then {@code n}.
+     * @param simulations Total number of tournaments simulated.
+     *
+     * @return {@link BracketProbabilities} object
+     */
+    public static BracketProbabilities fromWinCounts(PlayerStore field, long[][] winCounts, long simulations) {
+        double[][] roundChances = new double[winCounts.length][];
+        for (int i = 0; i < winCounts.length; i++) {
+            roundChances[i] = new double[winCounts[i].length];
+            // Cumulative sum from the last round backwards as reaching a round means reaching
+            // every round before it
+            long reached = 0;
+            for (int round = winCounts[i].length - 1; round >= 0; round--) {
+                reached += winCounts[i][round];
+                roundChances[i][round] = (double) reached / simulations;
+            }
+        }
+        return new BracketProbabilities(field, roundChances);
+    }
+
+    /**
+     * Getter for {@link BracketProbabilities#field}.
+     *
+     * @return {@link BracketProbabilities#field}
+     */
+    public PlayerStore getField() {
+        return field;
+    }
+
+    /**
+     * Gets the number of rounds in the tournament, including the final.
+     *
+     * @return integer number of rounds.
+     */
+    public int getNumberOfRounds() {
+        return roundChances.length == 0 ? 0 : roundChances[0].length - 1;
+    }
+
+    /**
+     * Gets the chance of a player reaching a given round.
+     *
+     * @param player id of the player in {@link BracketProbabilities#field}.
+     * @param round The round to lookup (starts from 0). Passing the number of rounds gives the
+     *              chance of winning the tournament.
+     *
+     * @return Chance, double between 0 and 1
+     */
+    public double getRoundChance(int player, int round) {
+        return roundChances[player][round];
+    }
+
+    /**
+     * Gets the chance of a player reaching the final.
+     *
+     * @param player id of the player in {@link BracketProbabilities#field}.
+     *
+     * @return Chance, double between 0 and 1
+     */
+    public double getFinalChance(int player) {
+        return getRoundChance(player, getNumberOfRounds() - 1);
+    }
+
+    /**
+     * Gets the chance of a player winning the tournament.
+     *
+     * @param player id of the player in {@link BracketProbabilities#field}.
+     *
+     * @return Chance, double between 0 and 1
+     */
+    public double getTitleChance(int player) {
+        return getRoundChance(player, getNumberOfRounds());
+    }
+}
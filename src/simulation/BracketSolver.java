@@ -0,0 +1,216 @@
+package simulation;
+
+import player.PlayerStore;
+import tournament.Match;
+import tournament.ScoreDistribution;
+import tournament.Tournament;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates the exact chance of each player reaching each round of a bracket and winning it,
+ * without simulating any matches.
+ * <p>
+ * The bracket is the one {@link Tournament#assignMatches(int)} creates for the field, byes
+ * included. Starting from the first round, the chance of every player winning each {@link Match}
+ * is worked out from the chance of every possible opponent reaching that match, which gives the
+ * chance of reaching the next round. Players' Elo ratings are treated as fixed at their entry
+ * ratings, as the Elo changes made after each match depend on the exact scores played.
+ * <p>
+ * Opponents in the same side of a match are grouped by Elo rating, as the chance of winning only
+ * depends on the Elo difference. This keeps the cost of a match at the number of distinct
+ * ratings on each side rather than the number of players.
+ */
+public class BracketSolver {
+    /**
+     * {@link PlayerStore} of the players entered into the tournament.
+     */
+    private final PlayerStore field;
+    /**
+     * Chance of winning a match indexed by Elo difference plus the range of Elo ratings in the field.
+     */
+    private double[] matchWinChances;
+
+    /**
+     * Initialises a {@link BracketSolver}.
+     *
+     * @param field {@link PlayerStore} of the players entered into the tournament.
+     */
+    public BracketSolver(PlayerStore field) {
+        this.field = field;
+    }
+
+    /**
+     * Group of players who could be in one side of a {@link Match}, with each player's chance
+     * of being there.
+     *
+     * @param players ids of the players in the field.
+     * @param chances Chance of each player being in this side of the match.
+     */
+    private record Side(int[] players, double[] chances) {
+        /**
+         * A side with nobody in it, used for the empty side of a bye match.
+         */
+        private static final Side EMPTY = new Side(new int[0], new double[0]);
+    }
+
+    /**
+     * Calculates the chance of every player reaching each round and winning the tournament.
+     *
+     * @return {@link BracketProbabilities} of each player in {@link BracketSolver#field}.
+     */
+    public BracketProbabilities solve() {
+        if (field.size() < 2) {
+            System.out.println("You need at least two players! Returning no probabilities...");
+            return new BracketProbabilities(field, new double[field.size()][]);
+        }
+        calculateMatchWinChances();
+
+        // Create the same first round as a real tournament would. Assigning matches does not
+        // change the store, so the field can be used directly
+        Tournament tournament = new Tournament(field, 0);
+        tournament.assignMatches(tournament.getNeededByes());
+        int firstRoundMatches = tournament.getNumberOfMatches(0);
+        int rounds = Integer.numberOfTrailingZeros(firstRoundMatches) + 1;
+
+        double[][] roundChances = new double[field.size()][rounds + 1];
+        // Every match has two sides, each player of the first round is certain to be in theirs
+        Side[] sides = new Side[2 * firstRoundMatches];
+        for (int i = 0; i < firstRoundMatches; i++) {
+            int[] players = tournament.getMatch(0, i).getPlayers();
+            for (int j = 0; j < 2; j++) {
+                if (j < players.length) {
+                    int player = players[j];
+                    roundChances[player][0] = 1;
+                    sides[2 * i + j] = new Side(new int[]{player}, new double[]{1});
+                } else {
+                    sides[2 * i + j] = Side.EMPTY;
+                }
+            }
+        }
+
+        for (int round = 0; round < rounds; round++) {
+            // The winners of matches 2i and 2i+1 make up the two sides of match i next round
+            Side[] matchSides = sides;
+            Side[] winners = new Side[matchSides.length / 2];
+            IntStream.range(0, winners.length)
+                    .parallel()
+                    .forEach(i -> winners[i] = playMatch(matchSides[2 * i], matchSides[2 * i + 1]));
+            for (Side winner : winners) {
+                for (int i = 0; i < winner.players().length; i++) {
+                    roundChances[winner.players()[i]][round + 1] = winner.chances()[i];
+                }
+            }
+            sides = winners;
+        }
+        return new BracketProbabilities(field, roundChances);
+    }
+
+    /**
+     * Calculates the chance of each player in either side of a match winning it.
+     *
+     * @param side1 Players who could be player 1 of the match.
+     * @param side2 Players who could be player 2 of the match.
+     *
+     * @return {@link Side} of every player who could win the match.
+     */
+    private Side playMatch(Side side1, Side side2) {
+        // Bye matches are won by whoever is in the filled side
+        if (side2.players().length == 0) {
+            return side1;
+        } else if (side1.players().length == 0) {
+            return side2;
+        }
+        int[] elos1 = getDistinctElos(side1);
+        int[] elos2 = getDistinctElos(side2);
+        double[] mass1 = getEloMass(side1, elos1);
+        double[] mass2 = getEloMass(side2, elos2);
+
+        // Chance of beating whoever turns up in the other side, for each distinct Elo rating
+        double[] beatSide2 = new double[elos1.length];
+        double[] beatSide1 = new double[elos2.length];
+        for (int i = 0; i < elos1.length; i++) {
+            for (int j = 0; j < elos2.length; j++) {
+                double player1Wins = getMatchWinChance(elos1[i] - elos2[j]);
+                beatSide2[i] += mass2[j] * player1Wins;
+                beatSide1[j] += mass1[i] * (1 - player1Wins);
+            }
+        }
+
+        int count1 = side1.players().length;
+        int[] players = Arrays.copyOf(side1.players(), count1 + side2.players().length);
+        double[] chances = new double[players.length];
+        for (int i = 0; i < count1; i++) {
+            int elo = field.getElo(side1.players()[i]);
+            chances[i] = side1.chances()[i] * beatSide2[Arrays.binarySearch(elos1, elo)];
+        }
+        for (int i = 0; i < side2.players().length; i++) {
+            players[count1 + i] = side2.players()[i];
+            int elo = field.getElo(side2.players()[i]);
+            chances[count1 + i] = side2.chances()[i] * beatSide1[Arrays.binarySearch(elos2, elo)];
+        }
+        return new Side(players, chances);
+    }
+
+    /**
+     * Gets the sorted distinct Elo ratings of the players in a side.
+     *
+     * @param side {@link Side} to get the ratings of.
+     *
+     * @return Sorted array of Elo ratings without duplicates.
+     */
+    private int[] getDistinctElos(Side side) {
+        int[] elos = new int[side.players().length];
+        for (int i = 0; i < elos.length; i++) {
+            elos[i] = field.getElo(side.players()[i]);
+        }
+        return Arrays.stream(elos).sorted().distinct().toArray();
+    }
+
+    /**
+     * Adds up the chances of the players in a side for each distinct Elo rating.
+     *
+     * @param side {@link Side} to add up.
+     * @param elos Sorted distinct Elo ratings of the side.
+     *
+     * @return Chance of a player with each Elo rating being in the side.
+     */
+    private double[] getEloMass(Side side, int[] elos) {
+        double[] mass = new double[elos.length];
+        for (int i = 0; i < side.players().length; i++) {
+            int elo = field.getElo(side.players()[i]);
+            mass[Arrays.binarySearch(elos, elo)] += side.chances()[i];
+        }
+        return mass;
+    }
+
+    /**
+     * Precalculates the chance of winning a match for every Elo difference possible in the field.
+     */
+    private void calculateMatchWinChances() {
+        int minElo = Integer.MAX_VALUE;
+        int maxElo = Integer.MIN_VALUE;
+        for (int id = 0; id < field.size(); id++) {
+            minElo = Math.min(minElo, field.getElo(id));
+            maxElo = Math.max(maxElo, field.getElo(id));
+        }
+        int range = maxElo - minElo;
+        double[] chances = new double[2 * range + 1];
+        IntStream.range(0, chances.length)
+                .parallel()
+                .forEach(i -> chances[i] = ScoreDistribution.forEloDifference(i - range).getMatchWinChance());
+        matchWinChances = chances;
+    }
+
+    /**
+     * Gets the precalculated chance of player 1 winning a match.
+     *
+     * @param eloDifference Player 1's Elo minus player 2's Elo.
+     *
+     * @return Chance, double between 0 and 1
+     */
+    private double getMatchWinChance(int eloDifference) {
+        return matchWinChances[eloDifference + matchWinChances.length / 2];
+    }
+}
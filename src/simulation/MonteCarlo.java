@@ -0,0 +1,210 @@
+package simulation;
+
+import components.StreamRandom;
+import player.PlayerStore;
+import tournament.SimulationMode;
+import tournament.Tournament;
+import tournament.TournamentListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estimates how far each player progresses through a bracket by simulating many independent
+ * {@link Tournament}s with the same field of players.
+ * <p>
+ * Simulations are shared between a pool of worker threads. Every worker keeps its own win
+ * counts, so threads only synchronise when taking the next block of simulations and when their
+ * counts are combined at the end.
+ * <p>
+ * Each simulated tournament is seeded from the master seed and its simulation number, so the same
+ * seed gives identical results with any number of threads.
+ * <p>
+ * Source: <a href="https://en.wikipedia.org/wiki/Monte_Carlo_method">Monte Carlo Method</a>
+ */
+public class MonteCarlo {
+    /**
+     * Number of simulations a worker thread takes at a time.
+     */
+    private static final int BLOCK_SIZE = 16;
+    /**
+     * {@link PlayerStore} of the players entered into every simulated tournament. The store is
+     * never modified, each simulation plays with a copy of it.
+     */
+    private final PlayerStore field;
+    /**
+     * Number of worker threads to run simulations on.
+     */
+    private final int threads;
+    /**
+     * Master seed every simulated tournament's seed is derived from.
+     */
+    private final long seed;
+    /**
+     * {@link SimulationMode} every simulated tournament is played with.
+     */
+    private SimulationMode simulationMode = SimulationMode.POINT_BY_POINT;
+    /**
+     * Whether every simulated tournament keeps Elo ratings at their entry values, which gives
+     * the same model as {@link BracketSolver}.
+     */
+    private boolean fixedElo = false;
+
+    /**
+     * Initialises a {@link MonteCarlo} runner with a random seed using every available processor.
+     *
+     * @param field {@link PlayerStore} of the players entered into every tournament.
+     */
+    public MonteCarlo(PlayerStore field) {
+        this(field, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Initialises a {@link MonteCarlo} runner using every available processor.
+     *
+     * @param field {@link PlayerStore} of the players entered into every tournament.
+     * @param seed Master seed of the run.
+     */
+    public MonteCarlo(PlayerStore field, long seed) {
+        this(field, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initialises a {@link MonteCarlo} runner.
+     *
+     * @param field {@link PlayerStore} of the players entered into every tournament.
+     * @param seed Master seed of the run.
+     * @param threads Number of worker threads to run simulations on.
+     */
+    public MonteCarlo(PlayerStore field, long seed, int threads) {
+        this.field = field;
+        this.seed = seed;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Simulates a number of tournaments and aggregates how far each player got in them.
+     *
+     * @param simulations Number of tournaments to simulate.
+     *
+     * @return {@link BracketProbabilities} of each player in {@link MonteCarlo#field}.
+     *
+     * @throws InterruptedException Thrown when interrupted while waiting for the workers to finish.
+     */
+    public BracketProbabilities run(int simulations) throws InterruptedException {
+        if (field.size() < 2) {
+            System.out.println("You need at least two players! Returning no probabilities...");
+            return new BracketProbabilities(field, new double[field.size()][]);
+        }
+        int rounds = getNumberOfRounds();
+        AtomicInteger nextBlock = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[][]>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> simulateBlocks(simulations, rounds, nextBlock)));
+            }
+
+            // Combine the win counts of every worker
+            long[][] winCounts = new long[field.size()][rounds + 1];
+            for (Future<long[][]> worker : workers) {
+                long[][] workerCounts = worker.get();
+                for (int i = 0; i < winCounts.length; i++) {
+                    for (int wins = 0; wins <= rounds; wins++) {
+                        winCounts[i][wins] += workerCounts[i][wins];
+                    }
+                }
+            }
+            return BracketProbabilities.fromWinCounts(field, winCounts, simulations);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Worker loop which keeps taking blocks of simulations until all have been claimed.
+     *
+     * @param simulations Total number of tournaments to simulate.
+     * @param rounds Number of rounds in each tournament.
+     * @param nextBlock Shared counter of the next unclaimed block.
+     *
+     * @return Number of tournaments in which each player won exactly {@code n} matches, indexed
+     * by player then {@code n}.
+     */
+    private long[][] simulateBlocks(int simulations, int rounds, AtomicInteger nextBlock) {
+        long[][] winCounts = new long[field.size()][rounds + 1];
+        int start;
+        while ((start = nextBlock.getAndIncrement() * BLOCK_SIZE) < simulations) {
+            int end = Math.min(simulations, start + BLOCK_SIZE);
+            for (int simulation = start; simulation < end; simulation++) {
+                simulateTournament(simulation, winCounts);
+            }
+        }
+        return winCounts;
+    }
+
+    /**
+     * Plays a full tournament with copies of the field and records how many matches each player won.
+     *
+     * @param simulation Number of the simulation, used to derive the tournament's seed.
+     * @param winCounts Win counts to add the result of the tournament to.
+     */
+    private void simulateTournament(int simulation, long[][] winCounts) {
+        // The copy keeps the same ids, so the results map straight back to the field
+        PlayerStore copy = field.copy();
+        Tournament tournament = new Tournament(copy, StreamRandom.deriveSeed(seed, simulation));
+        tournament.setListener(TournamentListener.SILENT);
+        tournament.setSimulationMode(simulationMode);
+        tournament.setFixedElo(fixedElo);
+
+        tournament.assignMatches(tournament.getNeededByes());
+        int round = 0;
+        while (tournament.getNumberOfMatches(round) > 1) {
+            tournament.playMatches(round);
+            tournament.assignMatches();
+            round++;
+        }
+        tournament.playMatches(round);
+
+        for (int id = 0; id < copy.size(); id++) {
+            winCounts[id][copy.getWins(id)]++;
+        }
+    }
+
+    /**
+     * Setter for {@link MonteCarlo#simulationMode}.
+     *
+     * @param simulationMode {@link SimulationMode} to set {@link MonteCarlo#simulationMode} to.
+     */
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * Setter for {@link MonteCarlo#fixedElo}.
+     *
+     * @param fixedElo True to play every simulated match at the players' entry Elo ratings.
+     */
+    public void setFixedElo(boolean fixedElo) {
+        this.fixedElo = fixedElo;
+    }
+
+    /**
+     * Calculates the number of rounds a tournament with {@link MonteCarlo#field} takes.
+     *
+     * @return integer number of rounds.
+     */
+    private int getNumberOfRounds() {
+        // Ceiling of log_2(number of players)
+        return Integer.SIZE - Integer.numberOfLeadingZeros(field.size() - 1);
+    }
+}
@@ -0,0 +1,296 @@
+package simulation;
+
+import components.StreamRandom;
+import player.PlayerStore;
+import player.SharedRatings;
+import tournament.Match;
+import tournament.SimulationMode;
+import tournament.Tournament;
+import tournament.TournamentListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulates a season of many {@link Tournament}s drawn from one population of players, with
+ * Elo changes carrying over from each event to the next.
+ * <p>
+ * Events are shared between a pool of worker threads and run at the same time. Each event takes
+ * a snapshot of its entrants' ratings from a {@link SharedRatings} when it starts, plays with its
+ * own small {@link PlayerStore} of them, then commits the change in each rating when it finishes.
+ * Commits are atomic adds, so events never block each other and overlapping events never lose
+ * each other's changes.
+ * <p>
+ * Each event is seeded from the master seed and its event number. With one thread the whole
+ * season can be reproduced; with more, the ratings an event starts from depend on which other
+ * events have finished by then.
+ */
+public class Season {
+    /**
+     * {@link PlayerStore} of every player who can be entered into an event. Names and genders
+     * are read from it, and ratings are written back to it once the season has been run.
+     */
+    private final PlayerStore population;
+    /**
+     * Ratings and wins of {@link Season#population}, shared by every event.
+     */
+    private final SharedRatings ratings;
+    /**
+     * ids of the players entered into each event.
+     */
+    private final List<int[]> events = new ArrayList<>();
+    /**
+     * id of the player who won each event, or {@link Match#NO_PLAYER} until it has been played.
+     */
+    private int[] champions = new int[0];
+    /**
+     * Number of worker threads to run events on.
+     */
+    private final int threads;
+    /**
+     * Master seed every event's seed is derived from.
+     */
+    private final long seed;
+    /**
+     * {@link SimulationMode} every event is played with.
+     */
+    private SimulationMode simulationMode = SimulationMode.POINT_BY_POINT;
+
+    /**
+     * Initialises a {@link Season} using every available processor.
+     *
+     * @param population {@link PlayerStore} of every player who can be entered into an event.
+     * @param seed Master seed of the season.
+     */
+    public Season(PlayerStore population, long seed) {
+        this(population, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initialises a {@link Season}.
+     *
+     * @param population {@link PlayerStore} of every player who can be entered into an event.
+     * @param seed Master seed of the season.
+     * @param threads Number of worker threads to run events on.
+     */
+    public Season(PlayerStore population, long seed, int threads) {
+        this.population = population;
+        this.seed = seed;
+        this.threads = Math.max(1, threads);
+        ratings = new SharedRatings(population);
+    }
+
+    /**
+     * Adds an event to the season.
+     *
+     * @param entrants ids of the players entered into the event, each at most once.
+     *
+     * @return Number of the event.
+     *
+     * @throws IllegalArgumentException Thrown when there are fewer than two entrants.
+     */
+    public int addEvent(int[] entrants) {
+        if (entrants.length < 2) {
+            throw new IllegalArgumentException("An event needs at least two players!");
+        }
+        events.add(entrants);
+        return events.size() - 1;
+    }
+
+    /**
+     * Adds events with entrants drawn at random from {@link Season#population}.
+     *
+     * @param count Number of events to add.
+     * @param size Number of players in each event.
+     */
+    public void addRandomEvents(int count, int size) {
+        StreamRandom random = new StreamRandom(0);
+        for (int i = 0; i < count; i++) {
+            random.reseed(StreamRandom.deriveSeed(seed, -1 - events.size()));
+            addEvent(drawEntrants(random, population.size(), Math.min(size, population.size())));
+        }
+    }
+
+    /**
+     * Draws distinct players at random.
+     * <p>
+     * Small draws are made by picking ids, then sorting them and redrawing any repeats, so the
+     * cost depends only on the number drawn. Draws of more than half the population shuffle
+     * every id instead.
+     *
+     * @param random {@link RandomGenerator} used to pick players.
+     * @param populationSize Number of players to draw from.
+     * @param size Number of players to draw.
+     *
+     * @return Sorted array of ids
+     */
+    private static int[] drawEntrants(RandomGenerator random, int populationSize, int size) {
+        if (2 * size > populationSize) {
+            int[] ids = new int[populationSize];
+            for (int i = 0; i < populationSize; i++) {
+                ids[i] = i;
+            }
+            for (int i = 0; i < size; i++) {
+                int j = i + random.nextInt(populationSize - i);
+                int swap = ids[i];
+                ids[i] = ids[j];
+                ids[j] = swap;
+            }
+            int[] entrants = Arrays.copyOf(ids, size);
+            Arrays.sort(entrants);
+            return entrants;
+        }
+        int[] entrants = new int[size];
+        int unique = 0;
+        while (unique < size) {
+            for (int i = unique; i < size; i++) {
+                entrants[i] = random.nextInt(populationSize);
+            }
+            Arrays.sort(entrants);
+            // Keep the first of each run of repeated ids and redraw the rest
+            unique = 1;
+            for (int i = 1; i < size; i++) {
+                if (entrants[i] != entrants[unique - 1]) {
+                    entrants[unique++] = entrants[i];
+                }
+            }
+        }
+        return entrants;
+    }
+
+    /**
+     * Runs every event which has been added, then writes the final ratings back to
+     * {@link Season#population}.
+     *
+     * @throws InterruptedException Thrown when interrupted while waiting for the workers to finish.
+     */
+    public void run() throws InterruptedException {
+        champions = new int[events.size()];
+        Arrays.fill(champions, Match.NO_PLAYER);
+        AtomicInteger nextEvent = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> playEvents(nextEvent)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An event simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        ratings.writeTo(population);
+    }
+
+    /**
+     * Worker loop which keeps taking the next event until all have been claimed.
+     *
+     * @param nextEvent Shared counter of the next unclaimed event.
+     */
+    private void playEvents(AtomicInteger nextEvent) {
+        int event;
+        while ((event = nextEvent.getAndIncrement()) < events.size()) {
+            playEvent(event);
+        }
+    }
+
+    /**
+     * Plays a full event with a snapshot of its entrants' ratings, then commits the changes.
+     *
+     * @param event Number of the event.
+     */
+    private void playEvent(int event) {
+        int[] entrants = events.get(event);
+        int[] entryRatings = ratings.snapshot(entrants);
+        // Player i of the event's store is entrants[i]
+        PlayerStore field = population.subset(entrants, entryRatings);
+        Tournament tournament = new Tournament(field, StreamRandom.deriveSeed(seed, event));
+        tournament.setListener(TournamentListener.SILENT);
+        tournament.setSimulationMode(simulationMode);
+
+        tournament.assignMatches(tournament.getNeededByes());
+        int round = 0;
+        while (tournament.getNumberOfMatches(round) > 1) {
+            tournament.playMatches(round);
+            tournament.assignMatches();
+            round++;
+        }
+        tournament.playMatches(round);
+
+        for (int i = 0; i < entrants.length; i++) {
+            ratings.commit(entrants[i], field.getElo(i) - entryRatings[i], field.getWins(i));
+        }
+        champions[event] = entrants[tournament.getLeaderboard()[0]];
+    }
+
+    /**
+     * Counts the events each player has won.
+     *
+     * @return Number of titles, indexed by id.
+     */
+    public int[] getTitles() {
+        int[] titles = new int[population.size()];
+        for (int champion : champions) {
+            if (champion != Match.NO_PLAYER) {
+                titles[champion]++;
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * Orders every player by their current Elo rating, from highest to lowest, then by id.
+     *
+     * @return Sorted array of player ids
+     */
+    public int[] getRankings() {
+        long[] keys = new long[ratings.size()];
+        for (int id = 0; id < keys.length; id++) {
+            keys[id] = ((long) -ratings.getElo(id) << 32) | id;
+        }
+        Arrays.sort(keys);
+        int[] rankings = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            rankings[i] = (int) keys[i];
+        }
+        return rankings;
+    }
+
+    /**
+     * Gets the number of events in the season.
+     *
+     * @return integer number of events.
+     */
+    public int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Getter for {@link Season#ratings}.
+     *
+     * @return {@link Season#ratings}
+     */
+    public SharedRatings getRatings() {
+        return ratings;
+    }
+
+    /**
+     * Setter for {@link Season#simulationMode}.
+     *
+     * @param simulationMode {@link SimulationMode} to set {@link Season#simulationMode} to.
+     */
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+}
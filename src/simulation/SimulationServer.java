@@ -0,0 +1,420 @@
+package simulation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import components.LruCache;
+import components.StreamRandom;
+import player.NameDictionary;
+import player.PlayerStore;
+import tournament.SimulationMode;
+import tournament.Tournament;
+import tournament.TournamentListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small HTTP service on the local machine which plays knockout {@link Tournament}s on request and
+ * returns their leaderboards as JSON, so other tools can use the simulator without starting a JVM
+ * each time.
+ * <p>
+ * {@code GET} or {@code POST} {@value SimulationServer#PATH} takes the tournament as URL encoded
+ * parameters in the query string or form body:
+ * <ul>
+ *     <li>{@code players} is the number of players to generate, from 2 to
+ *     {@value SimulationServer#MAX_PLAYERS}.</li>
+ *     <li>{@code seed} is the master seed of the tournament, or left out for a random one.</li>
+ *     <li>{@code mode} is {@code point_by_point} (the default) or {@code sampled}, see
+ *     {@link SimulationMode}.</li>
+ *     <li>{@code top} is the number of leaderboard places to return, or left out for all of them.</li>
+ * </ul>
+ * Given the same seed and number of players, the tournament is the same one {@code Main} plays.
+ * <p>
+ * Tournaments with a seed always give the same result, so their whole leaderboards are kept in an
+ * {@link LruCache} and repeated requests are answered without playing them again, whatever
+ * {@code top} they ask for. The cache is limited by both its number of tournaments and their
+ * total size in bytes, so a few very large fields cannot fill the heap. The {@code X-Cache}
+ * header says whether a response came from the cache. Every request shares one
+ * {@link NameDictionary}, and the score distributions matches are played with are shared by the
+ * whole JVM.
+ * <p>
+ * Requests are handled by a fixed pool of worker threads, one per processor by default.
+ */
+public class SimulationServer {
+    /**
+     * Path tournaments are requested from.
+     */
+    public static final String PATH = "/tournament";
+    /**
+     * Most players a requested tournament can have.
+     */
+    public static final int MAX_PLAYERS = 100_000;
+    /**
+     * Number of connections which can wait to be accepted, enough for bursts of hundreds of
+     * requests at once.
+     */
+    private static final int BACKLOG = 1024;
+    /**
+     * {@link NameDictionary} the names of generated players are picked from.
+     */
+    private final NameDictionary names;
+    /**
+     * Leaderboards of tournaments with a seed, keyed by their number of players, seed and
+     * {@link SimulationMode}.
+     */
+    private final LruCache<String, Leaderboard> cache;
+    /**
+     * Number of requests answered from {@link SimulationServer#cache}.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * Number of tournaments played.
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * Underlying HTTP server, or null while not started.
+     */
+    private HttpServer server = null;
+    /**
+     * Worker threads requests are handled on, or null while not started.
+     */
+    private ExecutorService executor = null;
+
+    /**
+     * Initialises a {@link SimulationServer}.
+     *
+     * @param names {@link NameDictionary} the names of generated players are picked from.
+     * @param cacheSize Most tournaments to keep in the cache.
+     * @param cacheBytes Most bytes of leaderboards to keep in the cache.
+     */
+    public SimulationServer(NameDictionary names, int cacheSize, long cacheBytes) {
+        this.names = names;
+        cache = new LruCache<>(cacheSize, cacheBytes, Leaderboard::getSize);
+    }
+
+    /**
+     * Starts listening for requests on the loopback address.
+     *
+     * @param port Port to listen on, or 0 for any free port.
+     * @param threads Number of worker threads to handle requests on.
+     *
+     * @throws IOException Thrown when the port cannot be listened on.
+     */
+    public void start(int port, int threads) throws IOException {
+        if (server != null) {
+            System.out.println("The server has already been started!");
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Stops listening, waiting up to a second for requests being handled to finish.
+     */
+    public void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Answers a request for a tournament.
+     *
+     * @param exchange Request and response.
+     *
+     * @throws IOException Thrown when the request cannot be read or the response cannot be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                sendError(exchange, 405, "Use GET or POST");
+                return;
+            }
+            if (!exchange.getRequestURI().getPath().equals(PATH)) {
+                sendError(exchange, 404, "Tournaments are played at " + PATH);
+                return;
+            }
+
+            Map<String, String> parameters = new HashMap<>();
+            parseParameters(exchange.getRequestURI().getRawQuery(), parameters);
+            if (method.equals("POST")) {
+                try (InputStream body = exchange.getRequestBody()) {
+                    parseParameters(new String(body.readAllBytes(), StandardCharsets.UTF_8), parameters);
+                }
+            }
+
+            int playerCount;
+            long seed;
+            SimulationMode simulationMode;
+            int top;
+            try {
+                playerCount = Integer.parseInt(parameters.getOrDefault("players", ""));
+                String seedParameter = parameters.get("seed");
+                seed = (seedParameter != null) ? Long.parseLong(seedParameter) : ThreadLocalRandom.current().nextLong();
+                simulationMode = SimulationMode.valueOf(parameters.getOrDefault("mode", "point_by_point").toUpperCase());
+                top = Integer.parseInt(parameters.getOrDefault("top", String.valueOf(playerCount)));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, "players, seed and top must be numbers and mode must be point_by_point or sampled");
+                return;
+            }
+            if (playerCount < 2 || playerCount > MAX_PLAYERS) {
+                sendError(exchange, 400, "players must be from 2 to " + MAX_PLAYERS);
+                return;
+            }
+            top = Math.max(0, Math.min(top, playerCount));
+
+            // Only tournaments with a seed can be repeated, so only they are cached, with every
+            // place so any top can be answered from them
+            String key = parameters.containsKey("seed")
+                    ? playerCount + ":" + seed + ":" + simulationMode
+                    : null;
+            Leaderboard leaderboard = (key != null) ? cache.get(key) : null;
+            if (leaderboard != null) {
+                hits.increment();
+                exchange.getResponseHeaders().set("X-Cache", "HIT");
+            } else {
+                misses.increment();
+                leaderboard = play(playerCount, seed, simulationMode, (key != null) ? playerCount : top);
+                if (key != null) {
+                    cache.put(key, leaderboard);
+                }
+                exchange.getResponseHeaders().set("X-Cache", "MISS");
+            }
+            send(exchange, 200, leaderboard.toJson(top));
+        }
+    }
+
+    /**
+     * Plays a tournament of generated players.
+     *
+     * @param playerCount Number of players to generate.
+     * @param seed Master seed of the tournament.
+     * @param simulationMode {@link SimulationMode} to play every match with.
+     * @param top Number of leaderboard places to include.
+     *
+     * @return {@link Leaderboard} of the tournament
+     */
+    private Leaderboard play(int playerCount, long seed, SimulationMode simulationMode, int top) {
+        PlayerStore players = PlayerStore.generate(names, playerCount, new StreamRandom(StreamRandom.deriveSeed(seed, 0)));
+        Tournament tournament = new Tournament(players, StreamRandom.deriveSeed(seed, 1));
+        tournament.setListener(TournamentListener.SILENT);
+        tournament.setSimulationMode(simulationMode);
+        tournament.play();
+
+        int[] leaderboard = tournament.getLeaderboard();
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"players\":").append(playerCount)
+                .append(",\"seed\":").append(seed)
+                .append(",\"mode\":\"").append(simulationMode.name().toLowerCase())
+                .append("\",\"rounds\":").append(tournament.getAssignedRounds())
+                .append(",\"leaderboard\":[");
+        byte[] head = json.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Places are joined by commas, remembering where each one ends so any number of them
+        // can be sent without building the JSON again
+        json = new StringBuilder(96 * top);
+        int[] placeEnds = new int[top];
+        int length = 0;
+        for (int i = 0; i < top; i++) {
+            int player = leaderboard[i];
+            int start = json.length();
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"position\":").append(i + 1).append(",\"firstName\":");
+            appendString(json, players.getFirstName(player));
+            json.append(",\"lastName\":");
+            appendString(json, players.getLastName(player));
+            json.append(",\"gender\":").append(players.getGender(player))
+                    .append(",\"elo\":").append(players.getElo(player))
+                    .append(",\"wins\":").append(players.getWins(player))
+                    .append('}');
+            // Names may be outside ASCII, so count the place's bytes rather than its chars
+            length += json.substring(start).getBytes(StandardCharsets.UTF_8).length;
+            placeEnds[i] = length;
+        }
+        return new Leaderboard(head, json.toString().getBytes(StandardCharsets.UTF_8), placeEnds);
+    }
+
+    /**
+     * Adds a quoted JSON string, escaping quotes, backslashes and control characters.
+     *
+     * @param json {@link StringBuilder} to add to.
+     * @param value {@code String} to add.
+     */
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Adds the parameters of a URL encoded query string or form body, such as
+     * {@code players=64&seed=1}, to a map. Later values replace earlier ones.
+     *
+     * @param encoded URL encoded parameters, or null for none.
+     * @param parameters Map to add the parameters to.
+     */
+    private static void parseParameters(String encoded, Map<String, String> parameters) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Sends a JSON error response.
+     *
+     * @param exchange Request to respond to.
+     * @param status HTTP status code.
+     * @param message Description of the error.
+     *
+     * @throws IOException Thrown when the response cannot be sent.
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        send(exchange, status, json.append('}').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a JSON response.
+     *
+     * @param exchange Request to respond to.
+     * @param status HTTP status code.
+     * @param body UTF-8 JSON body.
+     *
+     * @throws IOException Thrown when the response cannot be sent.
+     */
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Leaderboard of a played tournament as UTF-8 JSON, split so a response can include any
+     * number of its places.
+     */
+    private static class Leaderboard {
+        /**
+         * End of the JSON of {@link Leaderboard#places} after the last place.
+         */
+        private static final byte[] TAIL = "]}".getBytes(StandardCharsets.UTF_8);
+        /**
+         * JSON of the tournament up to the start of its leaderboard array.
+         */
+        private final byte[] head;
+        /**
+         * JSON of every place in the leaderboard, separated by commas.
+         */
+        private final byte[] places;
+        /**
+         * Index in {@link Leaderboard#places} after the end of each place.
+         */
+        private final int[] placeEnds;
+
+        /**
+         * Initialises a {@link Leaderboard}.
+         *
+         * @param head JSON of the tournament up to the start of its leaderboard array.
+         * @param places JSON of every place in the leaderboard, separated by commas.
+         * @param placeEnds Index in {@code places} after the end of each place.
+         */
+        private Leaderboard(byte[] head, byte[] places, int[] placeEnds) {
+            this.head = head;
+            this.places = places;
+            this.placeEnds = placeEnds;
+        }
+
+        /**
+         * Builds the JSON response with the top places of the leaderboard.
+         *
+         * @param top Number of places to include, at most the number of places kept.
+         *
+         * @return UTF-8 JSON of the tournament and its top places.
+         */
+        private byte[] toJson(int top) {
+            int placesLength = (top > 0) ? placeEnds[Math.min(top, placeEnds.length) - 1] : 0;
+            byte[] json = new byte[head.length + placesLength + TAIL.length];
+            System.arraycopy(head, 0, json, 0, head.length);
+            System.arraycopy(places, 0, json, head.length, placesLength);
+            System.arraycopy(TAIL, 0, json, head.length + placesLength, TAIL.length);
+            return json;
+        }
+
+        /**
+         * Gets the number of bytes the leaderboard takes up, which is what the cache is limited by.
+         *
+         * @return integer number of bytes.
+         */
+        private int getSize() {
+            return head.length + places.length + 4 * placeEnds.length;
+        }
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return Port number, or -1 if the server has not been started.
+     */
+    public int getPort() {
+        return (server != null) ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Gets the number of requests answered from the cache.
+     *
+     * @return Number of cache hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of tournaments played because they were not in the cache.
+     *
+     * @return Number of cache misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,20 @@
+package tournament;
+
+/**
+ * Part of a {@link DoubleEliminationTournament} a stage is played in, so its rounds can be told
+ * apart from the rounds of the other bracket.
+ */
+public enum BracketSide {
+    /**
+     * The winners' bracket, which every player starts in.
+     */
+    WINNERS,
+    /**
+     * The losers' bracket, which players drop into after their first loss.
+     */
+    LOSERS,
+    /**
+     * The grand final between the winners of both brackets, and its bracket reset.
+     */
+    GRAND_FINAL
+}
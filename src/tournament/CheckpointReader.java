@@ -0,0 +1,80 @@
+package tournament;
+
+import player.PlayerStore;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a checkpoint written by {@link CheckpointWriter} and rebuilds the {@link Tournament} it
+ * saved, so it can carry on from the next round with the same results as if it had never stopped.
+ */
+public class CheckpointReader {
+    /**
+     * Restores a tournament from a checkpoint.
+     * <p>
+     * The checkpoint is read in one sequential pass, then the bracket, the simulation mode,
+     * whether Elo ratings are fixed and every player's Elo rating and wins are restored. A
+     * tournament which kept a {@link LeaderboardIndex} is given a new one built from the
+     * restored ratings and wins. Continue by calling
+     * {@link Tournament#assignMatches()} if every assigned round has been played, then playing
+     * from round {@link Tournament#getRoundsPlayed()}.
+     *
+     * @param path Path of the checkpoint file.
+     * @param store {@link PlayerStore} of the same players the tournament was started with, which
+     *              is updated with their saved ratings and wins.
+     *
+     * @return {@link Tournament} object in the state it was saved in.
+     *
+     * @throws IOException Thrown when the file cannot be read, is not a checkpoint or does not
+     * match the players.
+     */
+    public static Tournament resume(Path path, PlayerStore store) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < CheckpointWriter.HEADER_SIZE) {
+                throw new EOFException(path + " is shorter than a checkpoint header!");
+            }
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Checkpoint ended early!");
+                }
+            }
+        }
+        buffer.flip();
+        if (buffer.getInt() != CheckpointWriter.MAGIC) {
+            throw new IOException(path + " is not a checkpoint!");
+        }
+        int version = buffer.getInt();
+        if (version != CheckpointWriter.VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + "!");
+        }
+        long seed = buffer.getLong();
+        SimulationMode simulationMode = SimulationMode.values()[buffer.getInt()];
+        int flags = buffer.getInt();
+        int playerCount = buffer.getInt();
+        if (playerCount != store.size()) {
+            throw new IOException("Checkpoint has " + playerCount + " players but the store has " + store.size() + "!");
+        }
+
+        Tournament tournament = new Tournament(store, seed);
+        tournament.setSimulationMode(simulationMode);
+        tournament.setFixedElo((flags & CheckpointWriter.FIXED_ELO) != 0);
+        tournament.readState(buffer);
+        for (int id = 0; id < playerCount; id++) {
+            store.setElo(id, buffer.getInt());
+        }
+        for (int id = 0; id < playerCount; id++) {
+            store.setWins(id, buffer.getInt());
+        }
+        if ((flags & CheckpointWriter.LEADERBOARD_INDEX) != 0) {
+            tournament.setLeaderboardIndex(new LeaderboardIndex(store));
+        }
+        return tournament;
+    }
+}
@@ -0,0 +1,195 @@
+package tournament;
+
+import player.PlayerStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Saves the state of a {@link Tournament} to a binary checkpoint file between rounds, so a long
+ * run can be continued with {@link CheckpointReader} if the program stops part way through.
+ * <p>
+ * A checkpoint starts with a header of {@link CheckpointWriter#HEADER_SIZE} bytes: the
+ * {@link CheckpointWriter#MAGIC} number, the format {@link CheckpointWriter#VERSION}, the seed of
+ * the tournament, its {@link SimulationMode}, its flags (see {@link CheckpointWriter#FIXED_ELO} and
+ * {@link CheckpointWriter#LEADERBOARD_INDEX}) and the number of players in its
+ * {@link PlayerStore}. It is followed by the state of the bracket (see
+ * {@link Tournament#writeState(ByteBuffer)}), then every player's Elo rating, then every player's
+ * wins. Every match reseeds its random numbers from the tournament's seed, so the seed is all
+ * the random state there is.
+ * <p>
+ * Saving copies the state into one of two reused buffers on the calling thread, which takes
+ * time in proportion to the number of players, and hands the buffer to a background thread. The
+ * background thread writes it in one sequential pass to a temporary file, which is then moved over
+ * the checkpoint, so the checkpoint on disk is always complete. The next round only waits if the
+ * buffer it needs is still being written.
+ */
+public class CheckpointWriter implements Closeable {
+    /**
+     * Number at the start of every checkpoint, {@code "TTCP"} in ASCII.
+     */
+    public static final int MAGIC = 0x54544350;
+    /**
+     * Version of the format written by this class.
+     */
+    public static final int VERSION = 2;
+    /**
+     * Number of bytes in the header.
+     */
+    public static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4;
+    /**
+     * Flag set when the tournament keeps Elo ratings at their entry values.
+     */
+    public static final int FIXED_ELO = 1;
+    /**
+     * Flag set when the tournament keeps a {@link LeaderboardIndex}, which is rebuilt from the
+     * players' ratings and wins on resuming rather than saved.
+     */
+    public static final int LEADERBOARD_INDEX = 1 << 1;
+    /**
+     * Path of the checkpoint file.
+     */
+    private final Path path;
+    /**
+     * Background thread checkpoints are written on, one at a time in the order they were saved.
+     */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "checkpoint-writer");
+        // Never keep the program running just to write a checkpoint nobody closed
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Buffers checkpoints are copied into, used in turn so one can be filled while the other is
+     * written.
+     */
+    private final ByteBuffer[] buffers = new ByteBuffer[2];
+    /**
+     * Write of each of {@link CheckpointWriter#buffers} which is queued or in progress.
+     */
+    private final Future<?>[] writes = new Future<?>[2];
+    /**
+     * Index of the buffer the next checkpoint is copied into.
+     */
+    private int next = 0;
+
+    /**
+     * Initialises a {@link CheckpointWriter}. Nothing is written until the first checkpoint is
+     * saved.
+     *
+     * @param path Path of the checkpoint file, replaced by every checkpoint.
+     */
+    public CheckpointWriter(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Saves a checkpoint of a tournament between rounds, after
+     * {@link Tournament#assignMatches()} has been called for the next round.
+     *
+     * @param tournament {@link Tournament} to save.
+     *
+     * @throws IOException Thrown when an earlier checkpoint could not be written.
+     */
+    public void save(Tournament tournament) throws IOException {
+        // Wait for the write that last used this buffer before filling it again
+        waitFor(writes[next]);
+        PlayerStore store = tournament.getPlayerStore();
+        int size = HEADER_SIZE + tournament.getStateSize() + 8 * store.size();
+        if (buffers[next] == null || buffers[next].capacity() < size) {
+            buffers[next] = ByteBuffer.allocate(size);
+        }
+        ByteBuffer buffer = buffers[next];
+        buffer.clear();
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(tournament.getSeed())
+                .putInt(tournament.getSimulationMode().ordinal())
+                .putInt((tournament.isFixedElo() ? FIXED_ELO : 0)
+                        | ((tournament.getLeaderboardIndex() != null) ? LEADERBOARD_INDEX : 0))
+                .putInt(store.size());
+        tournament.writeState(buffer);
+        for (int id = 0; id < store.size(); id++) {
+            buffer.putInt(store.getElo(id));
+        }
+        for (int id = 0; id < store.size(); id++) {
+            buffer.putInt(store.getWins(id));
+        }
+        buffer.flip();
+        writes[next] = writer.submit(() -> {
+            write(buffer);
+            return null;
+        });
+        next ^= 1;
+    }
+
+    /**
+     * Writes a checkpoint to a temporary file and moves it over the checkpoint file.
+     *
+     * @param buffer {@link ByteBuffer} holding the whole checkpoint.
+     *
+     * @throws IOException Thrown when writing fails.
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Waits for a write to finish.
+     *
+     * @param write Write to wait for, or null if there is none.
+     *
+     * @throws IOException Thrown when the write failed.
+     */
+    private static void waitFor(Future<?> write) throws IOException {
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Writing a checkpoint failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing a checkpoint", e);
+        }
+    }
+
+    /**
+     * Waits for every saved checkpoint to be written, then stops the background thread.
+     *
+     * @throws IOException Thrown when a checkpoint could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            waitFor(writes[next ^ 1]);
+            waitFor(writes[next]);
+        } finally {
+            writer.shutdown();
+        }
+    }
+}
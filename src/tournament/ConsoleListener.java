@@ -0,0 +1,249 @@
+package tournament;
+
+import components.AsyncWriter;
+import player.PlayerStore;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * {@link TournamentListener} which prints the events of a {@link Tournament} as readable text.
+ * <p>
+ * Lines are built without {@code String.format} and written through an {@link AsyncWriter}, so
+ * the tournament keeps playing while the console catches up. Events below the
+ * {@link Verbosity} of the listener are ignored before any text is built.
+ * <p>
+ * Output is only guaranteed to have been written after {@link ConsoleListener#flush()}.
+ * {@link ConsoleListener#close()} also stops the writer's background thread, so it must be called
+ * once the tournament is over.
+ */
+public class ConsoleListener implements TournamentListener, Flushable, Closeable {
+    /**
+     * Line separator of the system, matching {@code %n} in {@code printf}.
+     */
+    private static final String NEW_LINE = System.lineSeparator();
+    /**
+     * Line printed above and below each round header.
+     */
+    private static final String ROUND_SEPARATOR = "------------------------------";
+    /**
+     * {@link PlayerStore} used to look up the names of players.
+     */
+    private final PlayerStore store;
+    /**
+     * How much of the tournament is printed.
+     */
+    private final Verbosity verbosity;
+    /**
+     * {@link Writer} every line is written to.
+     */
+    private final Writer out;
+    /**
+     * Reused buffer each line is built in before being written.
+     */
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Initialises a {@link ConsoleListener} printing to {@code System.out}, which is left open
+     * when the listener is closed.
+     *
+     * @param store {@link PlayerStore} of the players in the tournament.
+     * @param verbosity How much of the tournament is printed.
+     */
+    public ConsoleListener(PlayerStore store, Verbosity verbosity) {
+        this(store, verbosity, new AsyncWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()) {
+            @Override
+            public void close() throws IOException {
+                // The rest of the program still prints to System.out
+                flush();
+            }
+        }));
+    }
+
+    /**
+     * Initialises a {@link ConsoleListener} printing to any {@link Writer}.
+     *
+     * @param store {@link PlayerStore} of the players in the tournament.
+     * @param verbosity How much of the tournament is printed.
+     * @param out {@link Writer} every line is written to.
+     */
+    public ConsoleListener(PlayerStore store, Verbosity verbosity, Writer out) {
+        this.store = store;
+        this.verbosity = verbosity;
+        this.out = out;
+    }
+
+    /**
+     * Prints a header for the round, or for the finals when there is only one match.
+     *
+     * @param round Round number (starting at 0).
+     * @param matches Number of matches in the round.
+     */
+    @Override
+    public void roundStarted(int round, int matches) {
+        if (!verbosity.includes(Verbosity.ROUNDS)) {
+            return;
+        }
+        line.append(ROUND_SEPARATOR).append(NEW_LINE).append("[TOURNEY] ");
+        if (matches > 1) {
+            line.append("Round ").append(round + 1);
+        } else {
+            line.append("Finals");
+        }
+        line.append(NEW_LINE).append(ROUND_SEPARATOR);
+        writeLine();
+    }
+
+    /**
+     * Prints a header for a stage of a double-elimination tournament, named after its side of
+     * the bracket.
+     *
+     * @param round Stage number across both brackets and the grand final (starting at 0).
+     * @param side {@link BracketSide} the stage is played in.
+     * @param sideRound Round number within its side (starting at 0).
+     * @param matches Number of matches in the stage.
+     */
+    @Override
+    public void stageStarted(int round, BracketSide side, int sideRound, int matches) {
+        if (!verbosity.includes(Verbosity.ROUNDS)) {
+            return;
+        }
+        line.append(ROUND_SEPARATOR).append(NEW_LINE).append("[TOURNEY] ");
+        switch (side) {
+            case WINNERS -> line.append("Winners' Round ").append(sideRound + 1);
+            case LOSERS -> line.append("Losers' Round ").append(sideRound + 1);
+            case GRAND_FINAL -> line.append((sideRound == 0) ? "Grand Final" : "Grand Final (Bracket Reset)");
+        }
+        line.append(NEW_LINE).append(ROUND_SEPARATOR);
+        writeLine();
+    }
+
+    /**
+     * Prints the match score after a game.
+     *
+     * @param round Round number of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2.
+     * @param games1 Games won by player 1 so far.
+     * @param games2 Games won by player 2 so far.
+     */
+    @Override
+    public void gameFinished(int round, int matchNumber, int player1, int player2, int games1, int games2) {
+        if (!verbosity.includes(Verbosity.GAMES)) {
+            return;
+        }
+        appendPairing(player1, player2);
+        line.append(games1).append('-').append(games2);
+        writeLine();
+    }
+
+    /**
+     * Prints the winner of a match, or that a player moves on with a bye.
+     *
+     * @param round Round number of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2, or {@link Match#NO_PLAYER} for bye matches.
+     * @param winner id of the player who won the match.
+     * @param games1 Games won by player 1.
+     * @param games2 Games won by player 2.
+     */
+    @Override
+    public void matchFinished(int round, int matchNumber, int player1, int player2, int winner, int games1, int games2) {
+        if (!verbosity.includes(Verbosity.MATCHES)) {
+            return;
+        }
+        if (player2 == Match.NO_PLAYER) {
+            line.append("[TOURNEY] ");
+            appendName(player1);
+            line.append(" gets a bye and moves on to the next round");
+        } else {
+            appendPairing(player1, player2);
+            appendName(winner);
+            line.append(" won!");
+        }
+        writeLine();
+    }
+
+    /**
+     * Prints a player's Elo rating change.
+     *
+     * @param player id of the player.
+     * @param oldElo Elo rating before the match.
+     * @param newElo Elo rating after the match.
+     */
+    @Override
+    public void eloAdjusted(int player, int oldElo, int newElo) {
+        if (!verbosity.includes(Verbosity.ALL)) {
+            return;
+        }
+        line.append("[ELO] Updated ");
+        appendName(player);
+        line.append("'s Elo from ").append(oldElo)
+                .append(" to ").append(newElo)
+                .append(" (").append(newElo - oldElo).append(')');
+        writeLine();
+    }
+
+    /**
+     * Appends {@code "[GAME] <last name> vs <last name>: "} to {@link ConsoleListener#line}.
+     *
+     * @param player1 id of player 1.
+     * @param player2 id of player 2.
+     */
+    private void appendPairing(int player1, int player2) {
+        line.append("[GAME] ")
+                .append(store.getLastName(player1))
+                .append(" vs ")
+                .append(store.getLastName(player2))
+                .append(": ");
+    }
+
+    /**
+     * Appends a player's first and last name to {@link ConsoleListener#line}.
+     *
+     * @param player id of the player.
+     */
+    private void appendName(int player) {
+        line.append(store.getFirstName(player)).append(' ').append(store.getLastName(player));
+    }
+
+    /**
+     * Writes {@link ConsoleListener#line} followed by a new line, then clears it.
+     */
+    private void writeLine() {
+        line.append(NEW_LINE);
+        try {
+            out.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        line.setLength(0);
+    }
+
+    /**
+     * Waits until everything printed so far has been written.
+     *
+     * @throws IOException Thrown when writing failed.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Waits until everything printed so far has been written, then closes the {@link Writer}.
+     *
+     * @throws IOException Thrown when writing or closing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,498 @@
+package tournament;
+
+import components.StreamRandom;
+import player.PlayerStore;
+
+import java.util.Arrays;
+
+/**
+ * Defines a <a href="https://en.wikipedia.org/wiki/Double-elimination_tournament">double-elimination</a>
+ * tournament, where a player is only out once they have lost two matches.
+ * <p>
+ * The winners' bracket is drawn the same way as a {@link Tournament}, with byes from
+ * {@link Tournament#getNeededByes(int)} going to the top seeds, and is stored the same way as a
+ * flat implicit binary tree. Losers drop into the losers' bracket, which alternates between
+ * rounds where its survivors play each other and rounds where they meet the players who have just
+ * dropped from the winners' bracket. The winner of the losers' bracket meets the winner of the
+ * winners' bracket in the grand final, and if they win it a bracket reset decides the title as
+ * both players then have one loss.
+ * <p>
+ * Every round of the losers' bracket is stored back to back in one flat array, and the slot each
+ * loser drops into is worked out from the round and number of the match they lost, so dropping a
+ * player takes constant time. The rounds of the two brackets are played in the order
+ * {@code W1, L1, W2, L2, L3, W3, L4, L5, ...} so each losers' round is played as soon as both of
+ * its sides are known. Each of these stages counts as one round for {@link TournamentListener},
+ * which is told the {@link BracketSide} of each stage by
+ * {@link TournamentListener#stageStarted(int, BracketSide, int, int)}.
+ */
+public class DoubleEliminationTournament {
+    /**
+     * {@link PlayerStore} the players of the tournament are stored in.
+     */
+    private final PlayerStore store;
+    /**
+     * ids of all players entered into the tournament, from the highest Elo to the lowest Elo.
+     */
+    private final int[] players;
+    /**
+     * Number of rounds in the winners' bracket.
+     */
+    private final int winnersRounds;
+    /**
+     * Flat array of player slots storing the winners' bracket as an implicit binary tree, laid out
+     * the same way as {@link Tournament}. Index 1 is the winner of the winners' bracket.
+     */
+    private final int[] winners;
+    /**
+     * Flat array of player slots storing every round of the losers' bracket back to back, two
+     * slots per match. Empty slots hold {@link Match#NO_PLAYER}.
+     */
+    private final int[] losers;
+    /**
+     * Index of each losers' round's first slot in {@link DoubleEliminationTournament#losers}.
+     */
+    private final int[] losersStart;
+    /**
+     * Winner of the losers' bracket, who plays the winner of the winners' bracket in the grand
+     * final.
+     */
+    private int losersChampion = Match.NO_PLAYER;
+    /**
+     * id of the player who won the tournament, or {@link Match#NO_PLAYER} until it has been played.
+     */
+    private int champion = Match.NO_PLAYER;
+    /**
+     * Number of matches each player has lost, indexed by id.
+     */
+    private final byte[] losses;
+    /**
+     * ids of all players who are out of the tournament, in the order they were knocked out.
+     */
+    private final int[] out;
+    /**
+     * Number of players in {@link DoubleEliminationTournament#out}.
+     */
+    private int outCount = 0;
+    /**
+     * Whether a second grand final is played when the winner of the losers' bracket wins the
+     * first, so the title is not decided by the only loss of the winners' bracket's winner.
+     */
+    private boolean bracketReset = true;
+    /**
+     * Whether the bracket reset was needed and played.
+     */
+    private boolean resetPlayed = false;
+    /**
+     * Number of stages which have been played, across both brackets and the grand final.
+     */
+    private int stagesPlayed = 0;
+    /**
+     * {@link TournamentListener} every event of this tournament is sent to.
+     */
+    private TournamentListener listener = TournamentListener.SILENT;
+    /**
+     * {@link SimulationMode} every {@link Match} of this tournament is played with.
+     */
+    private SimulationMode simulationMode = SimulationMode.POINT_BY_POINT;
+    /**
+     * Master seed of the tournament. Every {@link Match} plays with its own stream of random
+     * numbers derived from this seed, its stage and its match number.
+     */
+    private final long seed;
+    /**
+     * Seed of the stage being played, derived from {@link DoubleEliminationTournament#seed}.
+     */
+    private long stageSeed;
+    /**
+     * Generator reseeded at the start of every {@link Match}.
+     */
+    private final StreamRandom random = new StreamRandom(0);
+    /**
+     * {@link Match} reused for every match of the tournament.
+     */
+    private final Match match;
+
+    /**
+     * Initialises a {@link DoubleEliminationTournament} with every player in a
+     * {@link PlayerStore} and draws the first round of the winners' bracket.
+     *
+     * @param store {@link PlayerStore} of the players entered into the tournament.
+     * @param seed Master seed of the tournament.
+     *
+     * @throws IllegalArgumentException Thrown when there are fewer than two players.
+     */
+    public DoubleEliminationTournament(PlayerStore store, long seed) {
+        if (store.size() < 2) {
+            throw new IllegalArgumentException("A double-elimination tournament needs at least two players!");
+        }
+        this.store = store;
+        this.seed = seed;
+        int playerCount = store.size();
+        int byes = Tournament.getNeededByes(playerCount);
+        int slots = playerCount + byes;
+        winnersRounds = Integer.numberOfTrailingZeros(slots);
+        losses = new byte[playerCount];
+        out = new int[playerCount];
+        match = new Match(store);
+        match.setRandom(random);
+
+        // Seed players from the highest Elo to the lowest Elo, keeping ties in the order they were added
+        int[] ids = new int[playerCount];
+        for (int id = 0; id < playerCount; id++) {
+            ids[id] = id;
+        }
+        players = Tournament.sortByElo(store, ids, playerCount);
+
+        // Draw the first round the same way as a Tournament: standard seeding, with byes for the
+        // top seeds
+        winners = new int[2 * slots];
+        Arrays.fill(winners, 0, slots, Match.NO_PLAYER);
+        Tournament.drawFirstRound(players, playerCount, winners);
+
+        // Each pair of losers' rounds has half the matches of the pair before it
+        int losersRounds = 2 * (winnersRounds - 1);
+        losersStart = new int[losersRounds + 1];
+        for (int round = 0; round < losersRounds; round++) {
+            losersStart[round + 1] = losersStart[round] + 2 * getLosersMatches(round);
+        }
+        losers = new int[losersStart[losersRounds]];
+        Arrays.fill(losers, Match.NO_PLAYER);
+    }
+
+    /**
+     * Gets the index in {@link DoubleEliminationTournament#winners} of player 1's slot in a match
+     * of the winners' bracket. Player 2's slot is the next index.
+     *
+     * @param round Round of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     *
+     * @return Index of the slot.
+     */
+    private int getWinnersSlot(int round, int matchNumber) {
+        return (winners.length >> round) / 2 + 2 * matchNumber;
+    }
+
+    /**
+     * Gets the number of matches in a round of the winners' bracket.
+     *
+     * @param round Round of the winners' bracket (starting at 0).
+     *
+     * @return integer number of matches.
+     */
+    private int getWinnersMatches(int round) {
+        return winners.length >> (round + 2);
+    }
+
+    /**
+     * Gets the number of matches in a round of the losers' bracket. The first round pairs the
+     * first round's losers, then every two rounds the number of matches halves.
+     *
+     * @param round Round of the losers' bracket (starting at 0).
+     *
+     * @return integer number of matches.
+     */
+    private int getLosersMatches(int round) {
+        return winners.length >> (3 + round / 2);
+    }
+
+    /**
+     * Plays every match of the tournament, including the grand final and any bracket reset.
+     */
+    public void play() {
+        if (champion != Match.NO_PLAYER) {
+            System.out.println("The tournament has already been played!");
+            return;
+        }
+        match.setListener(listener);
+        match.setSimulationMode(simulationMode);
+        int losersRounds = losersStart.length - 1;
+        playWinnersRound(0);
+        if (losersRounds > 0) {
+            playLosersRound(0);
+        }
+        for (int round = 1; round < winnersRounds; round++) {
+            playWinnersRound(round);
+            playLosersRound(2 * round - 1);
+            if (2 * round < losersRounds) {
+                playLosersRound(2 * round);
+            }
+        }
+        playGrandFinal();
+    }
+
+    /**
+     * Plays a round of the winners' bracket, moving winners on and dropping losers into the
+     * losers' bracket.
+     *
+     * @param round Round of the winners' bracket (starting at 0).
+     */
+    private void playWinnersRound(int round) {
+        int matches = getWinnersMatches(round);
+        startStage(BracketSide.WINNERS, round, matches);
+        for (int i = 0; i < matches; i++) {
+            int slot = getWinnersSlot(round, i);
+            int player1 = winners[slot];
+            int player2 = winners[slot + 1];
+            int winner = playMatch(i, player1, player2);
+            winners[slot / 2] = winner;
+            // There is no loser for bye matches
+            if (player2 != Match.NO_PLAYER) {
+                dropLoser(round, i, (winner == player1) ? player2 : player1);
+            }
+        }
+        finishStage();
+    }
+
+    /**
+     * Drops the loser of a winners' bracket match into their slot of the losers' bracket.
+     * <p>
+     * First round losers are paired with each other. Later losers meet a survivor of the losers'
+     * bracket, in reverse order every other round so players are less likely to meet the same
+     * opponent twice.
+     *
+     * @param round Round of the winners' bracket match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param loser id of the player who lost the match.
+     */
+    private void dropLoser(int round, int matchNumber, int loser) {
+        losses[loser]++;
+        if (losers.length == 0) {
+            // With two players, the loser of the only match goes straight to the grand final
+            losersChampion = loser;
+        } else if (round == 0) {
+            losers[losersStart[0] + matchNumber] = loser;
+        } else {
+            int matches = getWinnersMatches(round);
+            int losersMatch = (round % 2 == 1) ? matches - 1 - matchNumber : matchNumber;
+            losers[losersStart[2 * round - 1] + 2 * losersMatch + 1] = loser;
+        }
+    }
+
+    /**
+     * Plays a round of the losers' bracket, moving winners on and knocking out losers.
+     * <p>
+     * Matches missing one player are byes, and matches missing both (below first round byes)
+     * are skipped.
+     *
+     * @param round Round of the losers' bracket (starting at 0).
+     */
+    private void playLosersRound(int round) {
+        int matches = getLosersMatches(round);
+        boolean lastRound = round == losersStart.length - 2;
+        startStage(BracketSide.LOSERS, round, matches);
+        for (int i = 0; i < matches; i++) {
+            int slot = losersStart[round] + 2 * i;
+            int player1 = losers[slot];
+            int player2 = losers[slot + 1];
+            int winner;
+            if (player1 == Match.NO_PLAYER) {
+                winner = (player2 == Match.NO_PLAYER) ? Match.NO_PLAYER : playMatch(i, player2, Match.NO_PLAYER);
+            } else {
+                winner = playMatch(i, player1, player2);
+            }
+            if (player1 != Match.NO_PLAYER && player2 != Match.NO_PLAYER) {
+                knockOut((winner == player1) ? player2 : player1);
+            }
+
+            // Survivors of a round against dropped players play each other next, and survivors
+            // of a round between themselves meet the next dropped players
+            if (lastRound) {
+                losersChampion = winner;
+            } else if (round % 2 == 0) {
+                losers[losersStart[round + 1] + 2 * i] = winner;
+            } else {
+                losers[losersStart[round + 1] + i] = winner;
+            }
+        }
+        finishStage();
+    }
+
+    /**
+     * Plays the grand final between the winners of both brackets, followed by the bracket reset
+     * if the winner of the losers' bracket wins it and resets are on.
+     */
+    private void playGrandFinal() {
+        int winnersChampion = winners[1];
+        startStage(BracketSide.GRAND_FINAL, 0, 1);
+        int winner = playMatch(0, winnersChampion, losersChampion);
+        finishStage();
+        if (winner == losersChampion && bracketReset) {
+            losses[winnersChampion]++;
+            resetPlayed = true;
+            startStage(BracketSide.GRAND_FINAL, 1, 1);
+            winner = playMatch(0, winnersChampion, losersChampion);
+            finishStage();
+        }
+        knockOut((winner == winnersChampion) ? losersChampion : winnersChampion);
+        champion = winner;
+    }
+
+    /**
+     * Gives a player a loss which knocks them out of the tournament.
+     *
+     * @param loser id of the player.
+     */
+    private void knockOut(int loser) {
+        losses[loser]++;
+        out[outCount++] = loser;
+    }
+
+    /**
+     * Sends the start of the next stage to {@link DoubleEliminationTournament#listener} and
+     * derives its seed.
+     *
+     * @param side {@link BracketSide} the stage is played in.
+     * @param sideRound Round number within its side (starting at 0).
+     * @param matches Number of matches in the stage.
+     */
+    private void startStage(BracketSide side, int sideRound, int matches) {
+        stageSeed = StreamRandom.deriveSeed(seed, stagesPlayed);
+        match.setRound(stagesPlayed);
+        listener.stageStarted(stagesPlayed, side, sideRound, matches);
+    }
+
+    /**
+     * Sends the end of the current stage to {@link DoubleEliminationTournament#listener}.
+     */
+    private void finishStage() {
+        listener.roundFinished(stagesPlayed, store.size() - outCount);
+        stagesPlayed++;
+    }
+
+    /**
+     * Plays a match of the current stage with {@link DoubleEliminationTournament#match}.
+     *
+     * @param matchNumber Number of the match within its stage.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2, or {@link Match#NO_PLAYER} for a bye match.
+     *
+     * @return id of the player who won the match.
+     */
+    private int playMatch(int matchNumber, int player1, int player2) {
+        random.reseed(StreamRandom.deriveSeed(stageSeed, matchNumber));
+        match.setPlayers(player1, player2);
+        match.setMatchNumber(matchNumber);
+        match.playMatch();
+        return match.getWinner();
+    }
+
+    /**
+     * Creates a leaderboard from the order players finished in: the champion, then the
+     * runner-up, then everyone else from the last knocked out to the first.
+     *
+     * @return Array of player ids, the first element being the champion. Only the players out of
+     * the tournament are included until it has been played.
+     */
+    public int[] getLeaderboard() {
+        int offset = (champion != Match.NO_PLAYER) ? 1 : 0;
+        int[] leaderboard = new int[outCount + offset];
+        if (offset == 1) {
+            leaderboard[0] = champion;
+        }
+        for (int i = 0; i < outCount; i++) {
+            leaderboard[offset + i] = out[outCount - 1 - i];
+        }
+        return leaderboard;
+    }
+
+    /**
+     * Gets the number of matches a player has lost.
+     *
+     * @param player id of the player.
+     *
+     * @return 0, 1 or 2.
+     */
+    public int getLosses(int player) {
+        return losses[player];
+    }
+
+    /**
+     * Getter for {@link DoubleEliminationTournament#champion}.
+     *
+     * @return {@link DoubleEliminationTournament#champion}
+     */
+    public int getChampion() {
+        return champion;
+    }
+
+    /**
+     * Getter for {@link DoubleEliminationTournament#winnersRounds}.
+     *
+     * @return {@link DoubleEliminationTournament#winnersRounds}
+     */
+    public int getWinnersRounds() {
+        return winnersRounds;
+    }
+
+    /**
+     * Gets the number of rounds in the losers' bracket.
+     *
+     * @return integer number of rounds.
+     */
+    public int getLosersRounds() {
+        return losersStart.length - 1;
+    }
+
+    /**
+     * Getter for {@link DoubleEliminationTournament#stagesPlayed}.
+     *
+     * @return {@link DoubleEliminationTournament#stagesPlayed}
+     */
+    public int getStagesPlayed() {
+        return stagesPlayed;
+    }
+
+    /**
+     * Getter for {@link DoubleEliminationTournament#resetPlayed}.
+     *
+     * @return {@link DoubleEliminationTournament#resetPlayed}
+     */
+    public boolean isResetPlayed() {
+        return resetPlayed;
+    }
+
+    /**
+     * Setter for {@link DoubleEliminationTournament#bracketReset}.
+     *
+     * @param bracketReset Boolean to set {@link DoubleEliminationTournament#bracketReset} to.
+     */
+    public void setBracketReset(boolean bracketReset) {
+        this.bracketReset = bracketReset;
+    }
+
+    /**
+     * Setter for {@link DoubleEliminationTournament#listener}.
+     *
+     * @param listener {@link TournamentListener} to set {@link DoubleEliminationTournament#listener} to.
+     */
+    public void setListener(TournamentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Setter for {@link DoubleEliminationTournament#simulationMode}.
+     *
+     * @param simulationMode {@link SimulationMode} to set {@link DoubleEliminationTournament#simulationMode} to.
+     */
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * Getter for {@link DoubleEliminationTournament#seed}.
+     *
+     * @return {@link DoubleEliminationTournament#seed}
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter for {@link DoubleEliminationTournament#store}.
+     *
+     * @return {@link DoubleEliminationTournament#store}
+     */
+    public PlayerStore getPlayerStore() {
+        return store;
+    }
+}
@@ -1,9 +1,7 @@
 package tournament;
 
-import player.Player;
-
-import java.util.HashMap;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Abstract class defining the functionality of a single table tennis game.
@@ -13,17 +11,30 @@ import java.util.Random;
  */
 public abstract class Game {
     /**
-     * Hash map containing players and how many points they have.
+     * Points needed to win a game, as long as the winner also has a {@link Game#WINNING_MARGIN} lead.
+     */
+    public static final int POINTS_TO_WIN = 11;
+    /**
+     * Lead needed over the other player to win a game.
+     */
+    public static final int WINNING_MARGIN = 2;
+    /**
+     * Points which win a game outright to prevent games lasting indefinitely.
+     */
+    public static final int MAX_POINTS = 15;
+    /**
+     * Points player 1 has in the current (or last played) game.
      */
-    private final HashMap<Player, Integer> pointsDict = new HashMap<>();
+    private int points1;
     /**
-     * Player 1 of 2 players - there are always two players in a game.
+     * Points player 2 has in the current (or last played) game.
      */
-    private Player gamePlayer1;
+    private int points2;
     /**
-     * Player 2 of 2 players - there are always two players in a game.
+     * Source of random numbers used to decide who wins each point. When null, the calling thread's
+     * {@link ThreadLocalRandom} is used, so results cannot be reproduced.
      */
-    private Player gamePlayer2;
+    private RandomGenerator random;
 
     /**
      * Simulate a game of table tennis with two players.
@@ -31,29 +42,29 @@ public abstract class Game {
      * The winner is the first to 11 points (or higher) with a 2 point lead.
      * Maximum points of 15 to prevent games lasting indefinitely.
      *
-     * @param gamePlayer1 {@link Player} object for one of the players
-     * @param gamePlayer2 {@link Player} object for the other player
+     * @param player1WinChance Chance of player 1 winning any single point, from
+     *                         {@link Game#getWinChance(double)}.
      *
-     * @return Returns {@link Player} object of the game winner
+     * @return True if player 1 won the game, false if player 2 won it.
      */
-    public Player playGame(Player gamePlayer1, Player gamePlayer2) {
-        this.gamePlayer1 = gamePlayer1;
-        this.gamePlayer2 = gamePlayer2;
-        pointsDict.put(gamePlayer1, 0);
-        pointsDict.put(gamePlayer2, 0);
+    public boolean playGame(double player1WinChance) {
+        points1 = 0;
+        points2 = 0;
         do {
-            Player winner = playPoint();
-            Integer winnerPoints = pointsDict.get(winner);
-            pointsDict.put(winner, winnerPoints + 1);
-            if ((winnerPoints + 1) == 15) {
+            if (playPoint(player1WinChance)) {
+                if (++points1 == MAX_POINTS) {
+                    break;
+                }
+            } else if (++points2 == MAX_POINTS) {
                 break;
             }
         }
-        while (pointsDict.get(gamePlayer1) < 11
-               && pointsDict.get(gamePlayer2) < 11
-               || Math.abs(pointsDict.get(gamePlayer1) - pointsDict.get(gamePlayer2)) < 2);
+        while (points1 < POINTS_TO_WIN
+               && points2 < POINTS_TO_WIN
+               || Math.abs(points1 - points2) < WINNING_MARGIN);
 
-        return (pointsDict.get(gamePlayer1) > pointsDict.get(gamePlayer2)) ? gamePlayer1 : gamePlayer2;
+        SimulationMetrics.GLOBAL.recordGame(points1 + points2);
+        return points1 > points2;
     }
 
     /**
@@ -61,19 +72,53 @@ public abstract class Game {
      * <p>
      * Use random number considering ELO to determine winner.
      *
-     * @return Point winner as {@link Player}
+     * @param player1WinChance Chance of player 1 winning the point.
+     *
+     * @return True if player 1 won the point.
      */
-    private Player playPoint() {
-        // Calculate weighting based on ELO difference
-        double eloDifference = gamePlayer1.getElo() - gamePlayer2.getElo();
-        double player1WinChance = getWinChance(eloDifference);
-
+    private boolean playPoint(double player1WinChance) {
         // Generate random value between 0 and 1
-        Random random = new Random();
-        double randomDouble = random.nextDouble();
+        double randomDouble = getRandom().nextDouble();
+
+        // Decide winner
+        return randomDouble <= player1WinChance;
+    }
 
-        // Decide winner and return player.Player obj
-        return (randomDouble <= player1WinChance) ? gamePlayer1 : gamePlayer2;
+    /**
+     * Getter for {@link Game#points1}.
+     *
+     * @return {@link Game#points1}
+     */
+    public int getPoints1() {
+        return points1;
+    }
+
+    /**
+     * Getter for {@link Game#points2}.
+     *
+     * @return {@link Game#points2}
+     */
+    public int getPoints2() {
+        return points2;
+    }
+
+    /**
+     * Gets the generator to draw random numbers from, falling back to the calling thread's
+     * {@link ThreadLocalRandom} when {@link Game#random} is not set.
+     *
+     * @return {@link RandomGenerator} object
+     */
+    protected RandomGenerator getRandom() {
+        return (random != null) ? random : ThreadLocalRandom.current();
+    }
+
+    /**
+     * Setter for {@link Game#random}.
+     *
+     * @param random {@link RandomGenerator} used to decide who wins each point.
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
     }
 
     /**
@@ -0,0 +1,72 @@
+package tournament;
+
+import components.StreamRandom;
+
+/**
+ * Plays whole matches point by point in batches, for rounds where only the final score of each
+ * match is needed and no {@link TournamentListener} is listening to individual games.
+ * <p>
+ * Every match draws its points from its own {@link StreamRandom} stream and follows the same
+ * rules as {@link Game#playGame(double)}, so a kernel gives exactly the scores {@link Match#playMatch()}
+ * would have. Point wins are decided by comparing the top 53 bits of each random number with a
+ * threshold from {@link GameKernel#getThreshold(double)}, which is the same test as
+ * {@code nextDouble() <= pointWinChance} without any floating point.
+ */
+public interface GameKernel {
+    /**
+     * Name of the class playing batches with the Vector API, which is only compiled and loaded
+     * when the {@code jdk.incubator.vector} module is available.
+     */
+    String VECTOR_KERNEL = "tournament.VectorGameKernel";
+    /**
+     * Fastest kernel available, created once by {@link GameKernel#create()}.
+     */
+    GameKernel FASTEST = create();
+
+    /**
+     * Plays a batch of matches.
+     *
+     * @param seeds Seed of each match's {@link StreamRandom} stream.
+     * @param thresholds Point win threshold of each match, from {@link GameKernel#getThreshold(double)}.
+     * @param games1 Filled in with the games won by player 1 of each match.
+     * @param games2 Filled in with the games won by player 2 of each match.
+     * @param count Number of matches to play, from the start of each array.
+     *
+     * @return Total points played in the batch.
+     */
+    long playMatches(long[] seeds, long[] thresholds, int[] games1, int[] games2, int count);
+
+    /**
+     * Converts the chance of player 1 winning a point into the largest 53 bit random value which
+     * still wins them the point.
+     * <p>
+     * A random double is its 53 bit random value multiplied by {@code 2^-53}, and multiplying the
+     * chance by {@code 2^53} is exact, so the comparison gives the same result either way.
+     *
+     * @param pointWinChance Chance of player 1 winning any single point, from
+     *                       {@link Game#getWinChance(double)}.
+     *
+     * @return Threshold to compare random values against.
+     */
+    static long getThreshold(double pointWinChance) {
+        return (long) Math.floor(pointWinChance * 0x1.0p53);
+    }
+
+    /**
+     * Creates the fastest kernel available, which is a {@link GameKernel#VECTOR_KERNEL} if the
+     * JVM was started with {@code --add-modules jdk.incubator.vector}, otherwise a
+     * {@link ScalarGameKernel}.
+     *
+     * @return {@link GameKernel} object
+     */
+    static GameKernel create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (GameKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Built without the vector sources, so fall back to scalar code
+            }
+        }
+        return new ScalarGameKernel();
+    }
+}
@@ -0,0 +1,464 @@
+package tournament;
+
+import components.StreamRandom;
+import player.PlayerStore;
+
+import java.util.Arrays;
+
+/**
+ * Live ranking of every player in a {@link PlayerStore}, ordered by wins, then Elo rating, then
+ * id, which is kept up to date from the events of a tournament rather than sorted on demand.
+ * <p>
+ * Players are held in a <a href="https://en.wikipedia.org/wiki/Treap">treap</a> stored in
+ * primitive arrays indexed by id, with each node counting the players below it. When a player
+ * wins or their Elo rating changes, their node is taken out and put back in at its new position,
+ * so the top {@code k} players, the rank of any player and the players on a given number of wins
+ * can be found at any point in the tournament in {@code O(log n)} time per player returned. The
+ * number of players on each number of wins is also counted directly.
+ * <p>
+ * A {@link Tournament} given an index with {@link Tournament#setLeaderboardIndex(LeaderboardIndex)}
+ * updates it itself after every match, however its rounds are played. Any other tournament can
+ * send the index its events instead, in which case it must receive every event of the tournament
+ * from the start (see {@link TournamentListener#combine}). Updates must come from one thread at a
+ * time.
+ */
+public class LeaderboardIndex implements TournamentListener {
+    /**
+     * Node id used for an empty subtree.
+     */
+    private static final int NIL = -1;
+    /**
+     * Seed the priority of each node is derived from.
+     */
+    private static final long PRIORITY_SEED = 0x4C45414445524258L;
+    /**
+     * Number of matches each player has won, indexed by id.
+     */
+    private final int[] wins;
+    /**
+     * Elo rating of each player, indexed by id.
+     */
+    private final int[] elo;
+    /**
+     * Sort key of each player, indexed by id: negated wins in the high 32 bits and Elo rating
+     * from highest to lowest in the low 32 bits. Lower keys rank higher.
+     */
+    private final long[] keys;
+    /**
+     * Left child of each node, indexed by id.
+     */
+    private final int[] left;
+    /**
+     * Right child of each node, indexed by id.
+     */
+    private final int[] right;
+    /**
+     * Number of nodes in the subtree of each node, including itself, indexed by id.
+     */
+    private final int[] sizes;
+    /**
+     * Heap priority of each node, indexed by id. Fixed per id, so the tree is the same for the
+     * same players and results.
+     */
+    private final int[] priorities;
+    /**
+     * Root node of the treap.
+     */
+    private int root = NIL;
+    /**
+     * Number of players on each number of wins.
+     */
+    private int[] winCounts = new int[16];
+    /**
+     * Left part of the last {@link LeaderboardIndex#split(int, int)}.
+     */
+    private int splitLeft;
+    /**
+     * Right part of the last {@link LeaderboardIndex#split(int, int)}.
+     */
+    private int splitRight;
+    /**
+     * Winner of the match waiting for its Elo changes, who is given their win with their new
+     * rating so they only move once.
+     */
+    private int pendingWinner = Match.NO_PLAYER;
+
+    /**
+     * Initialises a {@link LeaderboardIndex} with the current wins and Elo rating of every
+     * player in a {@link PlayerStore}.
+     *
+     * @param store {@link PlayerStore} of the players to rank.
+     */
+    public LeaderboardIndex(PlayerStore store) {
+        int playerCount = store.size();
+        wins = new int[playerCount];
+        elo = new int[playerCount];
+        keys = new long[playerCount];
+        left = new int[playerCount];
+        right = new int[playerCount];
+        sizes = new int[playerCount];
+        priorities = new int[playerCount];
+        for (int id = 0; id < playerCount; id++) {
+            wins[id] = store.getWins(id);
+            elo[id] = store.getElo(id);
+            priorities[id] = (int) StreamRandom.deriveSeed(PRIORITY_SEED, id);
+            countWins(wins[id], 1);
+            insert(id);
+        }
+    }
+
+    /**
+     * Gives bye winners their win straight away, and remembers the winner of a regular match
+     * until their Elo change arrives.
+     *
+     * @param round Round number of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2, or {@link Match#NO_PLAYER} for bye matches.
+     * @param winner id of the player who won the match.
+     * @param games1 Games won by player 1.
+     * @param games2 Games won by player 2.
+     */
+    @Override
+    public void matchFinished(int round, int matchNumber, int player1, int player2, int winner, int games1, int games2) {
+        if (player2 == Match.NO_PLAYER) {
+            update(winner, wins[winner] + 1, elo[winner]);
+        } else {
+            pendingWinner = winner;
+        }
+    }
+
+    /**
+     * Moves a player to their position for their new Elo rating, adding their win if they won
+     * the match.
+     *
+     * @param player id of the player.
+     * @param oldElo Elo rating before the match.
+     * @param newElo Elo rating after the match.
+     */
+    @Override
+    public void eloAdjusted(int player, int oldElo, int newElo) {
+        int newWins = wins[player];
+        if (player == pendingWinner) {
+            newWins++;
+            pendingWinner = Match.NO_PLAYER;
+        }
+        update(player, newWins, newElo);
+    }
+
+    /**
+     * Moves a player to their position for new wins and Elo rating. Nothing moves if neither has
+     * changed.
+     *
+     * @param player id of the player.
+     * @param newWins Number of matches won.
+     * @param newElo Elo rating.
+     */
+    public void update(int player, int newWins, int newElo) {
+        if (newWins == wins[player] && newElo == elo[player]) {
+            return;
+        }
+        root = remove(root, player);
+        countWins(wins[player], -1);
+        wins[player] = newWins;
+        elo[player] = newElo;
+        countWins(newWins, 1);
+        insert(player);
+    }
+
+    /**
+     * Changes the number of players on a number of wins, growing
+     * {@link LeaderboardIndex#winCounts} if needed.
+     *
+     * @param playerWins Number of wins.
+     * @param change Amount to add.
+     */
+    private void countWins(int playerWins, int change) {
+        if (playerWins >= winCounts.length) {
+            winCounts = Arrays.copyOf(winCounts, Math.max(2 * winCounts.length, playerWins + 1));
+        }
+        winCounts[playerWins] += change;
+    }
+
+    /**
+     * Works out a player's sort key from their current wins and Elo rating and adds their node.
+     *
+     * @param player id of the player.
+     */
+    private void insert(int player) {
+        // Subtracting from the largest int maps every Elo rating, highest first, onto 0 to 2^32 - 1
+        keys[player] = ((long) -wins[player] << 32) | ((long) Integer.MAX_VALUE - elo[player]);
+        left[player] = NIL;
+        right[player] = NIL;
+        sizes[player] = 1;
+        root = insert(root, player);
+    }
+
+    /**
+     * Adds a node to a subtree.
+     *
+     * @param node Root of the subtree.
+     * @param player Node to add.
+     *
+     * @return New root of the subtree.
+     */
+    private int insert(int node, int player) {
+        if (node == NIL) {
+            return player;
+        }
+        // The new node becomes the root here if it has the higher priority
+        if (priorities[player] > priorities[node]) {
+            split(node, player);
+            left[player] = splitLeft;
+            right[player] = splitRight;
+            resize(player);
+            return player;
+        }
+        if (ranksAbove(player, node)) {
+            left[node] = insert(left[node], player);
+        } else {
+            right[node] = insert(right[node], player);
+        }
+        resize(node);
+        return node;
+    }
+
+    /**
+     * Removes a node from a subtree.
+     *
+     * @param node Root of the subtree.
+     * @param player Node to remove.
+     *
+     * @return New root of the subtree.
+     */
+    private int remove(int node, int player) {
+        if (node == player) {
+            return merge(left[node], right[node]);
+        }
+        if (ranksAbove(player, node)) {
+            left[node] = remove(left[node], player);
+        } else {
+            right[node] = remove(right[node], player);
+        }
+        resize(node);
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the nodes ranked above a player, stored in
+     * {@link LeaderboardIndex#splitLeft}, and those ranked below, stored in
+     * {@link LeaderboardIndex#splitRight}.
+     *
+     * @param node Root of the subtree.
+     * @param player Node to split around, which is not in the subtree.
+     */
+    private void split(int node, int player) {
+        if (node == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (ranksAbove(node, player)) {
+            split(right[node], player);
+            right[node] = splitLeft;
+            resize(node);
+            splitLeft = node;
+        } else {
+            split(left[node], player);
+            left[node] = splitRight;
+            resize(node);
+            splitRight = node;
+        }
+    }
+
+    /**
+     * Joins two subtrees, where every node of the first ranks above every node of the second.
+     *
+     * @param first Root of the higher ranked subtree.
+     * @param second Root of the lower ranked subtree.
+     *
+     * @return Root of the joined subtree.
+     */
+    private int merge(int first, int second) {
+        if (first == NIL) {
+            return second;
+        }
+        if (second == NIL) {
+            return first;
+        }
+        if (priorities[first] > priorities[second]) {
+            right[first] = merge(right[first], second);
+            resize(first);
+            return first;
+        }
+        left[second] = merge(first, left[second]);
+        resize(second);
+        return second;
+    }
+
+    /**
+     * Recounts the nodes in a node's subtree from its children.
+     *
+     * @param node Node to recount.
+     */
+    private void resize(int node) {
+        sizes[node] = 1 + getSize(left[node]) + getSize(right[node]);
+    }
+
+    /**
+     * Gets the number of nodes in a subtree.
+     *
+     * @param node Root of the subtree.
+     *
+     * @return Number of nodes, 0 for an empty subtree.
+     */
+    private int getSize(int node) {
+        return (node == NIL) ? 0 : sizes[node];
+    }
+
+    /**
+     * Checks whether one player ranks above another.
+     *
+     * @param player1 id of a player.
+     * @param player2 id of the other player.
+     *
+     * @return True if {@code player1} ranks above {@code player2}.
+     */
+    private boolean ranksAbove(int player1, int player2) {
+        return keys[player1] < keys[player2] || (keys[player1] == keys[player2] && player1 < player2);
+    }
+
+    /**
+     * Gets a player's position in the ranking.
+     *
+     * @param player id of the player.
+     *
+     * @return Rank, starting at 1 for the first place player.
+     */
+    public int getRank(int player) {
+        int rank = 1;
+        int node = root;
+        while (node != player) {
+            if (ranksAbove(player, node)) {
+                node = left[node];
+            } else {
+                rank += getSize(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return rank + getSize(left[node]);
+    }
+
+    /**
+     * Gets the player at a position in the ranking.
+     *
+     * @param rank Position, starting at 1 for the first place player.
+     *
+     * @return id of the player.
+     *
+     * @throws IndexOutOfBoundsException Thrown when there is no player at that position.
+     */
+    public int getPlayerAt(int rank) {
+        if (rank < 1 || rank > getSize(root)) {
+            throw new IndexOutOfBoundsException("There is no player ranked " + rank + "!");
+        }
+        int index = rank - 1;
+        int node = root;
+        while (true) {
+            int leftSize = getSize(left[node]);
+            if (index < leftSize) {
+                node = left[node];
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * Gets the highest ranked players.
+     *
+     * @param k Number of players to get.
+     *
+     * @return Array of at most {@code k} player ids, the first element being the first place player.
+     */
+    public int[] getTop(int k) {
+        return getRange(1, Math.min(k, getSize(root)));
+    }
+
+    /**
+     * Gets every player who has won a number of matches, in rank order.
+     *
+     * @param matchWins Number of wins.
+     *
+     * @return Array of player ids
+     */
+    public int[] getPlayersWithWins(int matchWins) {
+        int count = getPlayerCountWithWins(matchWins);
+        if (count == 0) {
+            return new int[0];
+        }
+        // Players with more wins all rank above, so the group starts right after them
+        long firstKey = (long) -matchWins << 32;
+        int above = 0;
+        int node = root;
+        while (node != NIL) {
+            if (keys[node] < firstKey) {
+                above += getSize(left[node]) + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return getRange(above + 1, count);
+    }
+
+    /**
+     * Gets the number of players who have won a number of matches.
+     *
+     * @param matchWins Number of wins.
+     *
+     * @return integer number of players.
+     */
+    public int getPlayerCountWithWins(int matchWins) {
+        return (matchWins >= 0 && matchWins < winCounts.length) ? winCounts[matchWins] : 0;
+    }
+
+    /**
+     * Gets consecutive players in the ranking.
+     *
+     * @param firstRank Position of the first player, starting at 1.
+     * @param count Number of players to get.
+     *
+     * @return Array of player ids
+     */
+    private int[] getRange(int firstRank, int count) {
+        int[] players = new int[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = getPlayerAt(firstRank + i);
+        }
+        return players;
+    }
+
+    /**
+     * Gets the number of matches a player has won, as seen by the index.
+     *
+     * @param player id of the player.
+     *
+     * @return Number of wins
+     */
+    public int getWins(int player) {
+        return wins[player];
+    }
+
+    /**
+     * Gets a player's Elo rating, as seen by the index.
+     *
+     * @param player id of the player.
+     *
+     * @return Elo rating
+     */
+    public int getElo(int player) {
+        return elo[player];
+    }
+}
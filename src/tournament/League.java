@@ -0,0 +1,353 @@
+package tournament;
+
+import components.StreamRandom;
+import player.PlayerStore;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Defines a <a href="https://en.wikipedia.org/wiki/Round-robin_tournament">round-robin</a> league,
+ * where every player plays every other player exactly once.
+ * <p>
+ * Fixtures follow the circle method: one slot stays fixed while the others rotate by one place
+ * each round, so every round pairs each player once and {@code n - 1} rounds cover every pair.
+ * With an odd number of players an empty slot is added, and whoever is drawn against it rests
+ * that round. Fixtures are worked out from their round and position when they are played, so
+ * nothing proportional to the {@code n(n - 1)/2} fixtures is ever stored.
+ * <p>
+ * The fixtures of a round never share a player, so a round is split into blocks which are played
+ * in parallel, each reusing one {@link Match} and one {@link StreamRandom}. Every fixture draws
+ * its random numbers from a stream derived from its round and match number, so results are the
+ * same however the blocks are scheduled. The league table is kept in primitive arrays indexed by
+ * player id.
+ * <p>
+ * Source: <a href="https://en.wikipedia.org/wiki/Round-robin_tournament#Circle_method">Circle method</a>
+ */
+public class League {
+    /**
+     * Most players a league can have, so the standings can be sorted as packed {@code long}s.
+     */
+    public static final int MAX_PLAYERS = 1 << 20;
+    /**
+     * Number of fixtures played by each parallel task.
+     */
+    private static final int BLOCK_SIZE = 256;
+    /**
+     * {@link PlayerStore} the players of the league are stored in.
+     */
+    private final PlayerStore store;
+    /**
+     * Number of players in the league.
+     */
+    private final int playerCount;
+    /**
+     * Number of slots in the circle, which is {@link League#playerCount} rounded up to an even
+     * number. The last slot is the one which stays fixed.
+     */
+    private final int slots;
+    /**
+     * Number of rounds which have been played.
+     */
+    private int roundsPlayed = 0;
+    /**
+     * Matches won by each player, indexed by id.
+     */
+    private final int[] won;
+    /**
+     * Games won by each player, indexed by id.
+     */
+    private final int[] gamesWon;
+    /**
+     * Games lost by each player, indexed by id.
+     */
+    private final int[] gamesLost;
+    /**
+     * Whether rounds are split into blocks played in parallel. Only used while
+     * {@link League#listener} is {@link TournamentListener#SILENT}, so events are always sent in
+     * order.
+     */
+    private boolean parallel = true;
+    /**
+     * {@link TournamentListener} every event of this league is sent to.
+     */
+    private TournamentListener listener = TournamentListener.SILENT;
+    /**
+     * {@link SimulationMode} every {@link Match} of this league is played with.
+     */
+    private SimulationMode simulationMode = SimulationMode.POINT_BY_POINT;
+    /**
+     * Master seed of the league. Every {@link Match} plays with its own stream of random numbers
+     * derived from this seed, its round and its match number.
+     */
+    private final long seed;
+
+    /**
+     * Initialises a {@link League} with every player in a {@link PlayerStore}.
+     *
+     * @param store {@link PlayerStore} of the players entered into the league.
+     * @param seed Master seed of the league.
+     *
+     * @throws IllegalArgumentException Thrown when there are too few or too many players.
+     */
+    public League(PlayerStore store, long seed) {
+        if (store.size() < 2 || store.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A league must have between 2 and " + MAX_PLAYERS + " players!");
+        }
+        this.store = store;
+        this.seed = seed;
+        playerCount = store.size();
+        slots = playerCount + (playerCount % 2);
+        won = new int[playerCount];
+        gamesWon = new int[playerCount];
+        gamesLost = new int[playerCount];
+    }
+
+    /**
+     * Plays every remaining round.
+     */
+    public void play() {
+        while (roundsPlayed < getNumberOfRounds()) {
+            playRound();
+        }
+    }
+
+    /**
+     * Plays the next round.
+     */
+    public void playRound() {
+        if (roundsPlayed == getNumberOfRounds()) {
+            System.out.printf("There are only %d rounds in the league!%n", getNumberOfRounds());
+            return;
+        }
+        int round = roundsPlayed;
+        int fixtures = slots / 2;
+        listener.roundStarted(round, getMatchesPerRound());
+
+        long roundSeed = StreamRandom.deriveSeed(seed, round);
+        if (parallel && listener == TournamentListener.SILENT && fixtures > BLOCK_SIZE) {
+            int blocks = (fixtures + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            IntStream.range(0, blocks)
+                    .parallel()
+                    .forEach(block -> playFixtures(round, roundSeed, block * BLOCK_SIZE, Math.min(fixtures, (block + 1) * BLOCK_SIZE)));
+        } else {
+            playFixtures(round, roundSeed, 0, fixtures);
+        }
+        roundsPlayed++;
+        listener.roundFinished(round, playerCount);
+    }
+
+    /**
+     * Plays part of a round's fixtures with one reused {@link Match}, adding the results to the
+     * league table.
+     *
+     * @param round Round being played (starting at 0).
+     * @param roundSeed Seed of the round, derived from {@link League#seed}.
+     * @param from First fixture to play.
+     * @param to Fixture to stop at (exclusive).
+     */
+    private void playFixtures(int round, long roundSeed, int from, int to) {
+        StreamRandom random = new StreamRandom(0);
+        Match match = new Match(store);
+        match.setRandom(random);
+        match.setRound(round);
+        match.setListener(listener);
+        match.setSimulationMode(simulationMode);
+        // With an odd number of players the fixed slot is empty, so fixture 0 is a rest
+        int firstMatch = slots - playerCount;
+        for (int fixture = Math.max(from, firstMatch); fixture < to; fixture++) {
+            int player1 = getPlayer1(round, fixture);
+            int player2 = getPlayer2(round, fixture);
+            int matchNumber = fixture - firstMatch;
+            random.reseed(StreamRandom.deriveSeed(roundSeed, matchNumber));
+            match.setPlayers(player1, player2);
+            match.setMatchNumber(matchNumber);
+            match.playMatch();
+            won[match.getWinner()]++;
+            gamesWon[player1] += match.getGames1();
+            gamesLost[player1] += match.getGames2();
+            gamesWon[player2] += match.getGames2();
+            gamesLost[player2] += match.getGames1();
+        }
+    }
+
+    /**
+     * Gets the slot playing as player 1 in a fixture, which is a player's id unless it is the
+     * empty slot.
+     *
+     * @param round Round of the fixture (starting at 0).
+     * @param fixture Number of the fixture within its round.
+     *
+     * @return Slot number
+     */
+    private int getPlayer1(int round, int fixture) {
+        return (fixture == 0) ? slots - 1 : (round + fixture) % (slots - 1);
+    }
+
+    /**
+     * Gets the slot playing as player 2 in a fixture.
+     *
+     * @param round Round of the fixture (starting at 0).
+     * @param fixture Number of the fixture within its round.
+     *
+     * @return Slot number
+     */
+    private int getPlayer2(int round, int fixture) {
+        return (round - fixture + slots - 1) % (slots - 1);
+    }
+
+    /**
+     * Creates the league table, ordered by matches won, then game difference, then id.
+     * <p>
+     * Each player is packed into a single {@code long} of their wins and game difference followed
+     * by their id, so a primitive sort puts them in order.
+     *
+     * @return Sorted array of player ids, the first element being the current first place player.
+     */
+    public int[] getStandings() {
+        // Wins and ids fit in 20 bits, and game differences (at most 4 a match) in 23 bits
+        int maxWins = MAX_PLAYERS - 1;
+        int maxDifference = (1 << 22) - 1;
+        long[] keys = new long[playerCount];
+        for (int id = 0; id < playerCount; id++) {
+            keys[id] = ((long) (maxWins - won[id]) << 43)
+                    | ((long) (maxDifference - (gamesWon[id] - gamesLost[id])) << 20)
+                    | id;
+        }
+        Arrays.sort(keys);
+        int[] standings = new int[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            standings[i] = (int) (keys[i] & (MAX_PLAYERS - 1));
+        }
+        return standings;
+    }
+
+    /**
+     * Gets the number of matches a player has played. With an odd number of players, player
+     * {@code r} rests in round {@code r}.
+     *
+     * @param player id of the player.
+     *
+     * @return Number of matches played
+     */
+    public int getPlayed(int player) {
+        boolean rested = slots > playerCount && player < roundsPlayed;
+        return roundsPlayed - (rested ? 1 : 0);
+    }
+
+    /**
+     * Gets the number of matches a player has won.
+     *
+     * @param player id of the player.
+     *
+     * @return Number of wins
+     */
+    public int getWon(int player) {
+        return won[player];
+    }
+
+    /**
+     * Gets the number of matches a player has lost.
+     *
+     * @param player id of the player.
+     *
+     * @return Number of losses
+     */
+    public int getLost(int player) {
+        return getPlayed(player) - won[player];
+    }
+
+    /**
+     * Gets the number of games a player has won.
+     *
+     * @param player id of the player.
+     *
+     * @return Number of games won
+     */
+    public int getGamesWon(int player) {
+        return gamesWon[player];
+    }
+
+    /**
+     * Gets the number of games a player has lost.
+     *
+     * @param player id of the player.
+     *
+     * @return Number of games lost
+     */
+    public int getGamesLost(int player) {
+        return gamesLost[player];
+    }
+
+    /**
+     * Gets the number of rounds in the league, so every player plays every other player once.
+     *
+     * @return integer number of rounds.
+     */
+    public int getNumberOfRounds() {
+        return slots - 1;
+    }
+
+    /**
+     * Gets the number of matches played in each round, not counting a player resting.
+     *
+     * @return integer number of matches.
+     */
+    public int getMatchesPerRound() {
+        return playerCount / 2;
+    }
+
+    /**
+     * Getter for {@link League#roundsPlayed}.
+     *
+     * @return {@link League#roundsPlayed}
+     */
+    public int getRoundsPlayed() {
+        return roundsPlayed;
+    }
+
+    /**
+     * Setter for {@link League#parallel}.
+     *
+     * @param parallel Boolean to set {@link League#parallel} to.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Setter for {@link League#listener}.
+     *
+     * @param listener {@link TournamentListener} to set {@link League#listener} to.
+     */
+    public void setListener(TournamentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Setter for {@link League#simulationMode}.
+     *
+     * @param simulationMode {@link SimulationMode} to set {@link League#simulationMode} to.
+     */
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * Getter for {@link League#seed}.
+     *
+     * @return {@link League#seed}
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter for {@link League#store}.
+     *
+     * @return {@link League#store}
+     */
+    public PlayerStore getPlayerStore() {
+        return store;
+    }
+}
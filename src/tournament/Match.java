@@ -1,52 +1,86 @@
 package tournament;
 
-import player.Player;
-
-import java.util.HashMap;
+import player.PlayerStore;
 
 /**
  * Defines a match of table tennis, which is the best of 7 games.
+ * <p>
+ * Players are referred to by their id in a {@link PlayerStore}, which is updated with the
+ * result once the match has been played.
  *
  * @see tournament.Game
  */
 public class Match extends Game {
     /**
-     * Using a hashmap rather than storing wins in the {@link Player} object enforces
-     * single responsibility and
-     * <a href="https://alvinalexander.com/java/java-law-of-demeter-java-examples/">LoD</a>
-     * by not relying on calling a {@code Match.getWinner().getGameWins()} in classes that
-     * create {@link Match} objects for example.
+     * Max games to be played, in this case it is best of 7.
+     */
+    public static final int MAX_GAMES = 7;
+    /**
+     * Player id used for an empty player slot, such as the missing player of a bye match.
      */
-    private final HashMap<Player, Integer> gamesDict = new HashMap<>();
+    public static final int NO_PLAYER = -1;
+    /**
+     * {@link PlayerStore} the players of this match are stored in.
+     */
+    private final PlayerStore store;
+    /**
+     * Games won by {@link Match#matchPlayer1}. Keeping game wins in the match rather than in the
+     * {@link PlayerStore} enforces single responsibility, as only the match needs them.
+     */
+    private int games1;
+    /**
+     * Games won by {@link Match#matchPlayer2}.
+     */
+    private int games2;
     /**
      * Player 1 of 2 players - there may not always be a {@code matchPlayer1} on object initialisation.
      */
-    private Player matchPlayer1;
+    private int matchPlayer1;
     /**
      * Player 1 of 2 players - there may not always be a {@code matchPlayer2} in cases of bye matches.
      */
-    private Player matchPlayer2;
+    private int matchPlayer2;
     /**
      * Used to differentiate {@link Match} objects between tournament rounds.
      */
     private int matchNumber;
+    /**
+     * Round of the tournament the match is played in (starting at 0), passed on to
+     * {@link Match#listener}.
+     */
+    private int round = 0;
     /**
      * Status of whether {@link Match} is in progress or finished/not started.
      */
     private boolean onGoing = false;
+    /**
+     * {@link TournamentListener} game scores, match results and Elo changes are sent to.
+     */
+    private TournamentListener listener = TournamentListener.SILENT;
+    /**
+     * Whether games are played point by point or drawn from a precalculated {@link ScoreDistribution}.
+     */
+    private SimulationMode simulationMode = SimulationMode.POINT_BY_POINT;
+    /**
+     * Whether Elo ratings are left unchanged by the match, so every match is played at the
+     * players' entry ratings.
+     */
+    private boolean fixedElo = false;
 
     /**
-     * {@link Player} who won the match.
+     * id of the player who won the match.
      */
-    private Player winner = null;
+    private int winner = NO_PLAYER;
 
     /**
      * Initialises a {@link Match} with two players.
      *
+     * @param store {@link PlayerStore} the players are stored in.
      * @param matchPlayer1 Player 1 of 2 players in the match
      * @param matchPlayer2 Player 2 of 2 players in the match
      */
-    public Match(Player matchPlayer1, Player matchPlayer2) {
+    public Match(PlayerStore store, int matchPlayer1, int matchPlayer2) {
+        this.store = store;
         this.matchPlayer1 = matchPlayer1;
         this.matchPlayer2 = matchPlayer2;
     }
@@ -56,59 +90,63 @@ public class Match extends Game {
      * <p>
      * Used for bye matches.
      *
-     * @param matchPlayer Binds to {@link Match#matchPlayer1}, {@link Match#matchPlayer2} is null.
+     * @param store {@link PlayerStore} the player is stored in.
+     * @param matchPlayer Binds to {@link Match#matchPlayer1}, {@link Match#matchPlayer2} is empty.
      */
-    public Match(Player matchPlayer) {
-        this.matchPlayer1 = matchPlayer;
-        this.matchPlayer2 = null;
+    public Match(PlayerStore store, int matchPlayer) {
+        this(store, matchPlayer, NO_PLAYER);
     }
 
     /**
      * Initialises a {@link Match} with no players.
      * <p>
-     * Used when you don't know what {@link Player} objects will be playing in the match.
+     * Used when you don't know what players will be playing in the match.
+     *
+     * @param store {@link PlayerStore} the players will be stored in.
      */
-    public Match() {
-        this.matchPlayer1 = null;
-        this.matchPlayer2 = null;
+    public Match(PlayerStore store) {
+        this(store, NO_PLAYER, NO_PLAYER);
     }
 
     /**
-     * Used to update a {@link Player} object without breaking
+     * Used to update a player without breaking
      * <a href="https://alvinalexander.com/java/java-law-of-demeter-java-examples/">LoD</a>.
      * <p>
-     * Calls {@link Player#addWin()} if {@code wonMatch} is true and adjusts Elo.
+     * Calls {@link PlayerStore#addWin(int)} if {@code wonMatch} is true and adjusts Elo unless
+     * {@link Match#fixedElo} is set, sending the change (if any) to {@link Match#listener}.
      *
-     * @param player {@link Player} object that needs updating.
+     * @param player id of the player that needs updating.
      * @param wonMatch Boolean whether that player won the match.
      * @param expectedGameWins How many games they were expected to win.
      * @param gameWins How many games they actually won.
      */
-    private void updatePlayer(Player player, boolean wonMatch, int expectedGameWins, int gameWins) {
+    private void updatePlayer(int player, boolean wonMatch, int expectedGameWins, int gameWins) {
         if (wonMatch) {
-            player.addWin();
+            store.addWin(player);
         }
-        player.adjustElo(expectedGameWins, gameWins);
+        int oldElo = store.getElo(player);
+        int newElo = fixedElo ? oldElo : store.adjustElo(player, expectedGameWins, gameWins);
+        listener.eloAdjusted(player, oldElo, newElo);
     }
 
     /**
-     * Adds a {@link Player} to the match.
+     * Adds a player to the match.
      * <p>
      * If no players are in the match then the {@code matchPlayer} is bound to {@link Match#matchPlayer1}.
      * <p>
      * If {@link Match#matchPlayer1} is set, {@code matchPlayer} is bound to {@link Match#matchPlayer2} instead.
      *
-     * @param matchPlayer {@link Player} to be added.
+     * @param matchPlayer id of the player to be added.
      *
      * @throws IndexOutOfBoundsException Thrown when {@code addPlayer()} is called when there are
      * already 2 players in the match.
      */
-    public void addPlayer(Player matchPlayer) {
+    public void addPlayer(int matchPlayer) {
         // Adding first player
-        if (matchPlayer1 == null) {
+        if (matchPlayer1 == NO_PLAYER) {
             matchPlayer1 = matchPlayer;
         // Adding second player
-        } else if (matchPlayer2 == null) {
+        } else if (matchPlayer2 == NO_PLAYER) {
             matchPlayer2 = matchPlayer;
         // Handling in case of third addPlayer call per object
         } else {
@@ -116,58 +154,114 @@ public class Match extends Game {
         }
     }
 
+    /**
+     * Sets both players of the match so the same {@link Match} object can be played again,
+     * clearing the result of the last time it was played.
+     *
+     * @param matchPlayer1 id of player 1.
+     * @param matchPlayer2 id of player 2, or {@link Match#NO_PLAYER} for a bye match.
+     */
+    public void setPlayers(int matchPlayer1, int matchPlayer2) {
+        this.matchPlayer1 = matchPlayer1;
+        this.matchPlayer2 = matchPlayer2;
+        games1 = 0;
+        games2 = 0;
+        winner = NO_PLAYER;
+    }
+
     /**
      * Simulates playing a {@link Match}.
      *
-     * @return {@link Player} object of the player who lost the match.
+     * @return id of the player who lost the match, or {@link Match#NO_PLAYER} for bye matches.
      */
-    public Player playMatch() {
+    public int playMatch() {
         // Prevent playMatch from running with zero players
-        if (matchPlayer1 == null) {
+        if (matchPlayer1 == NO_PLAYER) {
             System.out.println("Cannot play a Match with no players. Use Match.addPlayer() first!");
-            return null;
+            return NO_PLAYER;
         }
+        listener.matchStarted(round, matchNumber, matchPlayer1, matchPlayer2);
         // Catch bye case
-        if (matchPlayer2 == null) {
+        if (matchPlayer2 == NO_PLAYER) {
             // When a match contains a bye, the player immediately moves on to the next round
-            System.out.printf("[TOURNEY] %s %s gets a bye and moves on to the next round%n",
-                    matchPlayer1.getFirstName(),
-                    matchPlayer1.getLastName());
             setWinner(matchPlayer1);
-            matchPlayer1.addWin();
-            return null;
+            listener.matchFinished(round, matchNumber, matchPlayer1, NO_PLAYER, matchPlayer1, 0, 0);
+            store.addWin(matchPlayer1);
+            return NO_PLAYER;
         }
         // Set each players' game wins to 0
-        gamesDict.put(matchPlayer1, 0);
-        gamesDict.put(matchPlayer2, 0);
+        games1 = 0;
+        games2 = 0;
 
-        // Max games to be played, in this case it is best of 7
-        int maxGames = 7;
-        int winsNeeded = (maxGames + 1) / 2;
+        int winsNeeded = ScoreDistribution.GAMES_TO_WIN;
 
         // Calculate expected wins so Elo can be adjusted after each match
-        double eloDifference = matchPlayer1.getElo() - matchPlayer2.getElo();
-        int player1ExpectedWins = (int) Math.round(getWinChance(eloDifference) * winsNeeded);
+        ScoreDistribution distribution = ScoreDistribution.forEloDifference(store.getElo(matchPlayer1) - store.getElo(matchPlayer2));
+        int player1ExpectedWins = distribution.getExpectedWins();
 
+        // When sampling, the winner of every game is drawn up front
+        int sequence = 0;
+        if (simulationMode == SimulationMode.SAMPLED) {
+            sequence = distribution.sampleMatch(getRandom());
+        }
+        int gamesPlayed = 0;
         do {
             // Play a game
-            Player gameWinner = playGame(matchPlayer1, matchPlayer2);
+            boolean player1WonGame;
+            if (simulationMode == SimulationMode.SAMPLED) {
+                player1WonGame = ScoreDistribution.isWonByPlayer1(sequence, gamesPlayed);
+                // The game's score is drawn after every winner, so it cannot change the result
+                int loserPoints = distribution.sampleLoserPoints(player1WonGame, getRandom());
+                SimulationMetrics.GLOBAL.recordGame(ScoreDistribution.getWinnerPoints(loserPoints) + loserPoints);
+            } else {
+                player1WonGame = playGame(distribution.getPointWinChance());
+            }
+            gamesPlayed++;
             // Update the game winner's game wins
-            Integer winnerPoints = gamesDict.get(gameWinner);
-            gamesDict.put(gameWinner, winnerPoints + 1);
-            System.out.printf("[GAME] %s vs %s: %d-%d%n",
-                    matchPlayer1.getLastName(),
-                    matchPlayer2.getLastName(),
-                    gamesDict.get(matchPlayer1),
-                    gamesDict.get(matchPlayer2));
+            if (player1WonGame) {
+                games1++;
+            } else {
+                games2++;
+            }
+            listener.gameFinished(round, matchNumber, matchPlayer1, matchPlayer2, games1, games2);
         }
         // Repeat until one player reaches the required game wins to win the match
-        while (gamesDict.get(matchPlayer1) < winsNeeded &&
-               gamesDict.get(matchPlayer2) < winsNeeded);
+        while (games1 < winsNeeded && games2 < winsNeeded);
+
+        return finishMatch(player1ExpectedWins);
+    }
+
+    /**
+     * Finishes a match whose games were played elsewhere, such as by a {@link GameKernel}, updating
+     * the players the same way as {@link Match#playMatch()}. No events are sent for the games.
+     *
+     * @param games1 Games won by player 1.
+     * @param games2 Games won by player 2.
+     *
+     * @return id of the player who lost the match.
+     */
+    public int recordScore(int games1, int games2) {
+        listener.matchStarted(round, matchNumber, matchPlayer1, matchPlayer2);
+        this.games1 = games1;
+        this.games2 = games2;
+        ScoreDistribution distribution = ScoreDistribution.forEloDifference(store.getElo(matchPlayer1) - store.getElo(matchPlayer2));
+        return finishMatch(distribution.getExpectedWins());
+    }
+
+    /**
+     * Decides the winner from the games won, then sends the result to {@link Match#listener} and
+     * updates both players.
+     *
+     * @param player1ExpectedWins How many games player 1 was expected to win.
+     *
+     * @return id of the player who lost the match.
+     */
+    private int finishMatch(int player1ExpectedWins) {
+        int winsNeeded = ScoreDistribution.GAMES_TO_WIN;
 
-        // Handle updating Match and Player properties according to who won and lost the match
-        Player loser;
-        if ((gamesDict.get(matchPlayer1) > gamesDict.get(matchPlayer2))) {
+        // Handle updating Match and player properties according to who won and lost the match
+        int loser;
+        if (games1 > games2) {
             setWinner(matchPlayer1);
             loser = matchPlayer2;
         } else {
@@ -175,13 +269,10 @@ public class Match extends Game {
             loser = matchPlayer1;
         }
 
-        System.out.printf("[GAME] %s vs %s: %s %s won!%n",
-                matchPlayer1.getLastName(),
-                matchPlayer2.getLastName(),
-                winner.getFirstName(),
-                winner.getLastName());
-        updatePlayer(matchPlayer1, (matchPlayer2 == loser), player1ExpectedWins, gamesDict.get(matchPlayer1));
-        updatePlayer(matchPlayer2, (matchPlayer1 == loser), winsNeeded-player1ExpectedWins, gamesDict.get(matchPlayer2));
+        SimulationMetrics.GLOBAL.recordMatch(games1 + games2);
+        listener.matchFinished(round, matchNumber, matchPlayer1, matchPlayer2, winner, games1, games2);
+        updatePlayer(matchPlayer1, (matchPlayer2 == loser), player1ExpectedWins, games1);
+        updatePlayer(matchPlayer2, (matchPlayer1 == loser), winsNeeded-player1ExpectedWins, games2);
         setOnGoing(false);
         return loser;
     }
@@ -191,21 +282,39 @@ public class Match extends Game {
      * <p>
      * The length of the array will be how many players are in the match.
      *
-     * @return Array of {@link Player} objects
+     * @return Array of player ids
      */
-    public Player[] getPlayers() {
+    public int[] getPlayers() {
         // Two players in the match
-        if (matchPlayer2 != null) {
-            return new Player[]{matchPlayer1, matchPlayer2};
+        if (matchPlayer2 != NO_PLAYER) {
+            return new int[]{matchPlayer1, matchPlayer2};
         // One player in the match
-        } else if (matchPlayer1 != null) {
-            return new Player[]{matchPlayer1};
+        } else if (matchPlayer1 != NO_PLAYER) {
+            return new int[]{matchPlayer1};
         // No players in the match (returns empty array)
         } else {
-            return new Player[0];
+            return new int[0];
         }
     }
 
+    /**
+     * Getter for {@link Match#games1}.
+     *
+     * @return {@link Match#games1}
+     */
+    public int getGames1() {
+        return games1;
+    }
+
+    /**
+     * Getter for {@link Match#games2}.
+     *
+     * @return {@link Match#games2}
+     */
+    public int getGames2() {
+        return games2;
+    }
+
     /**
      * Getter for {@link Match#matchNumber}.
      *
@@ -224,6 +333,24 @@ public class Match extends Game {
         matchNumber = number;
     }
 
+    /**
+     * Getter for {@link Match#round}.
+     *
+     * @return {@link Match#round}
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Setter for {@link Match#round}.
+     *
+     * @param round Integer to set {@link Match#round} to.
+     */
+    public void setRound(int round) {
+        this.round = round;
+    }
+
     /**
      * Getter for {@link Match#onGoing}.
      *
@@ -242,24 +369,65 @@ public class Match extends Game {
         this.onGoing = onGoing;
     }
 
+    /**
+     * Setter for {@link Match#listener}.
+     *
+     * @param listener {@link TournamentListener} to set {@link Match#listener} to.
+     */
+    public void setListener(TournamentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Setter for {@link Match#simulationMode}.
+     *
+     * @param simulationMode {@link SimulationMode} to set {@link Match#simulationMode} to.
+     */
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * Setter for {@link Match#fixedElo}.
+     *
+     * @param fixedElo True to leave Elo ratings unchanged by the match.
+     */
+    public void setFixedElo(boolean fixedElo) {
+        this.fixedElo = fixedElo;
+    }
+
     /**
      * Getter for {@link Match#winner}.
      *
      * @return {@link Match#winner}
      */
-    public Player getWinner() {
+    public int getWinner() {
         return winner;
     }
 
     /**
      * Setter for {@link Match#winner}.
      *
-     * @param winner {@link Player} object to set {@link Match#winner} to.
+     * @param winner id of the player to set {@link Match#winner} to.
      */
-    public void setWinner(Player winner) {
+    public void setWinner(int winner) {
         this.winner = winner;
     }
 
+    /**
+     * Formats a player of the match for {@link Match#toString()}.
+     *
+     * @param player id of the player.
+     *
+     * @return Readable {@code String} showing details about the player
+     */
+    private String playerToString(int player) {
+        return String.format("Player(firstName: %s, lastName: %s, elo: %d)",
+                store.getFirstName(player),
+                store.getLastName(player),
+                store.getElo(player));
+    }
+
     /**
      * {@code toString()} override for {@link Match}.
      *
@@ -267,35 +435,24 @@ public class Match extends Game {
      */
     public String toString() {
         String output;
-        if (matchPlayer2 != null) {
-            output = String.format("Match(Player(firstName: %s, lastName: %s, elo: %d), Player(firstName: %s, lastName: %s, elo: %d)",
-                    matchPlayer1.getFirstName(),
-                    matchPlayer1.getLastName(),
-                    matchPlayer1.getElo(),
-                    matchPlayer2.getFirstName(),
-                    matchPlayer2.getLastName(),
-                    matchPlayer2.getElo());
-            if (getWinner() == null) {
+        if (matchPlayer2 != NO_PLAYER) {
+            output = String.format("Match(%s, %s", playerToString(matchPlayer1), playerToString(matchPlayer2));
+            if (getWinner() == NO_PLAYER) {
                 output += String.format(", matchNumber: %d, onGoing: %b, winner: null)",
                         matchNumber,
                         isOnGoing());
             } else {
-                output += String.format(", matchNumber: %d, onGoing: %b, winner: Player(firstName: %s, lastName: %s, elo: %d))",
+                output += String.format(", matchNumber: %d, onGoing: %b, winner: %s)",
                         matchNumber,
                         isOnGoing(),
-                        getWinner().getFirstName(),
-                        getWinner().getLastName(),
-                        getWinner().getElo());
+                        playerToString(getWinner()));
             }
         } else {
-            output = String.format("Match(Player(firstName: %s, lastName: %s, elo: %d), Bye",
-                    matchPlayer1.getFirstName(),
-                    matchPlayer1.getLastName(),
-                    matchPlayer1.getElo());
+            output = String.format("Match(%s, Bye", playerToString(matchPlayer1));
             output += String.format(", matchNumber: %d, onGoing: %b, winner: null)",
                     matchNumber,
                     isOnGoing());
         }
         return output;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,245 @@
+package tournament;
+
+import player.PlayerStore;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a match log written by {@link MatchLogWriter} and rebuilds the {@link Tournament} it
+ * recorded, without simulating any matches.
+ * <p>
+ * Records are read from a {@link FileChannel} in large blocks.
+ */
+public class MatchLogReader implements Closeable {
+    /**
+     * Number of records read from the file in one go.
+     */
+    private static final int BUFFERED_RECORDS = 4096;
+    /**
+     * {@link FileChannel} of the log file.
+     */
+    private final FileChannel channel;
+    /**
+     * Records read from {@link MatchLogReader#channel} which have not been returned yet.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFERED_RECORDS * MatchLogWriter.RECORD_SIZE);
+    /**
+     * Number of players in the tournament, read from the header.
+     */
+    private final int playerCount;
+    /**
+     * Master seed of the tournament, read from the header.
+     */
+    private final long seed;
+
+    /**
+     * Opens a match log and reads its header.
+     *
+     * @param path Path of the log file.
+     *
+     * @throws IOException Thrown when the file cannot be read or is not a match log.
+     */
+    public MatchLogReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            buffer.limit(MatchLogWriter.HEADER_SIZE);
+            fill(MatchLogWriter.HEADER_SIZE);
+            if (buffer.getInt() != MatchLogWriter.MAGIC) {
+                throw new IOException(path + " is not a match log!");
+            }
+            int version = buffer.getInt();
+            if (version != MatchLogWriter.VERSION) {
+                throw new IOException("Unsupported match log version " + version + "!");
+            }
+            playerCount = buffer.getInt();
+            seed = buffer.getLong();
+            // Start with nothing buffered so the first record is read from the file
+            buffer.clear().limit(0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rebuilds a tournament from a match log in one go.
+     *
+     * @param path Path of the log file.
+     * @param store {@link PlayerStore} of the players as they were before the tournament, which
+     *              is updated with every recorded result.
+     *
+     * @return {@link Tournament} object in the state it was in after the last recorded match.
+     *
+     * @throws IOException Thrown when the file cannot be read or is not a match log.
+     */
+    public static Tournament replay(Path path, PlayerStore store) throws IOException {
+        try (MatchLogReader reader = new MatchLogReader(path)) {
+            return reader.replay(store);
+        }
+    }
+
+    /**
+     * Rebuilds the tournament by applying every remaining record to a new {@link Tournament}.
+     * <p>
+     * The first round is drawn the same way as the original tournament, then each record moves
+     * its winner on, knocks out its loser and sets both players' Elo ratings.
+     *
+     * @param store {@link PlayerStore} of the players as they were before the tournament, which
+     *              is updated with every recorded result.
+     *
+     * @return {@link Tournament} object in the state it was in after the last recorded match.
+     *
+     * @throws IOException Thrown when the file cannot be read or does not match the players or
+     *                     their bracket.
+     */
+    public Tournament replay(PlayerStore store) throws IOException {
+        if (store.size() != playerCount) {
+            throw new IOException("Match log has " + playerCount + " players but the store has " + store.size() + "!");
+        }
+        Tournament tournament = new Tournament(store, seed);
+        tournament.assignMatches(tournament.getNeededByes());
+        int round = 0;
+        while (next()) {
+            int recordRound = buffer.getInt();
+            int matchNumber = buffer.getInt();
+            int player1 = buffer.getInt();
+            int player2 = buffer.getInt();
+            int games1 = buffer.get();
+            int games2 = buffer.get();
+            buffer.getInt();
+            int eloAfter1 = buffer.getInt();
+            buffer.getInt();
+            int eloAfter2 = buffer.getInt();
+
+            // Records are in the order they were played, so move on a round when one starts
+            while (round < recordRound) {
+                tournament.assignMatches();
+                round++;
+            }
+            try {
+                if (player2 == Match.NO_PLAYER) {
+                    tournament.replayMatch(round, matchNumber, player1, Match.NO_PLAYER);
+                } else if (games1 > games2) {
+                    tournament.replayMatch(round, matchNumber, player1, player2);
+                } else {
+                    tournament.replayMatch(round, matchNumber, player2, player1);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Match log does not fit the bracket: " + e.getMessage(), e);
+            }
+            store.setElo(player1, eloAfter1);
+            if (player2 != Match.NO_PLAYER) {
+                store.setElo(player2, eloAfter2);
+            }
+        }
+        return tournament;
+    }
+
+    /**
+     * Reads past the records of every round a resumed tournament has already played, checking
+     * the log is of the same tournament and has a record for every match of those rounds.
+     *
+     * @param tournament {@link Tournament} resumed from a checkpoint.
+     *
+     * @return Number of bytes from the start of the file to the end of those records, where the
+     *         records of the next round belong.
+     *
+     * @throws IOException Thrown when the file cannot be read, is of a different tournament or
+     *                     is missing records.
+     */
+    public long skipPlayedRounds(Tournament tournament) throws IOException {
+        if (playerCount != tournament.getPlayerStore().size() || seed != tournament.getSeed()) {
+            throw new IOException("Match log is of a tournament with " + playerCount + " players and seed " + seed + "!");
+        }
+        long records = 0;
+        for (int round = 0; round < tournament.getRoundsPlayed(); round++) {
+            int matches = tournament.getNumberOfMatches(round);
+            for (int i = 0; i < matches; i++) {
+                if (!next() || buffer.getInt(buffer.position()) != round) {
+                    throw new IOException("Match log is missing matches of round " + (round + 1) + " from before the checkpoint!");
+                }
+                buffer.position(buffer.position() + MatchLogWriter.RECORD_SIZE);
+                records++;
+            }
+        }
+        return MatchLogWriter.HEADER_SIZE + records * MatchLogWriter.RECORD_SIZE;
+    }
+
+    /**
+     * Makes sure the next record is in {@link MatchLogReader#buffer}, reading another block from
+     * the file if needed.
+     *
+     * @return True if there is another record, false at the end of the file.
+     *
+     * @throws IOException Thrown when the file cannot be read or ends part way through a record.
+     */
+    private boolean next() throws IOException {
+        if (buffer.remaining() >= MatchLogWriter.RECORD_SIZE) {
+            return true;
+        }
+        // Keep any part of a record left over and read as much as fits after it
+        buffer.compact();
+        while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+            // Keep reading until the buffer is full or the file ends
+        }
+        buffer.flip();
+        if (buffer.remaining() == 0) {
+            return false;
+        }
+        if (buffer.remaining() < MatchLogWriter.RECORD_SIZE) {
+            throw new EOFException("Match log ends part way through a record!");
+        }
+        return true;
+    }
+
+    /**
+     * Reads exactly the bytes remaining in {@link MatchLogReader#buffer} from the file, then
+     * flips it to be read.
+     *
+     * @param size Number of bytes being read, used in the error message.
+     *
+     * @throws IOException Thrown when the file ends first.
+     */
+    private void fill(int size) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Match log is shorter than its " + size + " byte header!");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Getter for {@link MatchLogReader#playerCount}.
+     *
+     * @return {@link MatchLogReader#playerCount}
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Getter for {@link MatchLogReader#seed}.
+     *
+     * @return {@link MatchLogReader#seed}
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Closes the log file.
+     *
+     * @throws IOException Thrown when closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
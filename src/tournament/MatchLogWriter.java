@@ -0,0 +1,294 @@
+package tournament;
+
+import player.PlayerStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link TournamentListener} which records the result of every {@link Match} to an append-only
+ * binary file, which {@link MatchLogReader} can replay without simulating the tournament again.
+ * <p>
+ * The file starts with a header of {@link MatchLogWriter#HEADER_SIZE} bytes: the
+ * {@link MatchLogWriter#MAGIC} number, the format {@link MatchLogWriter#VERSION}, the number of
+ * players and the seed of the tournament. It is followed by one record of
+ * {@link MatchLogWriter#RECORD_SIZE} bytes per match, in the order the matches were played:
+ * <pre>
+ * int  round          int  eloBefore1
+ * int  matchNumber    int  eloAfter1
+ * int  player1        int  eloBefore2
+ * int  player2        int  eloAfter2
+ * byte games1
+ * byte games2
+ * </pre>
+ * Bye matches have a {@code player2} of {@link Match#NO_PLAYER}, no games and player 1's Elo
+ * rating unchanged.
+ * <p>
+ * Records are collected in a buffer and written to a {@link FileChannel} in large blocks. At the
+ * end of every round the buffer is written and forced to disk, so a checkpoint saved between
+ * rounds never gets ahead of the log and a crash loses at most the round being played. Events
+ * must come from one thread at a time.
+ */
+public class MatchLogWriter implements TournamentListener, Closeable {
+    /**
+     * Number at the start of every match log, {@code "TTML"} in ASCII.
+     */
+    public static final int MAGIC = 0x54544D4C;
+    /**
+     * Version of the format written by this class.
+     */
+    public static final int VERSION = 2;
+    /**
+     * Number of bytes in the header.
+     */
+    public static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+    /**
+     * Number of bytes in each match record.
+     */
+    public static final int RECORD_SIZE = 8 * 4 + 2;
+    /**
+     * Number of records collected before they are written to the file.
+     */
+    private static final int BUFFERED_RECORDS = 4096;
+    /**
+     * {@link PlayerStore} of the tournament, used to look up Elo ratings for bye matches.
+     */
+    private final PlayerStore store;
+    /**
+     * {@link FileChannel} of the log file.
+     */
+    private final FileChannel channel;
+    /**
+     * Records waiting to be written to {@link MatchLogWriter#channel}.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFERED_RECORDS * RECORD_SIZE);
+    /**
+     * Round of the match waiting for its Elo changes.
+     */
+    private int round;
+    /**
+     * Match number of the match waiting for its Elo changes.
+     */
+    private int matchNumber;
+    /**
+     * Player 1 of the match waiting for its Elo changes.
+     */
+    private int player1;
+    /**
+     * Player 2 of the match waiting for its Elo changes.
+     */
+    private int player2;
+    /**
+     * Games won by {@link MatchLogWriter#player1}.
+     */
+    private int games1;
+    /**
+     * Games won by {@link MatchLogWriter#player2}.
+     */
+    private int games2;
+    /**
+     * Elo rating of {@link MatchLogWriter#player1} before the match.
+     */
+    private int eloBefore1;
+    /**
+     * Elo rating of {@link MatchLogWriter#player1} after the match.
+     */
+    private int eloAfter1;
+    /**
+     * Number of Elo changes received for the match waiting to be recorded.
+     */
+    private int eloChanges = 0;
+
+    /**
+     * Creates a new match log for a tournament, replacing any file already at {@code path}.
+     *
+     * @param path Path of the log file.
+     * @param tournament {@link Tournament} whose matches will be recorded.
+     *
+     * @throws IOException Thrown when the file cannot be created.
+     */
+    public MatchLogWriter(Path path, Tournament tournament) throws IOException {
+        this(tournament, FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(store.size()).putLong(tournament.getSeed());
+    }
+
+    /**
+     * Initialises a {@link MatchLogWriter} writing to an open file.
+     *
+     * @param tournament {@link Tournament} whose matches will be recorded.
+     * @param channel {@link FileChannel} of the log file, positioned where records are written.
+     */
+    private MatchLogWriter(Tournament tournament, FileChannel channel) {
+        store = tournament.getPlayerStore();
+        this.channel = channel;
+    }
+
+    /**
+     * Carries on the match log of a tournament resumed from a checkpoint, so the log still
+     * covers every match and can be replayed.
+     * <p>
+     * The log must be of the same tournament and have every match of the rounds played before
+     * the checkpoint. Any records after those, from rounds played after the checkpoint was saved,
+     * are cut off as those rounds are about to be played again. A tournament which had not
+     * played any rounds starts a new log if there is none.
+     *
+     * @param path Path of the log file.
+     * @param tournament {@link Tournament} resumed from a checkpoint.
+     *
+     * @return {@link MatchLogWriter} adding to the end of the played rounds.
+     *
+     * @throws IOException Thrown when the file cannot be read or written, or does not have every
+     *                     match played before the checkpoint.
+     */
+    public static MatchLogWriter append(Path path, Tournament tournament) throws IOException {
+        if (!Files.exists(path)) {
+            if (tournament.getRoundsPlayed() == 0) {
+                return new MatchLogWriter(path, tournament);
+            }
+            throw new IOException("There is no match log at " + path + " with the rounds played before the checkpoint!");
+        }
+        long end;
+        try (MatchLogReader reader = new MatchLogReader(path)) {
+            end = reader.skipPlayedRounds(tournament);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(end);
+            channel.position(end);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new MatchLogWriter(tournament, channel);
+    }
+
+    /**
+     * Records bye matches straight away, and remembers regular matches until their Elo changes
+     * arrive.
+     *
+     * @param round Round number of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2, or {@link Match#NO_PLAYER} for bye matches.
+     * @param winner id of the player who won the match.
+     * @param games1 Games won by player 1.
+     * @param games2 Games won by player 2.
+     */
+    @Override
+    public void matchFinished(int round, int matchNumber, int player1, int player2, int winner, int games1, int games2) {
+        this.round = round;
+        this.matchNumber = matchNumber;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.games1 = games1;
+        this.games2 = games2;
+        eloChanges = 0;
+        if (player2 == Match.NO_PLAYER) {
+            int elo = store.getElo(player1);
+            writeRecord(elo, elo, Match.NO_PLAYER, Match.NO_PLAYER);
+        }
+    }
+
+    /**
+     * Records the waiting match once the Elo changes of both its players have arrived.
+     *
+     * @param player id of the player.
+     * @param oldElo Elo rating before the match.
+     * @param newElo Elo rating after the match.
+     */
+    @Override
+    public void eloAdjusted(int player, int oldElo, int newElo) {
+        // Player 1's rating is always adjusted first
+        if (eloChanges++ == 0) {
+            eloBefore1 = oldElo;
+            eloAfter1 = newElo;
+        } else {
+            writeRecord(eloBefore1, eloAfter1, oldElo, newElo);
+        }
+    }
+
+    /**
+     * Writes every record of the round to the file and forces it to disk, before a checkpoint of
+     * the round can be saved.
+     *
+     * @param round Round number (starting at 0).
+     * @param remainingPlayers Number of players who are not out of the tournament.
+     */
+    @Override
+    public void roundFinished(int round, int remainingPlayers) {
+        try {
+            writeBuffer();
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds a record for the waiting match to {@link MatchLogWriter#buffer}, writing the buffer to
+     * the file first if it is full.
+     *
+     * @param eloBefore1 Elo rating of player 1 before the match.
+     * @param eloAfter1 Elo rating of player 1 after the match.
+     * @param eloBefore2 Elo rating of player 2 before the match.
+     * @param eloAfter2 Elo rating of player 2 after the match.
+     */
+    private void writeRecord(int eloBefore1, int eloAfter1, int eloBefore2, int eloAfter2) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        buffer.putInt(round)
+                .putInt(matchNumber)
+                .putInt(player1)
+                .putInt(player2)
+                .put((byte) games1)
+                .put((byte) games2)
+                .putInt(eloBefore1)
+                .putInt(eloAfter1)
+                .putInt(eloBefore2)
+                .putInt(eloAfter2);
+    }
+
+    /**
+     * Writes everything in {@link MatchLogWriter#buffer} to the end of the file.
+     *
+     * @throws IOException Thrown when writing fails.
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes any buffered records and closes the file.
+     *
+     * @throws IOException Thrown when writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            writeBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package tournament;
+
+import components.StreamRandom;
+
+/**
+ * {@link GameKernel} playing one match at a time with plain Java, used when the Vector API is
+ * not available.
+ * <p>
+ * Holds no state between batches, so one kernel can be shared by every thread.
+ */
+public class ScalarGameKernel implements GameKernel {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long playMatches(long[] seeds, long[] thresholds, int[] games1, int[] games2, int count) {
+        StreamRandom random = new StreamRandom(0);
+        long points = 0;
+        for (int i = 0; i < count; i++) {
+            random.reseed(seeds[i]);
+            long threshold = thresholds[i];
+            int wins1 = 0;
+            int wins2 = 0;
+            do {
+                int points1 = 0;
+                int points2 = 0;
+                do {
+                    if ((random.nextLong() >>> 11) <= threshold) {
+                        points1++;
+                    } else {
+                        points2++;
+                    }
+                }
+                while (!ScoreDistribution.isGameOver(points1, points2));
+                points += points1 + points2;
+                if (points1 > points2) {
+                    wins1++;
+                } else {
+                    wins2++;
+                }
+            }
+            while (wins1 < ScoreDistribution.GAMES_TO_WIN && wins2 < ScoreDistribution.GAMES_TO_WIN);
+            games1[i] = wins1;
+            games2[i] = wins2;
+        }
+        return points;
+    }
+}
@@ -0,0 +1,357 @@
+package tournament;
+
+import components.AliasTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Exact probability of every possible game score and match score between two players, given
+ * the chance of player 1 winning any single point.
+ * <p>
+ * Every point is independent, so the chance of each score is found by walking every possible
+ * scoreline of a {@link Game} once and adding up the chances of reaching it. The same is then done
+ * with game wins for the best of 7 {@link Match}.
+ * <p>
+ * The distributions also allow a whole match to be drawn with a single random number, in the
+ * order its games were won, rather than playing every point. As each possible sequence of game
+ * winners is drawn with its exact chance, sampled matches are statistically identical to matches
+ * played point by point. The points of each sampled game are then drawn from the chance of every
+ * game score given its winner, so points per game are recorded the same way too.
+ * <p>
+ * Source: <a href="https://en.wikipedia.org/wiki/Dynamic_programming">Dynamic Programming</a>
+ */
+public class ScoreDistribution {
+    /**
+     * Games needed to win a {@link Match}.
+     */
+    public static final int GAMES_TO_WIN = (Match.MAX_GAMES + 1) / 2;
+    /**
+     * Largest Elo difference whose {@link ScoreDistribution} is kept in
+     * {@link ScoreDistribution#CACHE}. Larger differences use the distribution of this one, as the
+     * stronger player already wins 99.999% of points and practically every match.
+     */
+    public static final int MAX_CACHED_DIFFERENCE = 2000;
+    /**
+     * Bit position of the number of games played in an encoded sequence of game winners. The bits
+     * below it say who won each game, 1 being player 1.
+     */
+    private static final int GAME_COUNT_SHIFT = 8;
+    /**
+     * Every possible sequence of game winners in a match, encoded as described by
+     * {@link ScoreDistribution#GAME_COUNT_SHIFT}.
+     */
+    private static final int[] SEQUENCES = createSequences();
+    /**
+     * Shared distributions indexed by Elo difference plus {@link ScoreDistribution#MAX_CACHED_DIFFERENCE},
+     * filled in the first time each difference is needed.
+     */
+    private static final AtomicReferenceArray<ScoreDistribution> CACHE =
+            new AtomicReferenceArray<>(2 * MAX_CACHED_DIFFERENCE + 1);
+    /**
+     * Chance of player 1 winning any single point.
+     */
+    private final double pointWinChance;
+    /**
+     * Chance of each game score. Index {@code i} is player 1 winning with player 2 on {@code i}
+     * points, index {@code Game.MAX_POINTS + i} is player 2 winning with player 1 on {@code i} points.
+     */
+    private final double[] gameScoreChances = new double[2 * Game.MAX_POINTS];
+    /**
+     * Chance of each match score. Index {@code i} is player 1 winning with player 2 on {@code i}
+     * games, index {@code GAMES_TO_WIN + i} is player 2 winning with player 1 on {@code i} games.
+     */
+    private final double[] matchScoreChances = new double[2 * GAMES_TO_WIN];
+    /**
+     * Chance of player 1 winning a game.
+     */
+    private final double gameWinChance;
+    /**
+     * Chance of player 1 winning a match.
+     */
+    private final double matchWinChance;
+    /**
+     * Draws an index of {@link ScoreDistribution#SEQUENCES} with the chance of that sequence of
+     * game winners happening.
+     */
+    private final AliasTable sequenceTable;
+    /**
+     * Draws the loser's points of a game, for a game won by player 1 (index 0) or player 2 (index 1).
+     */
+    private final AliasTable[] gameScoreTables = new AliasTable[2];
+
+    /**
+     * Initialises a {@link ScoreDistribution} and calculates the chance of every score.
+     *
+     * @param pointWinChance Chance of player 1 winning any single point.
+     */
+    public ScoreDistribution(double pointWinChance) {
+        this.pointWinChance = pointWinChance;
+        gameWinChance = calculateGameScores();
+        matchWinChance = calculateMatchScores();
+
+        double[] sequenceChances = new double[SEQUENCES.length];
+        for (int i = 0; i < SEQUENCES.length; i++) {
+            int player1Games = Integer.bitCount(SEQUENCES[i] & ((1 << GAME_COUNT_SHIFT) - 1));
+            int player2Games = getGameCount(SEQUENCES[i]) - player1Games;
+            sequenceChances[i] = Math.pow(gameWinChance, player1Games) * Math.pow(1 - gameWinChance, player2Games);
+        }
+        sequenceTable = new AliasTable(sequenceChances);
+        for (int winner = 0; winner < 2; winner++) {
+            double[] loserPoints = new double[Game.MAX_POINTS];
+            System.arraycopy(gameScoreChances, winner * Game.MAX_POINTS, loserPoints, 0, Game.MAX_POINTS);
+            gameScoreTables[winner] = new AliasTable(loserPoints);
+        }
+    }
+
+    /**
+     * Gets the {@link ScoreDistribution} of two players with a given Elo difference.
+     * <p>
+     * Distributions are shared between all callers, so each Elo difference up to
+     * {@link ScoreDistribution#MAX_CACHED_DIFFERENCE} is only ever calculated once. Differences
+     * past it are clamped to it, so no match ever has to calculate its own.
+     *
+     * @param eloDifference Player 1's Elo minus player 2's Elo.
+     *
+     * @return {@link ScoreDistribution} object
+     */
+    public static ScoreDistribution forEloDifference(int eloDifference) {
+        eloDifference = Math.max(-MAX_CACHED_DIFFERENCE, Math.min(MAX_CACHED_DIFFERENCE, eloDifference));
+        int index = eloDifference + MAX_CACHED_DIFFERENCE;
+        ScoreDistribution distribution = CACHE.get(index);
+        if (distribution == null) {
+            // Two threads may both calculate the same distribution, but only one is kept
+            CACHE.compareAndSet(index, null, new ScoreDistribution(Game.getWinChance(eloDifference)));
+            distribution = CACHE.get(index);
+        }
+        return distribution;
+    }
+
+    /**
+     * Lists every possible sequence of game winners in a match.
+     *
+     * @return Array of sequences encoded as described by {@link ScoreDistribution#GAME_COUNT_SHIFT}.
+     */
+    private static int[] createSequences() {
+        List<Integer> sequences = new ArrayList<>();
+        addSequences(sequences, 0, 0, 0);
+        return sequences.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Recursively adds every sequence of game winners which continues from a given match score.
+     *
+     * @param sequences {@link List} to add finished sequences to.
+     * @param winners Bits of the games played so far, 1 being won by player 1.
+     * @param games1 Games won by player 1 so far.
+     * @param games2 Games won by player 2 so far.
+     */
+    private static void addSequences(List<Integer> sequences, int winners, int games1, int games2) {
+        int played = games1 + games2;
+        if (games1 == GAMES_TO_WIN || games2 == GAMES_TO_WIN) {
+            sequences.add(winners | (played << GAME_COUNT_SHIFT));
+            return;
+        }
+        addSequences(sequences, winners | (1 << played), games1 + 1, games2);
+        addSequences(sequences, winners, games1, games2 + 1);
+    }
+
+    /**
+     * Gets how many games were played in a sequence drawn by {@link ScoreDistribution#sampleMatch}.
+     *
+     * @param sequence Encoded sequence of game winners.
+     *
+     * @return Number of games played.
+     */
+    public static int getGameCount(int sequence) {
+        return sequence >>> GAME_COUNT_SHIFT;
+    }
+
+    /**
+     * Checks who won a game of a sequence drawn by {@link ScoreDistribution#sampleMatch}.
+     *
+     * @param sequence Encoded sequence of game winners.
+     * @param game Index of the game in the match (starts from 0).
+     *
+     * @return True if player 1 won the game.
+     */
+    public static boolean isWonByPlayer1(int sequence, int game) {
+        return (sequence & (1 << game)) != 0;
+    }
+
+    /**
+     * Checks whether a game is over with the given score, following the same rules as
+     * {@link Game#playGame}.
+     *
+     * @param points1 Points of player 1.
+     * @param points2 Points of player 2.
+     *
+     * @return True if either player has won the game.
+     */
+    public static boolean isGameOver(int points1, int points2) {
+        if (points1 == Game.MAX_POINTS || points2 == Game.MAX_POINTS) {
+            return true;
+        }
+        return (points1 >= Game.POINTS_TO_WIN || points2 >= Game.POINTS_TO_WIN)
+                && Math.abs(points1 - points2) >= Game.WINNING_MARGIN;
+    }
+
+    /**
+     * Gets how many points the winner of a game finished on, given the loser's points.
+     *
+     * @param loserPoints Points the loser of the game finished on.
+     *
+     * @return Points of the winner.
+     */
+    public static int getWinnerPoints(int loserPoints) {
+        return Math.min(Game.MAX_POINTS, Math.max(Game.POINTS_TO_WIN, loserPoints + Game.WINNING_MARGIN));
+    }
+
+    /**
+     * Walks every scoreline of a game, recording the chance of each final score.
+     *
+     * @return Chance of player 1 winning the game.
+     */
+    private double calculateGameScores() {
+        // reach[a][b] is the chance of the game ever being at a-b
+        double[][] reach = new double[Game.MAX_POINTS + 1][Game.MAX_POINTS + 1];
+        reach[0][0] = 1;
+        double player1Wins = 0;
+        // Scores are visited in order of points played, so every way into a score is added first
+        for (int played = 0; played <= 2 * Game.MAX_POINTS; played++) {
+            for (int points1 = Math.max(0, played - Game.MAX_POINTS); points1 <= Math.min(played, Game.MAX_POINTS); points1++) {
+                int points2 = played - points1;
+                double chance = reach[points1][points2];
+                if (chance == 0) {
+                    continue;
+                }
+                if (isGameOver(points1, points2)) {
+                    if (points1 > points2) {
+                        gameScoreChances[points2] += chance;
+                        player1Wins += chance;
+                    } else {
+                        gameScoreChances[Game.MAX_POINTS + points1] += chance;
+                    }
+                } else {
+                    reach[points1 + 1][points2] += chance * pointWinChance;
+                    reach[points1][points2 + 1] += chance * (1 - pointWinChance);
+                }
+            }
+        }
+        return player1Wins;
+    }
+
+    /**
+     * Walks every game scoreline of a match, recording the chance of each final score.
+     *
+     * @return Chance of player 1 winning the match.
+     */
+    private double calculateMatchScores() {
+        double player1Wins = 0;
+        double[][] reach = new double[GAMES_TO_WIN + 1][GAMES_TO_WIN + 1];
+        reach[0][0] = 1;
+        for (int games1 = 0; games1 <= GAMES_TO_WIN; games1++) {
+            for (int games2 = 0; games2 <= GAMES_TO_WIN; games2++) {
+                double chance = reach[games1][games2];
+                if (games1 == GAMES_TO_WIN) {
+                    matchScoreChances[games2] += chance;
+                    player1Wins += chance;
+                } else if (games2 == GAMES_TO_WIN) {
+                    matchScoreChances[GAMES_TO_WIN + games1] += chance;
+                } else {
+                    reach[games1 + 1][games2] += chance * gameWinChance;
+                    reach[games1][games2 + 1] += chance * (1 - gameWinChance);
+                }
+            }
+        }
+        return player1Wins;
+    }
+
+    /**
+     * Draws the winner of every game of a whole match with one random number.
+     *
+     * @param random {@link RandomGenerator} to draw with.
+     *
+     * @return Sequence of game winners, read with {@link ScoreDistribution#getGameCount(int)} and
+     * {@link ScoreDistribution#isWonByPlayer1(int, int)}.
+     */
+    public int sampleMatch(RandomGenerator random) {
+        return SEQUENCES[sequenceTable.sample(random)];
+    }
+
+    /**
+     * Draws how many points the loser of a game finished on, given who won the game.
+     *
+     * @param player1Won Whether player 1 won the game.
+     * @param random {@link RandomGenerator} to draw with.
+     *
+     * @return Points of the loser. The winner's points are given by
+     * {@link ScoreDistribution#getWinnerPoints(int)}.
+     */
+    public int sampleLoserPoints(boolean player1Won, RandomGenerator random) {
+        return gameScoreTables[player1Won ? 0 : 1].sample(random);
+    }
+
+    /**
+     * Gets the number of games player 1 is expected to win, as used to adjust Elo after a {@link Match}.
+     *
+     * @return Expected game wins of player 1. Player 2 is expected to win the rest of
+     * {@link ScoreDistribution#GAMES_TO_WIN}.
+     */
+    public int getExpectedWins() {
+        return (int) Math.round(pointWinChance * GAMES_TO_WIN);
+    }
+
+    /**
+     * Getter for {@link ScoreDistribution#pointWinChance}.
+     *
+     * @return {@link ScoreDistribution#pointWinChance}
+     */
+    public double getPointWinChance() {
+        return pointWinChance;
+    }
+
+    /**
+     * Getter for {@link ScoreDistribution#gameWinChance}.
+     *
+     * @return {@link ScoreDistribution#gameWinChance}
+     */
+    public double getGameWinChance() {
+        return gameWinChance;
+    }
+
+    /**
+     * Getter for {@link ScoreDistribution#matchWinChance}.
+     *
+     * @return {@link ScoreDistribution#matchWinChance}
+     */
+    public double getMatchWinChance() {
+        return matchWinChance;
+    }
+
+    /**
+     * Gets the chance of a game finishing with a given score.
+     *
+     * @param player1Won Whether player 1 won the game.
+     * @param loserPoints Points the loser of the game finished on.
+     *
+     * @return Chance, double between 0 and 1
+     */
+    public double getGameScoreChance(boolean player1Won, int loserPoints) {
+        return gameScoreChances[(player1Won ? 0 : Game.MAX_POINTS) + loserPoints];
+    }
+
+    /**
+     * Gets the chance of a match finishing with a given score.
+     *
+     * @param player1Won Whether player 1 won the match.
+     * @param loserGames Games the loser of the match won.
+     *
+     * @return Chance, double between 0 and 1
+     */
+    public double getMatchScoreChance(boolean player1Won, int loserGames) {
+        return matchScoreChances[(player1Won ? 0 : GAMES_TO_WIN) + loserGames];
+    }
+}
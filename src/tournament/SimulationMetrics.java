@@ -0,0 +1,296 @@
+package tournament;
+
+import components.Histogram;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the points, games and matches simulated and times every round and bracket assignment,
+ * for watching a long simulation over JMX with tools like {@code jconsole}.
+ * <p>
+ * Every metric is a {@link LongAdder} or a {@link Histogram} built from them, so recording is a
+ * few uncontended increments, never blocks other threads and never allocates, and is always on.
+ * Games are counted once per match and points once per game or per {@link GameKernel} batch,
+ * rather than on every point.
+ * <p>
+ * Rates are averages since the metrics were created or last reset, so reset them before a run to
+ * see its throughput.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+    /**
+     * Metrics every simulation in this JVM records to.
+     */
+    public static final SimulationMetrics GLOBAL = new SimulationMetrics();
+    /**
+     * Name {@link SimulationMetrics#GLOBAL} is registered under in the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "tournament:type=SimulationMetrics";
+    /**
+     * Most points a game can last, when the loser has one point less than {@link Game#MAX_POINTS}.
+     */
+    private static final int MAX_POINTS_PER_GAME = 2 * Game.MAX_POINTS - 1;
+    /**
+     * Number of buckets in the timing histograms, enough for times of up to about 9 minutes.
+     */
+    private static final int TIME_BUCKETS = 40;
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    /**
+     * Points played by {@link GameKernel}s, which are not in {@link SimulationMetrics#pointsPerGame}.
+     */
+    private final LongAdder batchPoints = new LongAdder();
+    /**
+     * Number of points in each game played one at a time.
+     */
+    private final Histogram pointsPerGame = Histogram.linear(MAX_POINTS_PER_GAME);
+    /**
+     * Number of games in each match.
+     */
+    private final Histogram gamesPerMatch = Histogram.linear(Match.MAX_GAMES);
+    /**
+     * Wall time of each round in nanoseconds.
+     */
+    private final Histogram roundNanos = Histogram.exponential(TIME_BUCKETS);
+    /**
+     * Wall time of each bracket assignment in nanoseconds.
+     */
+    private final Histogram assignmentNanos = Histogram.exponential(TIME_BUCKETS);
+    /**
+     * {@link System#nanoTime()} when the metrics were created or last reset.
+     */
+    private volatile long startTime = System.nanoTime();
+
+    /**
+     * Registers {@link SimulationMetrics#GLOBAL} with the platform MBean server under
+     * {@link SimulationMetrics#OBJECT_NAME}, unless it already is.
+     */
+    public static void register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, name);
+            }
+        } catch (JMException e) {
+            System.out.println("Could not register simulation metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a game played point by point.
+     *
+     * @param points Points played in the game.
+     */
+    public void recordGame(int points) {
+        pointsPerGame.record(points);
+    }
+
+    /**
+     * Records the points played by a batch of a {@link GameKernel}.
+     *
+     * @param points Points played in the batch.
+     */
+    public void recordBatch(long points) {
+        batchPoints.add(points);
+    }
+
+    /**
+     * Records a finished match which was not a bye.
+     *
+     * @param games Games played in the match.
+     */
+    public void recordMatch(int games) {
+        gamesPerMatch.record(games);
+    }
+
+    /**
+     * Records the wall time of a round.
+     *
+     * @param nanos Time taken in nanoseconds.
+     */
+    public void recordRound(long nanos) {
+        roundNanos.record(nanos);
+    }
+
+    /**
+     * Records the wall time of assigning matches.
+     *
+     * @param nanos Time taken in nanoseconds.
+     */
+    public void recordAssignment(long nanos) {
+        assignmentNanos.record(nanos);
+    }
+
+    /**
+     * Converts a total into an average rate since {@link SimulationMetrics#startTime}.
+     *
+     * @param total Total to convert.
+     *
+     * @return Total per second
+     */
+    private double perSecond(long total) {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        return (seconds > 0) ? total / seconds : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPoints() {
+        return pointsPerGame.getSum() + batchPoints.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getGames() {
+        return gamesPerMatch.getSum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMatches() {
+        return gamesPerMatch.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getPointsPerSecond() {
+        return perSecond(getPoints());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getGamesPerSecond() {
+        return perSecond(getGames());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMatchesPerSecond() {
+        return perSecond(getMatches());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getGamesPerMatch() {
+        return gamesPerMatch.getCounts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMeanGamesPerMatch() {
+        return gamesPerMatch.getMean();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getPointsPerGame() {
+        return pointsPerGame.getCounts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMeanPointsPerGame() {
+        return pointsPerGame.getMean();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRounds() {
+        return roundNanos.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMeanRoundMillis() {
+        return roundNanos.getMean() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getRoundMillis99() {
+        return roundNanos.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getRoundNanos() {
+        return roundNanos.getCounts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAssignments() {
+        return assignmentNanos.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMeanAssignmentMillis() {
+        return assignmentNanos.getMean() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getAssignmentMillis99() {
+        return assignmentNanos.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getAssignmentNanos() {
+        return assignmentNanos.getCounts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        batchPoints.reset();
+        pointsPerGame.reset();
+        gamesPerMatch.reset();
+        roundNanos.reset();
+        assignmentNanos.reset();
+        startTime = System.nanoTime();
+    }
+}
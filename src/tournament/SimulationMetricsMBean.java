@@ -0,0 +1,142 @@
+package tournament;
+
+/**
+ * Management interface of {@link SimulationMetrics}, which is what JMX clients such as
+ * {@code jconsole} see as its attributes and operations.
+ */
+public interface SimulationMetricsMBean {
+    /**
+     * Gets the number of points played point by point.
+     *
+     * @return Number of points
+     */
+    long getPoints();
+
+    /**
+     * Gets the number of games played, however they were simulated.
+     *
+     * @return Number of games
+     */
+    long getGames();
+
+    /**
+     * Gets the number of matches played, not counting byes.
+     *
+     * @return Number of matches
+     */
+    long getMatches();
+
+    /**
+     * Gets the average number of points played per second since the metrics were last reset.
+     *
+     * @return Points per second
+     */
+    double getPointsPerSecond();
+
+    /**
+     * Gets the average number of games played per second since the metrics were last reset.
+     *
+     * @return Games per second
+     */
+    double getGamesPerSecond();
+
+    /**
+     * Gets the average number of matches played per second since the metrics were last reset.
+     *
+     * @return Matches per second
+     */
+    double getMatchesPerSecond();
+
+    /**
+     * Gets how many matches lasted each number of games, indexed by the number of games.
+     *
+     * @return Array of match counts
+     */
+    long[] getGamesPerMatch();
+
+    /**
+     * Gets the mean number of games per match.
+     *
+     * @return Mean games per match
+     */
+    double getMeanGamesPerMatch();
+
+    /**
+     * Gets how many games lasted each number of points, indexed by the number of points. Only
+     * covers games played one at a time, as {@link GameKernel}s only report their total points.
+     *
+     * @return Array of game counts
+     */
+    long[] getPointsPerGame();
+
+    /**
+     * Gets the mean number of points per game played one at a time.
+     *
+     * @return Mean points per game
+     */
+    double getMeanPointsPerGame();
+
+    /**
+     * Gets the number of rounds played by {@link Tournament#playMatches(int)}.
+     *
+     * @return Number of rounds
+     */
+    long getRounds();
+
+    /**
+     * Gets the mean wall time of {@link Tournament#playMatches(int)}.
+     *
+     * @return Mean round time in milliseconds
+     */
+    double getMeanRoundMillis();
+
+    /**
+     * Gets an upper bound for the 99th percentile wall time of {@link Tournament#playMatches(int)}.
+     *
+     * @return 99th percentile round time in milliseconds
+     */
+    double getRoundMillis99();
+
+    /**
+     * Gets how many rounds took each range of time, where bucket {@code i} counts rounds taking
+     * up to {@code 2^i - 1} nanoseconds.
+     *
+     * @return Array of round counts
+     */
+    long[] getRoundNanos();
+
+    /**
+     * Gets the number of times matches were assigned by {@link Tournament#assignMatches(int)} or
+     * {@link Tournament#assignMatches()}.
+     *
+     * @return Number of assignments
+     */
+    long getAssignments();
+
+    /**
+     * Gets the mean wall time of assigning matches.
+     *
+     * @return Mean assignment time in milliseconds
+     */
+    double getMeanAssignmentMillis();
+
+    /**
+     * Gets an upper bound for the 99th percentile wall time of assigning matches.
+     *
+     * @return 99th percentile assignment time in milliseconds
+     */
+    double getAssignmentMillis99();
+
+    /**
+     * Gets how many assignments took each range of time, where bucket {@code i} counts
+     * assignments taking up to {@code 2^i - 1} nanoseconds.
+     *
+     * @return Array of assignment counts
+     */
+    long[] getAssignmentNanos();
+
+    /**
+     * Clears every metric and restarts the clock the rates are measured against.
+     */
+    void reset();
+}
@@ -0,0 +1,17 @@
+package tournament;
+
+/**
+ * How a {@link Match} decides its result.
+ */
+public enum SimulationMode {
+    /**
+     * Every point of every game is played with {@link Game#playGame}.
+     */
+    POINT_BY_POINT,
+    /**
+     * The winner of every game is drawn at once from the precalculated {@link ScoreDistribution}
+     * of the two players. Results are statistically identical to {@link SimulationMode#POINT_BY_POINT},
+     * but a match costs the same no matter how many points it would have taken.
+     */
+    SAMPLED
+}
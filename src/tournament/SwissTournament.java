@@ -0,0 +1,582 @@
+package tournament;
+
+import components.StreamRandom;
+import player.PlayerStore;
+
+import java.util.Arrays;
+
+/**
+ * Defines a <a href="https://en.wikipedia.org/wiki/Swiss-system_tournament">Swiss-system</a>
+ * tournament, where every player plays in every round against a player on the same score who they
+ * have not played before.
+ * <p>
+ * Players are seeded by Elo rating at the start. Each round, players are grouped by score and
+ * each group is paired top half against bottom half (so the best seed in a group plays the best
+ * seed of its bottom half), moving down the bottom half to avoid rematches. A player who cannot
+ * be paired within their group floats down to the next group. With an odd number of players, the
+ * lowest player who has not had a bye gets one, which counts as a win.
+ * <p>
+ * Grouping uses a counting sort over scores, so pairing a round takes close to linear time rather
+ * than comparing every pair of players. Final standings are ordered by score, then the
+ * <a href="https://en.wikipedia.org/wiki/Buchholz_system">Buchholz</a> score (sum of the
+ * opponents' scores), then the Sonneborn-Berger score (sum of the scores of opponents beaten),
+ * then seed.
+ * <p>
+ * Players are referred to by their id in a {@link PlayerStore}, and internally by their seed
+ * (their position when ordered by Elo rating at the start).
+ */
+public class SwissTournament {
+    /**
+     * Most rounds a tournament can have, so the rounds each player won fit in a {@code long}.
+     */
+    public static final int MAX_ROUNDS = 63;
+    /**
+     * {@link PlayerStore} the players of the tournament are stored in.
+     */
+    private final PlayerStore store;
+    /**
+     * ids of all players entered into the tournament, indexed by seed.
+     */
+    private final int[] players;
+    /**
+     * Seed of each player, indexed by id.
+     */
+    private final int[] seeds;
+    /**
+     * Number of rounds in the tournament.
+     */
+    private final int rounds;
+    /**
+     * Number of rounds which have been played.
+     */
+    private int roundsPlayed = 0;
+    /**
+     * Score of each player (one point for each win or bye), indexed by seed.
+     */
+    private final int[] scores;
+    /**
+     * Seed of the opponent each player played in each round, or {@link Match#NO_PLAYER} for a
+     * bye. Indexed by {@code seed * rounds + round}.
+     */
+    private final int[] opponents;
+    /**
+     * Bits set for the rounds each player won, not including byes, indexed by seed.
+     */
+    private final long[] roundsWon;
+    /**
+     * Whether each player has had a bye, indexed by seed.
+     */
+    private final boolean[] hadBye;
+    /**
+     * Round number plus 1 of the last round each player was paired in, indexed by seed, so
+     * nothing needs clearing between rounds.
+     */
+    private final int[] pairedIn;
+    /**
+     * Pairs of seeds playing in the current round, player 1 then player 2.
+     */
+    private final int[] pairs;
+    /**
+     * Number of pairs in {@link SwissTournament#pairs}.
+     */
+    private int pairCount;
+    /**
+     * Players in the score group being paired, including players floated down to it.
+     */
+    private final int[] group;
+    /**
+     * Players who could not be paired in their score group, waiting to be paired in the next.
+     */
+    private final int[] floaters;
+    /**
+     * {@link TournamentListener} every event of this tournament is sent to.
+     */
+    private TournamentListener listener = TournamentListener.SILENT;
+    /**
+     * {@link SimulationMode} every {@link Match} of this tournament is played with.
+     */
+    private SimulationMode simulationMode = SimulationMode.POINT_BY_POINT;
+    /**
+     * Master seed of the tournament. Every {@link Match} plays with its own stream of random
+     * numbers derived from this seed, its round and its match number.
+     */
+    private final long seed;
+    /**
+     * Generator reseeded at the start of every {@link Match}.
+     */
+    private final StreamRandom random = new StreamRandom(0);
+    /**
+     * {@link Match} reused for every pairing, so playing a round does not allocate anything per match.
+     */
+    private final Match match;
+
+    /**
+     * Initialises a {@link SwissTournament} with every player in a {@link PlayerStore}.
+     *
+     * @param store {@link PlayerStore} of the players entered into the tournament.
+     * @param rounds Number of rounds to play, at most {@link SwissTournament#MAX_ROUNDS}.
+     * @param seed Master seed of the tournament.
+     *
+     * @throws IllegalArgumentException Thrown when the number of rounds is not possible.
+     */
+    public SwissTournament(PlayerStore store, int rounds, long seed) {
+        if (rounds < 1 || rounds > MAX_ROUNDS) {
+            throw new IllegalArgumentException("A Swiss tournament must have between 1 and " + MAX_ROUNDS + " rounds!");
+        }
+        this.store = store;
+        this.rounds = rounds;
+        this.seed = seed;
+        match = new Match(store);
+        match.setRandom(random);
+        int playerCount = store.size();
+
+        // Seed players from the highest Elo to the lowest Elo, keeping ties in the order they were added
+        long[] keys = new long[playerCount];
+        for (int id = 0; id < playerCount; id++) {
+            keys[id] = ((long) -store.getElo(id) << 32) | id;
+        }
+        Arrays.sort(keys);
+        players = new int[playerCount];
+        seeds = new int[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            players[i] = (int) keys[i];
+            seeds[players[i]] = i;
+        }
+
+        scores = new int[playerCount];
+        opponents = new int[playerCount * rounds];
+        roundsWon = new long[playerCount];
+        hadBye = new boolean[playerCount];
+        pairedIn = new int[playerCount];
+        pairs = new int[playerCount];
+        group = new int[playerCount];
+        floaters = new int[playerCount];
+    }
+
+    /**
+     * Gets the usual number of rounds for a Swiss tournament, which is enough for one player to
+     * finish with a perfect score.
+     *
+     * @param playerCount Number of players in the tournament.
+     *
+     * @return integer number of rounds.
+     */
+    public static int getRecommendedRounds(int playerCount) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(playerCount - 1));
+    }
+
+    /**
+     * Pairs and plays every remaining round.
+     */
+    public void play() {
+        while (roundsPlayed < rounds) {
+            playRound();
+        }
+    }
+
+    /**
+     * Pairs and plays the next round.
+     */
+    public void playRound() {
+        if (roundsPlayed == rounds) {
+            System.out.printf("There are only %d rounds in the tournament!%n", rounds);
+            return;
+        }
+        int round = roundsPlayed;
+        int bye = pairRound(round);
+        int matches = pairCount + ((bye != Match.NO_PLAYER) ? 1 : 0);
+        listener.roundStarted(round, matches);
+
+        long roundSeed = StreamRandom.deriveSeed(seed, round);
+        for (int k = 0; k < pairCount; k++) {
+            int player1 = pairs[2 * k];
+            int player2 = pairs[2 * k + 1];
+            setUpMatch(round, k, roundSeed, players[player1], players[player2]);
+            match.playMatch();
+            int winner = seeds[match.getWinner()];
+            scores[winner]++;
+            roundsWon[winner] |= 1L << round;
+            opponents[player1 * rounds + round] = player2;
+            opponents[player2 * rounds + round] = player1;
+        }
+        if (bye != Match.NO_PLAYER) {
+            setUpMatch(round, pairCount, roundSeed, players[bye], Match.NO_PLAYER);
+            match.playMatch();
+            scores[bye]++;
+            hadBye[bye] = true;
+            opponents[bye * rounds + round] = Match.NO_PLAYER;
+        }
+        roundsPlayed++;
+        listener.roundFinished(round, players.length);
+    }
+
+    /**
+     * Sets up {@link SwissTournament#match} for the next match of this tournament with its own
+     * stream of random numbers.
+     *
+     * @param round Round of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param roundSeed Seed of the round, derived from {@link SwissTournament#seed}.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2, or {@link Match#NO_PLAYER} for a bye match.
+     */
+    private void setUpMatch(int round, int matchNumber, long roundSeed, int player1, int player2) {
+        random.reseed(StreamRandom.deriveSeed(roundSeed, matchNumber));
+        match.setPlayers(player1, player2);
+        match.setRound(round);
+        match.setMatchNumber(matchNumber);
+        match.setListener(listener);
+        match.setSimulationMode(simulationMode);
+    }
+
+    /**
+     * Pairs every player for a round, filling {@link SwissTournament#pairs}.
+     *
+     * @param round Round being paired (starting at 0).
+     *
+     * @return Seed of the player getting a bye, or {@link Match#NO_PLAYER} if there is none.
+     */
+    private int pairRound(int round) {
+        int[] order = getOrderByScore();
+        pairCount = 0;
+
+        // The lowest player who has not had a bye sits out, or the lowest player if everyone has
+        int bye = Match.NO_PLAYER;
+        if (order.length % 2 == 1) {
+            bye = order[order.length - 1];
+            for (int i = order.length - 1; i >= 0; i--) {
+                if (!hadBye[order[i]]) {
+                    bye = order[i];
+                    break;
+                }
+            }
+            pairedIn[bye] = round + 1;
+        }
+
+        // Pair each score group, carrying unpaired players down into the next group
+        int floaterCount = 0;
+        int start = 0;
+        while (start < order.length) {
+            int end = start;
+            while (end < order.length && scores[order[end]] == scores[order[start]]) {
+                end++;
+            }
+            int groupSize = 0;
+            for (int i = 0; i < floaterCount; i++) {
+                group[groupSize++] = floaters[i];
+            }
+            for (int i = start; i < end; i++) {
+                if (order[i] != bye) {
+                    group[groupSize++] = order[i];
+                }
+            }
+            floaterCount = pairGroup(round, groupSize);
+            start = end;
+        }
+
+        // Players still unpaired at the bottom have no one left in their group who they have not
+        // played, so swap partners with an earlier pair where possible and otherwise allow a rematch
+        for (int i = 0; i + 1 < floaterCount; i += 2) {
+            if (!havePlayed(floaters[i], floaters[i + 1]) || !swapIntoPair(floaters[i], floaters[i + 1])) {
+                addPair(round, floaters[i], floaters[i + 1]);
+            }
+        }
+        return bye;
+    }
+
+    /**
+     * Pairs two players who have already played each other by swapping partners with the lowest
+     * pair possible, so all four players get new opponents.
+     *
+     * @param player1 Seed of a player.
+     * @param player2 Seed of the other player.
+     *
+     * @return True if a swap was found and made.
+     */
+    private boolean swapIntoPair(int player1, int player2) {
+        for (int k = pairCount - 1; k >= 0; k--) {
+            int a = pairs[2 * k];
+            int b = pairs[2 * k + 1];
+            if (!havePlayed(player1, a) && !havePlayed(player2, b)) {
+                replacePair(k, a, player1, b, player2);
+                return true;
+            }
+            if (!havePlayed(player1, b) && !havePlayed(player2, a)) {
+                replacePair(k, a, player2, b, player1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces pair {@code k} of {@link SwissTournament#pairs} with two new pairs.
+     *
+     * @param k Index of the pair to replace.
+     * @param a Seed of a player from the old pair.
+     * @param partnerA Seed of {@code a}'s new partner.
+     * @param b Seed of the other player from the old pair.
+     * @param partnerB Seed of {@code b}'s new partner.
+     */
+    private void replacePair(int k, int a, int partnerA, int b, int partnerB) {
+        pairs[2 * k] = Math.min(a, partnerA);
+        pairs[2 * k + 1] = Math.max(a, partnerA);
+        pairedIn[partnerA] = pairedIn[a];
+        pairs[2 * pairCount] = Math.min(b, partnerB);
+        pairs[2 * pairCount + 1] = Math.max(b, partnerB);
+        pairedIn[partnerB] = pairedIn[b];
+        pairCount++;
+    }
+
+    /**
+     * Pairs the top half of {@link SwissTournament#group} against its bottom half without
+     * rematches. An odd player out, and any player who cannot be paired, is moved to
+     * {@link SwissTournament#floaters}.
+     *
+     * @param round Round being paired (starting at 0).
+     * @param groupSize Number of players in {@link SwissTournament#group}.
+     *
+     * @return Number of players in {@link SwissTournament#floaters}.
+     */
+    private int pairGroup(int round, int groupSize) {
+        int floaterCount = 0;
+        // The lowest player floats down when the group cannot be split evenly
+        if (groupSize % 2 == 1) {
+            floaters[floaterCount++] = group[--groupSize];
+        }
+        int half = groupSize / 2;
+        for (int i = 0; i < half; i++) {
+            int player = group[i];
+            if (pairedIn[player] == round + 1) {
+                continue;
+            }
+            // Try the matching player in the bottom half first, then the rest of the bottom half,
+            // then the rest of the top half
+            int partner = findPartner(round, player, half + i, groupSize);
+            if (partner == Match.NO_PLAYER) {
+                partner = findPartner(round, player, half, half + i);
+            }
+            if (partner == Match.NO_PLAYER) {
+                partner = findPartner(round, player, i + 1, half);
+            }
+            if (partner != Match.NO_PLAYER) {
+                addPair(round, player, partner);
+            }
+        }
+        for (int i = 0; i < groupSize; i++) {
+            if (pairedIn[group[i]] != round + 1) {
+                floaters[floaterCount++] = group[i];
+            }
+        }
+        return floaterCount;
+    }
+
+    /**
+     * Finds the first unpaired player in part of {@link SwissTournament#group} who a player has
+     * not played before.
+     *
+     * @param round Round being paired (starting at 0).
+     * @param player Seed of the player to find a partner for.
+     * @param from First index of {@link SwissTournament#group} to check.
+     * @param to Index of {@link SwissTournament#group} to stop checking at (exclusive).
+     *
+     * @return Seed of the partner, or {@link Match#NO_PLAYER} if there is none.
+     */
+    private int findPartner(int round, int player, int from, int to) {
+        for (int j = from; j < to; j++) {
+            int candidate = group[j];
+            if (pairedIn[candidate] != round + 1 && !havePlayed(player, candidate)) {
+                return candidate;
+            }
+        }
+        return Match.NO_PLAYER;
+    }
+
+    /**
+     * Adds a pair to {@link SwissTournament#pairs}, with the higher seed as player 1.
+     *
+     * @param round Round being paired (starting at 0).
+     * @param player1 Seed of a player.
+     * @param player2 Seed of the other player.
+     */
+    private void addPair(int round, int player1, int player2) {
+        pairedIn[player1] = round + 1;
+        pairedIn[player2] = round + 1;
+        pairs[2 * pairCount] = Math.min(player1, player2);
+        pairs[2 * pairCount + 1] = Math.max(player1, player2);
+        pairCount++;
+    }
+
+    /**
+     * Checks whether two players have already played each other.
+     *
+     * @param player1 Seed of a player.
+     * @param player2 Seed of the other player.
+     *
+     * @return True if they have played.
+     */
+    private boolean havePlayed(int player1, int player2) {
+        int start = player1 * rounds;
+        for (int round = 0; round < roundsPlayed; round++) {
+            if (opponents[start + round] == player2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders every player by score from highest to lowest, then by seed, with a counting sort as
+     * scores can never be more than the number of rounds.
+     *
+     * @return Array of seeds
+     */
+    private int[] getOrderByScore() {
+        int[] starts = new int[rounds + 2];
+        for (int score : scores) {
+            starts[rounds - score + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] order = new int[players.length];
+        for (int player = 0; player < players.length; player++) {
+            order[starts[rounds - scores[player]]++] = player;
+        }
+        return order;
+    }
+
+    /**
+     * Calculates a player's Buchholz score, the sum of the scores of every opponent they have
+     * played. Byes add nothing.
+     *
+     * @param player id of the player.
+     *
+     * @return Buchholz score
+     */
+    public int getBuchholz(int player) {
+        int start = seeds[player] * rounds;
+        int buchholz = 0;
+        for (int round = 0; round < roundsPlayed; round++) {
+            int opponent = opponents[start + round];
+            if (opponent != Match.NO_PLAYER) {
+                buchholz += scores[opponent];
+            }
+        }
+        return buchholz;
+    }
+
+    /**
+     * Calculates a player's Sonneborn-Berger score, the sum of the scores of every opponent they
+     * have beaten.
+     *
+     * @param player id of the player.
+     *
+     * @return Sonneborn-Berger score
+     */
+    public int getSonnebornBerger(int player) {
+        int seed = seeds[player];
+        int start = seed * rounds;
+        int sonnebornBerger = 0;
+        for (int round = 0; round < roundsPlayed; round++) {
+            int opponent = opponents[start + round];
+            if (opponent != Match.NO_PLAYER && (roundsWon[seed] & (1L << round)) != 0) {
+                sonnebornBerger += scores[opponent];
+            }
+        }
+        return sonnebornBerger;
+    }
+
+    /**
+     * Creates the standings of the tournament, ordered by score, then Buchholz score, then
+     * Sonneborn-Berger score, then seed.
+     * <p>
+     * Each player is packed into a single {@code long} of their tiebreaks followed by their seed,
+     * so a primitive sort puts them in order.
+     *
+     * @return Sorted array of player ids, the first element being the current first place player.
+     */
+    public int[] getStandings() {
+        // Scores fit in 6 bits and tiebreaks in 12 bits, as there are at most 63 rounds
+        int maxTiebreak = (1 << 12) - 1;
+        long[] keys = new long[players.length];
+        for (int seed = 0; seed < players.length; seed++) {
+            int id = players[seed];
+            keys[seed] = ((long) (MAX_ROUNDS - scores[seed]) << 56)
+                    | ((long) (maxTiebreak - getBuchholz(id)) << 44)
+                    | ((long) (maxTiebreak - getSonnebornBerger(id)) << 32)
+                    | seed;
+        }
+        Arrays.sort(keys);
+        int[] standings = new int[players.length];
+        for (int i = 0; i < players.length; i++) {
+            standings[i] = players[(int) keys[i]];
+        }
+        return standings;
+    }
+
+    /**
+     * Gets a player's score.
+     *
+     * @param player id of the player.
+     *
+     * @return Number of wins and byes.
+     */
+    public int getScore(int player) {
+        return scores[seeds[player]];
+    }
+
+    /**
+     * Getter for {@link SwissTournament#rounds}.
+     *
+     * @return {@link SwissTournament#rounds}
+     */
+    public int getNumberOfRounds() {
+        return rounds;
+    }
+
+    /**
+     * Getter for {@link SwissTournament#roundsPlayed}.
+     *
+     * @return {@link SwissTournament#roundsPlayed}
+     */
+    public int getRoundsPlayed() {
+        return roundsPlayed;
+    }
+
+    /**
+     * Setter for {@link SwissTournament#listener}.
+     *
+     * @param listener {@link TournamentListener} to set {@link SwissTournament#listener} to.
+     */
+    public void setListener(TournamentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Setter for {@link SwissTournament#simulationMode}.
+     *
+     * @param simulationMode {@link SimulationMode} to set {@link SwissTournament#simulationMode} to.
+     */
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * Getter for {@link SwissTournament#seed}.
+     *
+     * @return {@link SwissTournament#seed}
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter for {@link SwissTournament#store}.
+     *
+     * @return {@link SwissTournament#store}
+     */
+    public PlayerStore getPlayerStore() {
+        return store;
+    }
+}
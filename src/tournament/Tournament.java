@@ -1,181 +1,921 @@
 package tournament;
 
-import components.SortByElo;
-import components.SortByWins;
+import components.StreamRandom;
+import player.NameDictionary;
 import player.Player;
+import player.PlayerStore;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Defines a bracket-style tournament that can handle any number of players by making use of
  * <a href="https://www.printyourbrackets.com/how-byes-work-in-a-tournament.html">byes</a>.
+ * <p>
+ * Players are stored in a {@link PlayerStore} and referred to by their id, so the tournament only
+ * holds arrays of {@code int}s no matter how many players there are.
+ * <p>
+ * The matches of a round never share a player, so when a {@link ForkJoinPool} is set with
+ * {@link Tournament#setPool(ForkJoinPool)} large rounds are split into blocks played in parallel.
+ * Every match draws its random numbers from a stream derived from its round and match number, and
+ * losers are knocked out in match order once the whole round is done, so results are the same as
+ * playing the round one match at a time. Each thread reuses its own {@link Match} and scratch
+ * arrays and the tasks splitting a round are reused every round, so once the first parallel round
+ * has been played no more are allocated.
+ * <p>
+ * When nothing is listening to individual games, the games of a round are played in one batch by
+ * a {@link GameKernel}, which gives the same scores as {@link Match#playMatch()}.
+ * <p>
+ * The wall time of every round and bracket assignment is recorded in
+ * {@link SimulationMetrics#GLOBAL}.
  */
 public class Tournament {
     /**
-     * {@link ArrayList} of {@link Player} objects representing all players who are not
-     * out of the tournament.
+     * Number of matches a round must have before it is played in parallel, which is also the
+     * number of matches played by each parallel task.
      */
-    private final ArrayList<Player> players = new ArrayList<>();
+    private static final int PARALLEL_BLOCK_SIZE = 1024;
     /**
-     * {@link ArrayList} of {@link Player} objects representing all players who
-     * lost a {@link Match} and are out of the tournament.
+     * Number of bits of a first round position handled by each step of a tile when drawing the
+     * bracket, so a tile reads and writes whole 64 byte cache lines of 16 player ids.
      */
-    private final ArrayList<Player> out = new ArrayList<>();
+    private static final int DRAW_TILE_BITS = 4;
     /**
-     * 2-dimensional {@link ArrayList} of {@link Match} objects representing all matches in each
-     * round.
+     * {@link PlayerStore} the players of the tournament are stored in.
      */
-    private final ArrayList<Match[]> rounds = new ArrayList<>();
+    private final PlayerStore store;
+    /**
+     * ids of all players entered into the tournament. After {@link Tournament#assignMatches(int)}
+     * they are in order of Elo rating, from highest to lowest.
+     */
+    private int[] players = new int[0];
+    /**
+     * Number of players in {@link Tournament#players}.
+     */
+    private int playerCount = 0;
+    /**
+     * ids of all players who lost a {@link Match} and are out of the tournament, in the order
+     * they were knocked out.
+     */
+    private int[] out = new int[0];
+    /**
+     * Number of players in {@link Tournament#out}.
+     */
+    private int outCount = 0;
+    /**
+     * Whether each player is out of the tournament, indexed by id, so knocking a player out does
+     * not need to search for them.
+     */
+    private boolean[] knockedOut = new boolean[0];
+    /**
+     * Flat array of player slots storing the whole bracket as an implicit binary tree. Index 1 is
+     * the winner of the final and the two players of the match deciding slot {@code k} sit in
+     * slots {@code 2k} and {@code 2k + 1}, so the first round's players fill the second half of
+     * the array. Empty slots hold {@link Match#NO_PLAYER}.
+     */
+    private int[] bracket = new int[0];
+    /**
+     * Number of rounds which have had their matches assigned.
+     */
+    private int assignedRounds = 0;
+    /**
+     * Number of rounds which have been played.
+     */
+    private int roundsPlayed = 0;
+    /**
+     * {@link TournamentListener} every event of this tournament is sent to.
+     */
+    private TournamentListener listener = TournamentListener.SILENT;
+    /**
+     * {@link SimulationMode} every {@link Match} of this tournament is played with.
+     */
+    private SimulationMode simulationMode = SimulationMode.POINT_BY_POINT;
+    /**
+     * Master seed of the tournament. Every {@link Match} plays with its own stream of random
+     * numbers derived from this seed, its round and its match number.
+     */
+    private final long seed;
+    /**
+     * Generator reseeded at the start of every {@link Match}, so playing a match does not allocate
+     * a new generator.
+     */
+    private final StreamRandom random = new StreamRandom(0);
+    /**
+     * {@link Match} reused for every match played on the calling thread, so playing a round does
+     * not allocate anything per match.
+     */
+    private final Match match;
+    /**
+     * Scratch arrays for the {@link GameKernel} used on the calling thread.
+     */
+    private final MatchBatch batch = new MatchBatch();
+    /**
+     * {@link ForkJoinPool} large rounds are played on, or null to play every match on the calling
+     * thread. Only used while {@link Tournament#listener} is {@link TournamentListener#SILENT}, so
+     * events are always sent in order.
+     */
+    private ForkJoinPool pool = null;
+    /**
+     * {@link WorkerState} of each thread playing matches on {@link Tournament#pool}, created when
+     * the pool is set. Index 0 is the thread which started the round, which runs tasks while it
+     * waits, and the pool's worker {@code i} uses index {@code i + 1}.
+     */
+    private WorkerState[] workerStates = new WorkerState[0];
+    /**
+     * {@link RoundTask}s splitting a round between the threads of {@link Tournament#pool}, reused
+     * every round. They form an implicit binary tree like {@link Tournament#bracket}: task 1 plays
+     * the whole round and task {@code k} splits its matches between tasks {@code 2k} and
+     * {@code 2k + 1}.
+     */
+    private RoundTask[] tasks = new RoundTask[0];
+    /**
+     * {@link GameKernel} whole rounds are played with when nothing is listening to individual
+     * games, or null to always play matches one at a time with {@link Match#playMatch()}. Only
+     * used while {@link Tournament#listener} is {@link TournamentListener#SILENT} and
+     * {@link Tournament#simulationMode} is {@link SimulationMode#POINT_BY_POINT}.
+     */
+    private GameKernel kernel = GameKernel.FASTEST;
+    /**
+     * {@link LeaderboardIndex} updated with the winner and loser of every match, or null to keep
+     * no live ranking.
+     */
+    private LeaderboardIndex index = null;
+    /**
+     * Whether Elo ratings stay at their entry values for the whole tournament rather than being
+     * adjusted after every match, which is the model {@code BracketSolver} solves exactly.
+     */
+    private boolean fixedElo = false;
 
     /**
-     * Add an empty array of {@link Match} objects to {@link Tournament#rounds} with the
-     * appropriate number of bye matches and normal matches.
-     * <p>
-     * This is a {@link Match} for each bye plus the ceiling division of half (the number of players
-     * - the number of byes).
+     * Initialises an empty {@link Tournament} with a random seed.
+     */
+    public Tournament() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Initialises an empty {@link Tournament} whose results can be reproduced by using the same seed.
      *
-     * @param byes integer number of byes to include in the round.
+     * @param seed Master seed of the tournament.
      */
-    private void addRound(int byes) {
-        // Create an array of matches based on how many players are in the tournament
-        rounds.add(new Match[byes + (int) Math.ceil((players.size()-byes)/2.0)]);
+    public Tournament(long seed) {
+        this(new PlayerStore(new NameDictionary()), seed);
     }
 
     /**
-     * Add an array of {@link Match} objects to {@link Tournament#rounds} with the appropriate
-     * number of matches based on the last round.
-     * <p>
-     * This is half the number of matches is the last round.
+     * Initialises a {@link Tournament} with every player in a {@link PlayerStore}. Results are
+     * written back to the store as matches are played.
+     *
+     * @param store {@link PlayerStore} of the players entered into the tournament.
+     * @param seed Master seed of the tournament.
      */
-    private void addRound() {
-        if (rounds.size()-1 < 0) {
-            System.out.println("The first round of the tournament must include a byes argument!");
-            return;
+    public Tournament(PlayerStore store, long seed) {
+        this.store = store;
+        this.seed = seed;
+        match = new Match(store);
+        match.setRandom(random);
+        players = new int[store.size()];
+        for (int id = 0; id < store.size(); id++) {
+            players[playerCount++] = id;
         }
-        rounds.add(new Match[getNumberOfMatches(rounds.size()-1)/2]);
+    }
+
+    /**
+     * Gets the index in {@link Tournament#bracket} of player 1's slot in a match. Player 2's slot
+     * is the next index.
+     *
+     * @param round Round of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     *
+     * @return Index of the slot.
+     */
+    private int getSlot(int round, int matchNumber) {
+        // Round r starts after the slots of every later round, which take up the first
+        // (number of slots in round r) indexes
+        return (bracket.length >> round) / 2 + 2 * matchNumber;
     }
 
     /**
      * Adds a player to the tournament.
      *
-     * @param newPlayer {@link Player} object
+     * @param newPlayer {@link Player} object, copied into {@link Tournament#store}.
+     *
+     * @return id of the player in {@link Tournament#store}.
      */
-    public void addPlayer(Player newPlayer) {
-        players.add(newPlayer);
+    public int addPlayer(Player newPlayer) {
+        int id = store.add(newPlayer);
+        if (playerCount == players.length) {
+            players = Arrays.copyOf(players, Math.max(16, 2 * players.length));
+        }
+        players[playerCount++] = id;
+        return id;
     }
 
     /**
-     * Add a new round to {@link Tournament#rounds} and assign all {@link Tournament#players}
-     * to a {@link Match} in correspondence to the last round and the structure of a
+     * Assign all remaining players to a {@link Match} of the next round in correspondence to the
+     * last round and the structure of a
      * <a href="https://www.interbasket.net/brackets/">bracket tournament</a>.
+     * <p>
+     * Winners are written straight into their slot of the next round by
+     * {@link Tournament#playMatches(int)}, so there is nothing left to search for here.
      */
     public void assignMatches() {
-        if (rounds.size()-1 < 0) {
+        if (assignedRounds == 0) {
             System.out.println("The first round of the tournament must include a byes argument!");
             return;
         }
-        addRound();
-        // Iterate up to half the number of players still in the tournament as each match
-        // has two players
-        for (int i = 0; i < players.size()/2; i++) {
-            Match match = new Match();
-            match.setMatchNumber(i);
-            // Iterate through all matches in the last round
-            for (Match lastRoundMatch : rounds.get(rounds.size()-2)) {
-                /* Add player to the latest created match if they are a subset of the
-                 * bracket tournament tree structure. This is done by taking the match's
-                 * matchNumber and halving it, as after the first round each subsequent
-                 * round will contain half the number of matches.
-                 *
-                 * Player 1 ------------|     Round 2     |------------ Player 3
-                 *     Round 1, Match 0 |---- Match 0 ----| Round 1, Match 1
-                 * Player 2 ------------|       |         |------------ Player 4
-                 *                              |
-                 *                        Round 3, Match 0
-                 *                              |
-                 * Player 1 ------------|       |         |------------ Player 3
-                 *     Round 1, Match 2 |---- Match 1 ----| Round 1, Match 3
-                 * Player 2 ------------|     Round 2     |------------ Player 4
-                 *
-                 * Following the diagram, the floor division of (Match:0 / 2.0) and (Match:1 / 2.0)
-                 * are both 0, and the floor division of (Match:2 / 2.0) and (Match:3 / 2.0) are
-                 * both 1, et ce tera. This means the match numbers follow the list indexing
-                 * exactly.
-                 */
-                if (i == Math.floor(lastRoundMatch.getMatchNumber()/2.0)) {
-                    match.addPlayer(lastRoundMatch.getWinner());
-                }
-                // Break out the loop if a match has two players to prevent an IndexOutOfBoundsException
-                // being thrown
-                if (match.getPlayers().length == 2) {
-                    break;
-                }
-            }
-            rounds.get(rounds.size()-1)[i] = match;
+        long startTime = System.nanoTime();
+        /* A match's winner goes to the slot at half its own index, which is player 1 of match
+         * (matchNumber / 2) for even numbered matches and player 2 for odd numbered matches.
+         *
+         * Player 1 ------------|     Round 2     |------------ Player 3
+         *     Round 1, Match 0 |---- Match 0 ----| Round 1, Match 1
+         * Player 2 ------------|       |         |------------ Player 4
+         *                              |
+         *                        Round 3, Match 0
+         *                              |
+         * Player 1 ------------|       |         |------------ Player 3
+         *     Round 1, Match 2 |---- Match 1 ----| Round 1, Match 3
+         * Player 2 ------------|     Round 2     |------------ Player 4
+         *
+         * Following the diagram, the floor division of (Match:0 / 2.0) and (Match:1 / 2.0)
+         * are both 0, and the floor division of (Match:2 / 2.0) and (Match:3 / 2.0) are
+         * both 1, et ce tera. This means the match numbers follow the array indexing
+         * exactly.
+         */
+        if (getNumberOfMatches(assignedRounds - 1) > 1) {
+            assignedRounds++;
         }
+        SimulationMetrics.GLOBAL.recordAssignment(System.nanoTime() - startTime);
     }
 
     /**
-     * Add a new round to {@link Tournament#rounds} and assign all {@link Tournament#players}
-     * to a {@link Match} in correspondence to their Elo rating.
+     * Create the bracket and assign all {@link Tournament#players} to a {@link Match} of the
+     * first round in correspondence to their Elo rating.
      * <p>
-     * The top-rated players will receive a bye whilst the rest of the players will be paired
-     * together as: the highest rated player with the lowest rated player, the second-highest rated
-     * player with the second-lowest rated player, et ce tera.
+     * Players are seeded from the highest Elo to the lowest and placed with
+     * <a href="https://en.wikipedia.org/wiki/Seed_(sports)">standard seeding</a>: seed 1 plays the
+     * lowest seed, seed 2 the second-lowest, et ce tera, and the two top seeds are in opposite
+     * halves of the bracket so they can only meet in the final (as can the top four in the
+     * semi-finals, and so on). The byes fill the seeds below the last player, so the top-rated
+     * players are the ones who receive them.
      *
-     * @param byes Number of byes to include in the round.
+     * @param byes Number of byes to include in the round, which must be
+     *             {@link Tournament#getNeededByes()}.
      */
     public void assignMatches(int byes) {
-        // Sort players from the lowest Elo to the highest Elo
-        players.sort(new SortByElo());
-
-        // Pairings should be a high Elo player versus a low Elo player
-        addRound(getNeededByes());
-        // Bye matches
-        for (int i = 0; i < byes; i++) {
-            rounds.get(0)[i] = new Match(players.get(i));
-            // Giving each match a unique number will allow the structure of the bracket tournament
-            // to be upheld throughout the rounds
-            rounds.get(0)[i].setMatchNumber(i);
-        }
-        // Regular matches
-        for (int j = 0; j < (players.size()-byes)/2; j++) {
-            /*
-             * To pair players with high and low Elos, take an ordered list of players in terms of their Elo
-             * and create matches starting with the first & last player in the list, moving inwards:
-             * --> [Pl1, Pl2, Pl3, Pl4, Pl5, Pl6]
-             *       ^                        ^     Match A
-             * --> [Pl1, Pl2, Pl3, Pl4, Pl5, Pl6]
-             *            ^              ^          Match B
-             * --> [Pl1, Pl2, Pl3, Pl4, Pl5, Pl6]
-             *                 ^    ^               Match C
-             */
-            rounds.get(0)[byes+j] = new Match(players.get(byes+j), players.get(players.size()-(j+1)));
-            rounds.get(0)[byes+j].setMatchNumber(byes+j);
-        }
-    }
-
-    /**
-     * Simulate all matches in a given round.
+        if (byes != getNeededByes()) {
+            System.out.println("The first round of the tournament needs " + getNeededByes() + " byes!");
+            return;
+        }
+        long startTime = System.nanoTime();
+        // Sort players from the highest Elo to the lowest Elo, so a player's index is their seed
+        players = sortByElo(store, players, playerCount);
+        out = new int[playerCount];
+        knockedOut = new boolean[store.size()];
+
+        // The first round has a match for each bye plus half of the other players, so two slots each
+        int firstRoundMatches = (playerCount + byes + 1) / 2;
+        bracket = new int[4 * firstRoundMatches];
+        // Every slot of the first round is written by the draw, so only later rounds start empty
+        Arrays.fill(bracket, 0, 2 * firstRoundMatches, Match.NO_PLAYER);
+        assignedRounds = 1;
+        drawFirstRound(players, playerCount, bracket);
+        SimulationMetrics.GLOBAL.recordAssignment(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Places seeded players into the first round of a bracket with standard seeding.
+     * <p>
+     * Standard seeding is built up one round at a time from the final: each seed {@code s} in a
+     * bracket of {@code n} positions becomes the match of seeds {@code s} and {@code 2n - 1 - s}
+     * in a bracket of {@code 2n} positions. Read from the final outwards, every bit of a position
+     * says whether that step kept the seed or swapped it for its opponent, and swapping flips
+     * every lower bit of the seed. So the seed at a position is the bits of the position in
+     * reverse order, with each bit XORed into all of the bits below it, and each position is
+     * worked out on its own in constant time. The better seed of each match is always player 1
+     * and seeds with no player are byes.
+     * <p>
+     * Reversing the bits sends neighbouring positions to seeds far apart, so positions are
+     * visited in tiles of {@code 2^DRAW_TILE_BITS} by {@code 2^DRAW_TILE_BITS} whose seeds and
+     * slots each fall in that many cache lines, rather than missing the cache on every player.
+     *
+     * @param seeded ids of the players from the highest seed to the lowest.
+     * @param count Number of players in {@code seeded}.
+     * @param bracket Bracket laid out like {@link Tournament#bracket}, whose second half is the
+     *                first round. Its length must be a power of two of at least twice
+     *                {@code count}.
+     */
+    static void drawFirstRound(int[] seeded, int count, int[] bracket) {
+        int positions = bracket.length / 2;
+        if (positions == 0) {
+            return;
+        }
+        int bits = Integer.numberOfTrailingZeros(positions);
+        int tileBits = Math.min(DRAW_TILE_BITS, bits / 2);
+        int middleBits = bits - 2 * tileBits;
+        for (int middle = 0; middle < 1 << middleBits; middle++) {
+            for (int high = 0; high < 1 << tileBits; high++) {
+                for (int low = 0; low < 1 << tileBits; low++) {
+                    int reversed = (high << (bits - tileBits)) | (middle << tileBits) | low;
+                    int seed = reversed;
+                    seed ^= seed >>> 1;
+                    seed ^= seed >>> 2;
+                    seed ^= seed >>> 4;
+                    seed ^= seed >>> 8;
+                    seed ^= seed >>> 16;
+                    int position = Integer.reverse(reversed) >>> (32 - bits);
+                    bracket[positions + position] = (seed < count) ? seeded[seed] : Match.NO_PLAYER;
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the first round, then plays every round up to and including the final.
+     */
+    public void play() {
+        assignMatches(getNeededByes());
+        int round = 0;
+        while (getNumberOfMatches(round) > 1) {
+            playMatches(round);
+            assignMatches();
+            round++;
+        }
+        playMatches(round);
+    }
+
+    /**
+     * Simulate all matches in a given round, recording how long it took in
+     * {@link SimulationMetrics#GLOBAL}.
      *
      * @param round Round number to simulate (starting at 0).
      */
     public void playMatches(int round) {
-        if (rounds.size()-1 < round) {
-            System.out.printf("There are only %d rounds in the tournament!%n", rounds.size());
+        long startTime = System.nanoTime();
+        playRound(round);
+        SimulationMetrics.GLOBAL.recordRound(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Simulates all matches in a given round, in parallel or in batches where possible.
+     *
+     * @param round Round number to simulate (starting at 0).
+     */
+    private void playRound(int round) {
+        if (assignedRounds-1 < round) {
+            System.out.printf("There are only %d rounds in the tournament!%n", assignedRounds);
             return;
         }
-        for (Match match : rounds.get(round)) {
-            Player loser = match.playMatch();
+        listener.roundStarted(round, getNumberOfMatches(round));
+        long roundSeed = StreamRandom.deriveSeed(seed, round);
+        if (pool != null && listener == TournamentListener.SILENT && getNumberOfMatches(round) > PARALLEL_BLOCK_SIZE) {
+            playMatchesInParallel(round, roundSeed);
+            roundsPlayed = Math.max(roundsPlayed, round + 1);
+            listener.roundFinished(round, getRemainingPlayerCount());
+            return;
+        }
+        if (isBatched()) {
+            playBatch(round, roundSeed, true, 0, getNumberOfMatches(round), match, batch);
+            roundsPlayed = Math.max(roundsPlayed, round + 1);
+            listener.roundFinished(round, getRemainingPlayerCount());
+            return;
+        }
+        match.setRound(round);
+        match.setListener(listener);
+        match.setSimulationMode(simulationMode);
+        for (int i = 0; i < getNumberOfMatches(round); i++) {
+            int slot = getSlot(round, i);
+            random.reseed(StreamRandom.deriveSeed(roundSeed, i));
+            match.setPlayers(bracket[slot], bracket[slot + 1]);
+            match.setMatchNumber(i);
+            int loser = match.playMatch();
+            advance(round, i, match.getWinner(), loser);
+        }
+        roundsPlayed = Math.max(roundsPlayed, round + 1);
+        listener.roundFinished(round, getRemainingPlayerCount());
+    }
+
+    /**
+     * Plays every match of a round on {@link Tournament#pool}, then knocks out the losers in
+     * match order.
+     *
+     * @param round Round number to simulate (starting at 0).
+     * @param roundSeed Seed of the round, derived from {@link Tournament#seed}.
+     */
+    private void playMatchesInParallel(int round, long roundSeed) {
+        prepareTask(1, round, roundSeed, 0, getNumberOfMatches(round));
+        pool.invoke(tasks[1]);
+        knockOut(round);
+    }
+
+    /**
+     * Sets up a task of {@link Tournament#tasks} to play a range of matches, along with the tasks
+     * it splits them between. Tasks are only created the first time they are needed.
+     *
+     * @param node Index of the task in {@link Tournament#tasks}.
+     * @param round Round being played (starting at 0).
+     * @param roundSeed Seed of the round, derived from {@link Tournament#seed}.
+     * @param from First match to play.
+     * @param to Match to stop at (exclusive).
+     */
+    private void prepareTask(int node, int round, long roundSeed, int from, int to) {
+        if (node >= tasks.length) {
+            tasks = Arrays.copyOf(tasks, Math.max(node + 1, 2 * tasks.length));
+        }
+        if (tasks[node] == null) {
+            tasks[node] = new RoundTask(node);
+        }
+        tasks[node].reset(round, roundSeed, from, to);
+        if (to - from > PARALLEL_BLOCK_SIZE) {
+            int middle = (from + to) >>> 1;
+            prepareTask(2 * node, round, roundSeed, from, middle);
+            prepareTask(2 * node + 1, round, roundSeed, middle, to);
+        }
+    }
+
+    /**
+     * Gets the {@link WorkerState} of the calling thread, while a round is played on
+     * {@link Tournament#pool}.
+     *
+     * @return {@link WorkerState} object
+     */
+    private WorkerState getWorkerState() {
+        int index = 0;
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+            ForkJoinWorkerThread worker = (ForkJoinWorkerThread) Thread.currentThread();
+            if (worker.getPool() == pool) {
+                index = worker.getPoolIndex() + 1;
+            }
+        }
+        // Only spare threads, added while other workers are blocked, can be numbered past the pool's parallelism
+        return (index < workerStates.length) ? workerStates[index] : new WorkerState(store);
+    }
+
+    /**
+     * Knocks out the losers of a round in match order, once every winner has moved on. The loser
+     * of each match is whichever of its players did not move on.
+     *
+     * @param round Round the losers were knocked out in (starting at 0).
+     */
+    private void knockOut(int round) {
+        for (int i = 0; i < getNumberOfMatches(round); i++) {
+            int slot = getSlot(round, i);
+            int winner = bracket[slot / 2];
+            int loser = (bracket[slot] == winner) ? bracket[slot + 1] : bracket[slot];
+            // There is no loser for bye matches
+            if (loser != Match.NO_PLAYER) {
+                knockedOut[loser] = true;
+                out[outCount++] = loser;
+            }
+            updateIndex(winner, loser);
+        }
+    }
+
+    /**
+     * Moves the players of a finished match to their new places in {@link Tournament#index}, if
+     * there is one.
+     *
+     * @param winner id of the player who won the match.
+     * @param loser id of the player who lost the match, or {@link Match#NO_PLAYER} for bye matches.
+     */
+    private void updateIndex(int winner, int loser) {
+        if (index == null) {
+            return;
+        }
+        index.update(winner, store.getWins(winner), store.getElo(winner));
+        if (loser != Match.NO_PLAYER) {
+            index.update(loser, store.getWins(loser), store.getElo(loser));
+        }
+    }
+
+    /**
+     * Checks whether rounds are played in batches with {@link Tournament#kernel}.
+     *
+     * @return True if matches are played by {@link Tournament#kernel}.
+     */
+    private boolean isBatched() {
+        return kernel != null
+                && listener == TournamentListener.SILENT
+                && simulationMode == SimulationMode.POINT_BY_POINT;
+    }
+
+    /**
+     * Plays a range of matches from one round with {@link Tournament#kernel}, then finishes each
+     * one in match order to update the players and move the winners on. Bye matches are finished
+     * straight away.
+     *
+     * @param round Round being played (starting at 0).
+     * @param roundSeed Seed of the round, derived from {@link Tournament#seed}.
+     * @param advance True to knock out each loser straight away, false to only move the winners on
+     *                and leave the losers to {@link Tournament#knockOut(int)}.
+     * @param from First match to play.
+     * @param to Match to stop at (exclusive).
+     * @param match {@link Match} reused to finish each match.
+     * @param batch {@link MatchBatch} holding the scratch arrays of the calling thread.
+     */
+    private void playBatch(int round, long roundSeed, boolean advance, int from, int to, Match match, MatchBatch batch) {
+        batch.ensureCapacity(to - from);
+        // Byes have nothing to simulate, so only real matches go to the kernel
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int slot = getSlot(round, i);
+            if (bracket[slot + 1] != Match.NO_PLAYER) {
+                int eloDifference = store.getElo(bracket[slot]) - store.getElo(bracket[slot + 1]);
+                batch.matchNumbers[count] = i;
+                batch.seeds[count] = StreamRandom.deriveSeed(roundSeed, i);
+                batch.thresholds[count++] = GameKernel.getThreshold(ScoreDistribution.forEloDifference(eloDifference).getPointWinChance());
+            }
+        }
+        SimulationMetrics.GLOBAL.recordBatch(kernel.playMatches(batch.seeds, batch.thresholds, batch.games1, batch.games2, count));
+
+        match.setRound(round);
+        int played = 0;
+        for (int i = from; i < to; i++) {
+            int slot = getSlot(round, i);
+            match.setPlayers(bracket[slot], bracket[slot + 1]);
+            match.setMatchNumber(i);
+            int loser;
+            if (played < count && batch.matchNumbers[played] == i) {
+                loser = match.recordScore(batch.games1[played], batch.games2[played]);
+                played++;
+            } else {
+                loser = match.playMatch();
+            }
+            if (advance) {
+                advance(round, i, match.getWinner(), loser);
+            } else {
+                bracket[slot / 2] = match.getWinner();
+            }
+        }
+    }
+
+    /**
+     * Scratch arrays for playing matches with a {@link GameKernel}. They are kept between rounds
+     * and only grow, so once the first round has been played no more are allocated.
+     */
+    private static class MatchBatch {
+        /**
+         * Number of each match given to the kernel.
+         */
+        private int[] matchNumbers = new int[0];
+        /**
+         * Seed of each match given to the kernel.
+         */
+        private long[] seeds = new long[0];
+        /**
+         * Point win threshold of each match given to the kernel.
+         */
+        private long[] thresholds = new long[0];
+        /**
+         * Games won by player 1 of each match, filled in by the kernel.
+         */
+        private int[] games1 = new int[0];
+        /**
+         * Games won by player 2 of each match, filled in by the kernel.
+         */
+        private int[] games2 = new int[0];
+
+        /**
+         * Grows the arrays if they cannot hold a batch of the given size.
+         *
+         * @param size Number of matches in the batch.
+         */
+        private void ensureCapacity(int size) {
+            if (seeds.length < size) {
+                matchNumbers = new int[size];
+                seeds = new long[size];
+                thresholds = new long[size];
+                games1 = new int[size];
+                games2 = new int[size];
+            }
+        }
+    }
+
+    /**
+     * {@link Match}, generator and scratch arrays of one thread playing matches on
+     * {@link Tournament#pool}, kept for every round so playing them allocates nothing.
+     */
+    private static class WorkerState {
+        /**
+         * {@link Match} reused for every match the thread plays.
+         */
+        private final Match match;
+        /**
+         * Generator reseeded at the start of every match the thread plays.
+         */
+        private final StreamRandom random = new StreamRandom(0);
+        /**
+         * Scratch arrays for the {@link GameKernel}, big enough for a whole task.
+         */
+        private final MatchBatch batch = new MatchBatch();
+
+        /**
+         * Initialises a {@link WorkerState} for the players of a tournament.
+         *
+         * @param store {@link PlayerStore} of the tournament.
+         */
+        WorkerState(PlayerStore store) {
+            match = new Match(store);
+            match.setRandom(random);
+            batch.ensureCapacity(PARALLEL_BLOCK_SIZE);
+        }
+    }
+
+    /**
+     * Fork/join task playing a range of matches from one round, splitting it in half until each
+     * part has at most {@link Tournament#PARALLEL_BLOCK_SIZE} matches. Tasks are kept in
+     * {@link Tournament#tasks} and reset for every round.
+     */
+    private class RoundTask extends RecursiveAction {
+        /**
+         * Version of the serialised form, which is never used but required of a {@link RecursiveAction}.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Index of this task in {@link Tournament#tasks}.
+         */
+        private final int node;
+        /**
+         * Round being played (starting at 0).
+         */
+        private int round;
+        /**
+         * Seed of the round, derived from {@link Tournament#seed}.
+         */
+        private long roundSeed;
+        /**
+         * First match to play.
+         */
+        private int from;
+        /**
+         * Match to stop at (exclusive).
+         */
+        private int to;
+
+        /**
+         * Initialises a {@link RoundTask} at a place in {@link Tournament#tasks}.
+         *
+         * @param node Index of the task in {@link Tournament#tasks}.
+         */
+        RoundTask(int node) {
+            this.node = node;
+        }
+
+        /**
+         * Sets the matches to play next, so the task can be run again.
+         *
+         * @param round Round being played (starting at 0).
+         * @param roundSeed Seed of the round, derived from {@link Tournament#seed}.
+         * @param from First match to play.
+         * @param to Match to stop at (exclusive).
+         */
+        void reset(int round, long roundSeed, int from, int to) {
+            reinitialize();
+            this.round = round;
+            this.roundSeed = roundSeed;
+            this.from = from;
+            this.to = to;
+        }
 
-            // Loser will be null for bye matches
-            if (loser != null) {
-                players.remove(loser);
-                out.add(loser);
+        /**
+         * Plays the matches, or splits them between the two tasks below this one if there are too
+         * many.
+         * <p>
+         * Each thread plays with its own {@link WorkerState}, and only writes to the slots and
+         * players of its own matches. Losers are knocked out afterwards by
+         * {@link Tournament#knockOut(int)}.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_BLOCK_SIZE) {
+                invokeAll(tasks[2 * node], tasks[2 * node + 1]);
+                return;
+            }
+            WorkerState state = getWorkerState();
+            Match match = state.match;
+            match.setFixedElo(fixedElo);
+            if (isBatched()) {
+                playBatch(round, roundSeed, false, from, to, match, state.batch);
+                return;
+            }
+            match.setRound(round);
+            match.setSimulationMode(simulationMode);
+            for (int i = from; i < to; i++) {
+                int slot = getSlot(round, i);
+                state.random.reseed(StreamRandom.deriveSeed(roundSeed, i));
+                match.setPlayers(bracket[slot], bracket[slot + 1]);
+                match.setMatchNumber(i);
+                match.playMatch();
+                bracket[slot / 2] = match.getWinner();
             }
         }
     }
 
+    /**
+     * Applies the result of a match which has already been played, such as one read from a
+     * {@link MatchLogReader}, without simulating it.
+     * <p>
+     * The winner is given a win, but Elo ratings are left for the caller to set.
+     *
+     * @param round Round of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param winner id of the player who won the match.
+     * @param loser id of the player who lost the match, or {@link Match#NO_PLAYER} for bye matches.
+     *
+     * @throws IllegalArgumentException Thrown when the players are not the ones in the match.
+     */
+    public void replayMatch(int round, int matchNumber, int winner, int loser) {
+        if (round >= assignedRounds || matchNumber >= getNumberOfMatches(round)) {
+            throw new IllegalArgumentException("Round " + round + " match " + matchNumber + " is not in the bracket!");
+        }
+        int slot = getSlot(round, matchNumber);
+        boolean inMatch = (bracket[slot] == winner && bracket[slot + 1] == loser)
+                || (bracket[slot] == loser && bracket[slot + 1] == winner);
+        if (winner == Match.NO_PLAYER || !inMatch) {
+            throw new IllegalArgumentException("Round " + round + " match " + matchNumber + " was not played by those players!");
+        }
+        store.addWin(winner);
+        advance(round, matchNumber, winner, loser);
+    }
+
+    /**
+     * Moves the winner of a match into their slot of the next round and knocks out the loser.
+     *
+     * @param round Round of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param winner id of the player who won the match.
+     * @param loser id of the player who lost the match, or {@link Match#NO_PLAYER} for bye matches.
+     */
+    private void advance(int round, int matchNumber, int winner, int loser) {
+        // The winner moves straight into their slot of the next round
+        bracket[getSlot(round, matchNumber) / 2] = winner;
+
+        // There is no loser for bye matches
+        if (loser != Match.NO_PLAYER) {
+            knockedOut[loser] = true;
+            out[outCount++] = loser;
+        }
+        updateIndex(winner, loser);
+    }
+
+    /**
+     * Gets the number of bytes {@link Tournament#writeState(ByteBuffer)} writes.
+     *
+     * @return integer number of bytes.
+     */
+    int getStateSize() {
+        return 4 * (5 + playerCount + outCount + bracket.length);
+    }
+
+    /**
+     * Writes the state of the bracket to a buffer: the entered players, the players knocked out,
+     * every bracket slot and the number of rounds assigned and played.
+     *
+     * @param buffer {@link ByteBuffer} to write to, with at least
+     *               {@link Tournament#getStateSize()} bytes remaining.
+     */
+    void writeState(ByteBuffer buffer) {
+        buffer.putInt(playerCount)
+                .putInt(outCount)
+                .putInt(assignedRounds)
+                .putInt(roundsPlayed)
+                .putInt(bracket.length);
+        putInts(buffer, players, playerCount);
+        putInts(buffer, out, outCount);
+        putInts(buffer, bracket, bracket.length);
+    }
+
+    /**
+     * Replaces the state of the bracket with one written by {@link Tournament#writeState(ByteBuffer)}.
+     *
+     * @param buffer {@link ByteBuffer} to read from.
+     */
+    void readState(ByteBuffer buffer) {
+        playerCount = buffer.getInt();
+        outCount = buffer.getInt();
+        assignedRounds = buffer.getInt();
+        roundsPlayed = buffer.getInt();
+        bracket = new int[buffer.getInt()];
+        players = getInts(buffer, playerCount);
+        out = Arrays.copyOf(getInts(buffer, outCount), playerCount);
+        getInts(buffer, bracket);
+        knockedOut = new boolean[store.size()];
+        for (int i = 0; i < outCount; i++) {
+            knockedOut[out[i]] = true;
+        }
+    }
+
+    /**
+     * Writes the start of an array to a buffer in one bulk copy.
+     *
+     * @param buffer {@link ByteBuffer} to write to.
+     * @param values Array to write.
+     * @param length Number of values to write.
+     */
+    static void putInts(ByteBuffer buffer, int[] values, int length) {
+        IntBuffer ints = buffer.asIntBuffer();
+        ints.put(values, 0, length);
+        buffer.position(buffer.position() + 4 * length);
+    }
+
+    /**
+     * Reads an array from a buffer in one bulk copy.
+     *
+     * @param buffer {@link ByteBuffer} to read from.
+     * @param length Number of values to read.
+     *
+     * @return Array of values
+     */
+    static int[] getInts(ByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        getInts(buffer, values);
+        return values;
+    }
+
+    /**
+     * Fills an array from a buffer in one bulk copy.
+     *
+     * @param buffer {@link ByteBuffer} to read from.
+     * @param values Array to fill.
+     */
+    static void getInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    /**
+     * Sorts players from the highest Elo to the lowest Elo. Players with the same Elo stay in the
+     * order they were given.
+     * <p>
+     * Each player's key is how far their Elo is below the highest, which a stable LSD radix sort
+     * puts in order in linear time. Digits are just wide enough for the keys to take as few passes
+     * as possible without having more buckets than players, so a field whose Elo ratings span
+     * fewer values than there are players is sorted by a single counting pass.
+     *
+     * @param store {@link PlayerStore} the players are stored in.
+     * @param players ids of the players to sort.
+     * @param count Number of players in {@code players}.
+     *
+     * @return New array of the {@code count} players' ids in order.
+     */
+    static int[] sortByElo(PlayerStore store, int[] players, int count) {
+        int[] keys = new int[count];
+        int highest = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            keys[i] = store.getElo(players[i]);
+            highest = Math.max(highest, keys[i]);
+        }
+        // Distances are unsigned, so even the full range of int fits
+        int spread = 0;
+        for (int i = 0; i < count; i++) {
+            keys[i] = highest - keys[i];
+            spread |= keys[i];
+        }
+        int[] sorted = Arrays.copyOf(players, count);
+        int bits = 32 - Integer.numberOfLeadingZeros(spread);
+        if (bits == 0) {
+            return sorted;
+        }
+        int maxDigitBits = Math.max(8, Math.min(16, 32 - Integer.numberOfLeadingZeros(count)));
+        int passes = (bits + maxDigitBits - 1) / maxDigitBits;
+        int digitBits = (bits + passes - 1) / passes;
+        int mask = (1 << digitBits) - 1;
+        int[] counts = new int[mask + 2];
+        int[] nextKeys = (passes > 1) ? new int[count] : null;
+        int[] next = new int[count];
+        for (int shift = 0; shift < bits; shift += digitBits) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < count; i++) {
+                counts[((keys[i] >>> shift) & mask) + 1]++;
+            }
+            for (int digit = 0; digit <= mask; digit++) {
+                counts[digit + 1] += counts[digit];
+            }
+            // The last pass only needs to move the players, not their keys
+            boolean lastPass = shift + digitBits >= bits;
+            for (int i = 0; i < count; i++) {
+                int index = counts[(keys[i] >>> shift) & mask]++;
+                if (!lastPass) {
+                    nextKeys[index] = keys[i];
+                }
+                next[index] = sorted[i];
+            }
+            int[] swap = keys;
+            keys = nextKeys;
+            nextKeys = swap;
+            swap = sorted;
+            sorted = next;
+            next = swap;
+        }
+        return sorted;
+    }
+
     /**
      * Calculates the number of needed byes for the first round of a tournament based on how many
      * {@link Tournament#players} are in said tournament.
@@ -185,18 +925,175 @@ public class Tournament {
      * @return integer number of byes needed.
      */
     public int getNeededByes() {
+        return getNeededByes(getRemainingPlayerCount());
+    }
+
+    /**
+     * Calculates the number of byes needed for the first round of a bracket with a given number
+     * of players.
+     *
+     * @param playerCount Number of players in the bracket.
+     *
+     * @return integer number of byes needed.
+     *
+     * @see Tournament#getNeededByes()
+     */
+    public static int getNeededByes(int playerCount) {
         // Number of byes needed is 2^n - (number of players)
         // Where n = ceiling(log_2(number of players))
-        return (int) Math.pow(2, Math.ceil( Math.log(players.size()) / Math.log(2) )) - players.size();
+        return (int) Math.pow(2, Math.ceil( Math.log(playerCount) / Math.log(2) )) - playerCount;
+    }
+
+    /**
+     * Gets the number of players who are not out of the tournament.
+     *
+     * @return integer number of players.
+     */
+    public int getRemainingPlayerCount() {
+        return playerCount - outCount;
+    }
+
+    /**
+     * Setter for {@link Tournament#listener}.
+     *
+     * @param listener {@link TournamentListener} to set {@link Tournament#listener} to.
+     */
+    public void setListener(TournamentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Setter for {@link Tournament#simulationMode}.
+     *
+     * @param simulationMode {@link SimulationMode} to set {@link Tournament#simulationMode} to.
+     */
+    public void setSimulationMode(SimulationMode simulationMode) {
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * Getter for {@link Tournament#simulationMode}.
+     *
+     * @return {@link Tournament#simulationMode}
+     */
+    public SimulationMode getSimulationMode() {
+        return simulationMode;
+    }
+
+    /**
+     * Setter for {@link Tournament#pool}, which also creates the {@link WorkerState} of each
+     * thread of the pool.
+     *
+     * @param pool {@link ForkJoinPool} to play large rounds on, or null to play every match on
+     *             the calling thread.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        if (pool == null) {
+            workerStates = new WorkerState[0];
+            return;
+        }
+        // Rounds left to the calling thread are never larger than a task, so size its arrays up front
+        batch.ensureCapacity(PARALLEL_BLOCK_SIZE);
+        // A pool numbers its workers below the power of two at or above its parallelism
+        workerStates = new WorkerState[Integer.highestOneBit(Math.max(1, pool.getParallelism() - 1)) * 2 + 1];
+        for (int i = 0; i < workerStates.length; i++) {
+            workerStates[i] = new WorkerState(store);
+        }
+    }
+
+    /**
+     * Setter for {@link Tournament#kernel}.
+     *
+     * @param kernel {@link GameKernel} to play rounds with, or null to play every match with
+     *               {@link Match#playMatch()}.
+     */
+    public void setKernel(GameKernel kernel) {
+        this.kernel = kernel;
     }
 
     /**
-     * Getter for {@link Tournament#players}.
+     * Setter for {@link Tournament#fixedElo}.
      *
-     * @return {@link Tournament#players}
+     * @param fixedElo True to play every match at the players' entry Elo ratings.
      */
-    public ArrayList<Player> getPlayers() {
-        return players;
+    public void setFixedElo(boolean fixedElo) {
+        this.fixedElo = fixedElo;
+        match.setFixedElo(fixedElo);
+    }
+
+    /**
+     * Getter for {@link Tournament#fixedElo}.
+     *
+     * @return {@link Tournament#fixedElo}
+     */
+    public boolean isFixedElo() {
+        return fixedElo;
+    }
+
+    /**
+     * Setter for {@link Tournament#index}. The index is updated with every match played from
+     * then on, whether rounds are played one match at a time, in batches or in parallel, so it
+     * should be created from the players before the first round.
+     *
+     * @param index {@link LeaderboardIndex} of the players, or null to keep no live ranking.
+     */
+    public void setLeaderboardIndex(LeaderboardIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Getter for {@link Tournament#index}.
+     *
+     * @return {@link Tournament#index}
+     */
+    public LeaderboardIndex getLeaderboardIndex() {
+        return index;
+    }
+
+    /**
+     * Getter for {@link Tournament#seed}.
+     *
+     * @return {@link Tournament#seed}
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter for {@link Tournament#store}.
+     *
+     * @return {@link Tournament#store}
+     */
+    public PlayerStore getPlayerStore() {
+        return store;
+    }
+
+    /**
+     * Gets the ids of all players who are not out of the tournament.
+     *
+     * @return Array of player ids
+     */
+    public int[] getPlayers() {
+        int[] remaining = new int[getRemainingPlayerCount()];
+        int count = 0;
+        for (int i = 0; i < playerCount; i++) {
+            if (!isKnockedOut(players[i])) {
+                remaining[count++] = players[i];
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Checks whether a player has lost a {@link Match} and is out of the tournament.
+     *
+     * @param player id of the player.
+     *
+     * @return True if the player is out.
+     */
+    private boolean isKnockedOut(int player) {
+        return player < knockedOut.length && knockedOut[player];
     }
 
     /**
@@ -206,25 +1103,81 @@ public class Tournament {
      * @return integer value representing the number of matches.
      */
     public int getNumberOfMatches(int round) {
-        return rounds.get(round).length;
+        if (round >= assignedRounds) {
+            throw new IndexOutOfBoundsException("Round " + round + " has not been assigned yet!");
+        }
+        return bracket.length >> (round + 2);
+    }
+
+    /**
+     * Getter for {@link Tournament#roundsPlayed}.
+     *
+     * @return {@link Tournament#roundsPlayed}
+     */
+    public int getRoundsPlayed() {
+        return roundsPlayed;
+    }
+
+    /**
+     * Getter for {@link Tournament#assignedRounds}.
+     *
+     * @return {@link Tournament#assignedRounds}
+     */
+    public int getAssignedRounds() {
+        return assignedRounds;
+    }
+
+    /**
+     * Gets a {@link Match} of a given round, with the players currently in its slots.
+     *
+     * @param round The round to lookup (starts from 0).
+     * @param matchNumber Number of the match within its round.
+     * @return {@link Match} object, which has no players if the previous round has not been played.
+     */
+    public Match getMatch(int round, int matchNumber) {
+        int slot = getSlot(round, matchNumber);
+        Match match = new Match(store, bracket[slot], bracket[slot + 1]);
+        match.setRound(round);
+        match.setMatchNumber(matchNumber);
+        return match;
     }
 
     /**
      * Creates a leaderboard from the tournament based on number of wins.
+     * <p>
+     * Players knocked out are listed before players still in the tournament, then a stable
+     * counting sort orders everyone by wins. Wins can never be more than the number of rounds, so
+     * this takes linear time rather than comparing players.
      *
-     * @return Sorted array of {@link Player} objects, the first element being
-     * the current first place player of the tournament and the last element
-     * being the last place player.
+     * @return Sorted array of player ids, the first element being the current first place player
+     * of the tournament and the last element being the last place player.
      */
-    public ArrayList<Player> getLeaderboard() {
+    public int[] getLeaderboard() {
         // Concatenate out and players into a new allPlayers array
-        ArrayList<Player> allPlayers = new ArrayList<>();
-        allPlayers.addAll(out);
-        allPlayers.addAll(players);
-
-        // Order by wins
-        allPlayers.sort(new SortByWins());
+        int[] allPlayers = Arrays.copyOf(out, playerCount);
+        int count = outCount;
+        int maxWins = 0;
+        for (int i = 0; i < playerCount; i++) {
+            if (!isKnockedOut(players[i])) {
+                allPlayers[count++] = players[i];
+            }
+        }
+        for (int player : allPlayers) {
+            maxWins = Math.max(maxWins, store.getWins(player));
+        }
 
-        return allPlayers;
+        // Order by wins, counting how many players have each number of wins first
+        int[] starts = new int[maxWins + 2];
+        for (int player : allPlayers) {
+            starts[maxWins - store.getWins(player) + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] leaderboard = new int[playerCount];
+        for (int player : allPlayers) {
+            leaderboard[starts[maxWins - store.getWins(player)]++] = player;
+        }
+        return leaderboard;
     }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package tournament;
+
+import player.Glicko2Ratings;
+import player.RatingPeriod;
+
+/**
+ * Receives the events of a {@link Tournament} as it is played, such as game scores, match results
+ * and Elo changes.
+ * <p>
+ * Events are passed as primitive player ids and scores, so nothing is formatted or allocated
+ * unless a listener chooses to. Every method does nothing by default, so a listener only needs to
+ * override the events it is interested in.
+ * <p>
+ * Within a match, events are sent in the order: {@link TournamentListener#matchStarted},
+ * {@link TournamentListener#gameFinished} for each game, {@link TournamentListener#matchFinished},
+ * then {@link TournamentListener#eloAdjusted} for player 1 and player 2.
+ */
+public interface TournamentListener {
+    /**
+     * Listener which ignores every event.
+     */
+    TournamentListener SILENT = new TournamentListener() {};
+
+    /**
+     * Creates a listener which sends every event to two listeners, in order.
+     *
+     * @param first {@link TournamentListener} each event is sent to first.
+     * @param second {@link TournamentListener} each event is sent to second.
+     *
+     * @return {@link TournamentListener} object
+     */
+    static TournamentListener combine(TournamentListener first, TournamentListener second) {
+        return new TournamentListener() {
+            @Override
+            public void roundStarted(int round, int matches) {
+                first.roundStarted(round, matches);
+                second.roundStarted(round, matches);
+            }
+
+            @Override
+            public void stageStarted(int round, BracketSide side, int sideRound, int matches) {
+                first.stageStarted(round, side, sideRound, matches);
+                second.stageStarted(round, side, sideRound, matches);
+            }
+
+            @Override
+            public void matchStarted(int round, int matchNumber, int player1, int player2) {
+                first.matchStarted(round, matchNumber, player1, player2);
+                second.matchStarted(round, matchNumber, player1, player2);
+            }
+
+            @Override
+            public void gameFinished(int round, int matchNumber, int player1, int player2, int games1, int games2) {
+                first.gameFinished(round, matchNumber, player1, player2, games1, games2);
+                second.gameFinished(round, matchNumber, player1, player2, games1, games2);
+            }
+
+            @Override
+            public void matchFinished(int round, int matchNumber, int player1, int player2, int winner, int games1, int games2) {
+                first.matchFinished(round, matchNumber, player1, player2, winner, games1, games2);
+                second.matchFinished(round, matchNumber, player1, player2, winner, games1, games2);
+            }
+
+            @Override
+            public void eloAdjusted(int player, int oldElo, int newElo) {
+                first.eloAdjusted(player, oldElo, newElo);
+                second.eloAdjusted(player, oldElo, newElo);
+            }
+
+            @Override
+            public void roundFinished(int round, int remainingPlayers) {
+                first.roundFinished(round, remainingPlayers);
+                second.roundFinished(round, remainingPlayers);
+            }
+        };
+    }
+
+    /**
+     * Creates a listener which adds the result of every match, other than byes, to a
+     * {@link RatingPeriod} so the players can be rated by {@link Glicko2Ratings} afterwards.
+     *
+     * @param period {@link RatingPeriod} results are added to.
+     *
+     * @return {@link TournamentListener} object
+     */
+    static TournamentListener recordResults(RatingPeriod period) {
+        return new TournamentListener() {
+            @Override
+            public void matchFinished(int round, int matchNumber, int player1, int player2, int winner, int games1, int games2) {
+                if (player2 != Match.NO_PLAYER) {
+                    period.addResult(player1, player2, (winner == player1) ? 1 : 0);
+                }
+            }
+        };
+    }
+
+    /**
+     * Called before the first match of a round is played.
+     *
+     * @param round Round number (starting at 0).
+     * @param matches Number of matches in the round. The final is the only round with 1 match.
+     */
+    default void roundStarted(int round, int matches) {}
+
+    /**
+     * Called instead of {@link TournamentListener#roundStarted} by a
+     * {@link DoubleEliminationTournament}, before the first match of each stage, so its brackets
+     * can be told apart. Calls {@link TournamentListener#roundStarted} by default.
+     *
+     * @param round Stage number across both brackets and the grand final (starting at 0).
+     * @param side {@link BracketSide} the stage is played in.
+     * @param sideRound Round number within its side (starting at 0). The grand final is round 0
+     *                  and its bracket reset is round 1.
+     * @param matches Number of matches in the stage.
+     */
+    default void stageStarted(int round, BracketSide side, int sideRound, int matches) {
+        roundStarted(round, matches);
+    }
+
+    /**
+     * Called before a match is played.
+     *
+     * @param round Round number of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2, or {@link Match#NO_PLAYER} for bye matches.
+     */
+    default void matchStarted(int round, int matchNumber, int player1, int player2) {}
+
+    /**
+     * Called after each game of a match.
+     *
+     * @param round Round number of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2.
+     * @param games1 Games won by player 1 so far.
+     * @param games2 Games won by player 2 so far.
+     */
+    default void gameFinished(int round, int matchNumber, int player1, int player2, int games1, int games2) {}
+
+    /**
+     * Called when a match has been decided, before Elo ratings are adjusted.
+     *
+     * @param round Round number of the match (starting at 0).
+     * @param matchNumber Number of the match within its round.
+     * @param player1 id of player 1.
+     * @param player2 id of player 2, or {@link Match#NO_PLAYER} for bye matches.
+     * @param winner id of the player who won the match.
+     * @param games1 Games won by player 1.
+     * @param games2 Games won by player 2.
+     */
+    default void matchFinished(int round, int matchNumber, int player1, int player2, int winner, int games1, int games2) {}
+
+    /**
+     * Called after a player's Elo rating has been adjusted at the end of a match.
+     *
+     * @param player id of the player.
+     * @param oldElo Elo rating before the match.
+     * @param newElo Elo rating after the match.
+     */
+    default void eloAdjusted(int player, int oldElo, int newElo) {}
+
+    /**
+     * Called after the last match of a round has been played.
+     *
+     * @param round Round number (starting at 0).
+     * @param remainingPlayers Number of players who are not out of the tournament.
+     */
+    default void roundFinished(int round, int remainingPlayers) {}
+}
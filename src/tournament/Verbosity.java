@@ -0,0 +1,39 @@
+package tournament;
+
+/**
+ * How much of a {@link Tournament} a {@link ConsoleListener} prints. Each level prints everything
+ * the previous levels print.
+ */
+public enum Verbosity {
+    /**
+     * Nothing is printed.
+     */
+    SILENT,
+    /**
+     * A header is printed at the start of each round.
+     */
+    ROUNDS,
+    /**
+     * The result of each match and bye is printed.
+     */
+    MATCHES,
+    /**
+     * The match score after each game is printed.
+     */
+    GAMES,
+    /**
+     * Every Elo rating change is printed.
+     */
+    ALL;
+
+    /**
+     * Checks whether this level prints everything another level prints.
+     *
+     * @param level {@link Verbosity} to compare against.
+     *
+     * @return True if this level is the same as or more detailed than {@code level}.
+     */
+    public boolean includes(Verbosity level) {
+        return compareTo(level) >= 0;
+    }
+}